@@ -0,0 +1,425 @@
+package jsvm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compact binary dataset format, the file is opened by {@link FileChannel#map} and the kernel reads the mapped
+ * buffers directly, there is no parsing and the feature data is not copied into the heap.
+ * <p>
+ * Layout, all values are little-endian:
+ * <pre>
+ * magic      8 bytes "JSVMDATA"
+ * version    int
+ * maxIndex   int
+ * rows       long
+ * nnz        long
+ * y          double[rows]
+ * rowPtr     long[rows + 1]
+ * indices    int[nnz], padded to 8 bytes
+ * values     double[nnz]
+ * </pre>
+ * A sidecar written by {@link #cached(Path)} is followed by a trailer identifying its source file:
+ * <pre>
+ * magic      8 bytes "JSVMSRC1"
+ * size       long
+ * mtime      long, milliseconds
+ * </pre>
+ * Usage:
+ * <pre>
+ * BinaryDataset text_file binary_file
+ * </pre>
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 1:45 PM
+ */
+public final class BinaryDataset
+{
+    private static final byte[] MAGIC = {'J', 'S', 'V', 'M', 'D', 'A', 'T', 'A'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final byte[] SOURCE_MAGIC = {'J', 'S', 'V', 'M', 'S', 'R', 'C', '1'};
+    /**
+     * magic, size and modification time of the source file, appended to a sidecar file
+     */
+    private static final int TRAILER_SIZE = 24;
+    /**
+     * file name suffix of sidecar files
+     */
+    public static final String SIDECAR_SUFFIX = ".jsvmbin";
+
+    private BinaryDataset() { }
+
+    /**
+     * @param path file path
+     * @return true if the file is in binary dataset format.
+     */
+    public static boolean isBinary(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                return false;
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) ;
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic.get(i) != MAGIC[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Open a binary dataset by memory mapping, only the labels are copied into the heap.
+     *
+     * @param path binary dataset file
+     * @return {@link SVMProblem} reading the mapped file.
+     */
+    public static SVMProblem open(Path path) throws IOException
+    {
+        requireNonNull(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header.get(i) != MAGIC[i])
+                    throw new IOException(path + " is not a binary dataset");
+            }
+            int version = header.getInt(8);
+            if (version != VERSION)
+                throw new IOException("unsupported binary dataset version " + version);
+            int maxIndex = header.getInt(12);
+            long rows = header.getLong(16);
+            long nnz = header.getLong(24);
+            if (rows > Integer.MAX_VALUE / 8 - 1)
+                throw new IOException("too many rows in " + path + ": " + rows);
+            int l = (int) rows;
+
+            long yOffset = HEADER_SIZE;
+            long rowPtrOffset = yOffset + 8 * rows;
+            long indicesOffset = rowPtrOffset + 8 * (rows + 1);
+            long valuesOffset = align8(indicesOffset + 4 * nnz);
+
+            double[] y = new double[l];
+            map(channel, yOffset, 8L * l).asDoubleBuffer().get(y);
+
+            LongBuffer rowPtr = map(channel, rowPtrOffset, 8 * (rows + 1)).asLongBuffer();
+            int[] segmentRow = BufferCSRMatrix.segments(rowPtr, l, BufferCSRMatrix.SEGMENT_NODES);
+            int n = segmentRow.length - 1;
+            long[] segmentBase = new long[n];
+            IntBuffer[] indices = new IntBuffer[n];
+            DoubleBuffer[] values = new DoubleBuffer[n];
+            for (int s = 0; s < n; s++) {
+                long begin = rowPtr.get(segmentRow[s]);
+                long end = rowPtr.get(segmentRow[s + 1]);
+                segmentBase[s] = begin;
+                indices[s] = map(channel, indicesOffset + 4 * begin, 4 * (end - begin)).asIntBuffer();
+                values[s] = map(channel, valuesOffset + 8 * begin, 8 * (end - begin)).asDoubleBuffer();
+            }
+            return new SVMProblem(y, new BufferCSRMatrix(rowPtr, segmentRow, segmentBase, indices, values, maxIndex));
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException
+    {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long align8(long offset)
+    {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Write a dataset in binary format.
+     *
+     * @param problem the dataset
+     * @param path    output file
+     */
+    public static void write(SVMProblem problem, Path path) throws IOException
+    {
+        FeatureMatrix x = problem.getMatrix();
+        long nnz = 0;
+        for (int i = 0; i < problem.l; i++)
+            nnz += x.length(i);
+
+        try (Writer writer = new Writer(path, problem.l, nnz)) {
+            for (int i = 0; i < problem.l; i++) {
+                writer.startRow(problem.y[i]);
+                int n = x.length(i);
+                for (int k = 0; k < n; k++)
+                    writer.add(x.index(i, k), x.value(i, k));
+            }
+        }
+    }
+
+    /**
+     * Convert a LIBSVM text dataset to binary format. The text file is read twice, the first pass counts rows and
+     * nodes, the second pass writes them, so the dataset is never held in memory.
+     *
+     * @param text   text dataset
+     * @param binary output binary dataset
+     */
+    public static void convert(Path text, Path binary) throws IOException
+    {
+        write(DataSource.of(text), binary);
+    }
+
+    /**
+     * Write the rows of a {@link DataSource} in binary format. The source is read twice, the first pass counts rows
+     * and nodes, the second pass writes them.
+     *
+     * @param source the dataset
+     * @param path   output file
+     */
+    public static void write(DataSource source, Path path) throws IOException
+    {
+        long rows = 0;
+        long nnz = 0;
+        try (DataSource.Cursor cursor = source.open()) {
+            while (cursor.next()) {
+                nnz += cursor.length();
+                rows++;
+            }
+        }
+
+        try (DataSource.Cursor cursor = source.open();
+             Writer writer = new Writer(path, rows, nnz)) {
+            while (cursor.next()) {
+                writer.startRow(cursor.label());
+                int[] indices = cursor.indices();
+                double[] values = cursor.values();
+                int n = cursor.length();
+                for (int k = 0; k < n; k++)
+                    writer.add(indices[k], values[k]);
+            }
+        }
+    }
+
+    /**
+     * Disk-backed row store for training on a dataset larger than the heap. The rows of the source are written to
+     * the file in binary format, and the file is memory mapped, only the labels are loaded into the heap.
+     *
+     * @param source the dataset
+     * @param path   file of the row store, it is overwritten
+     * @return {@link SVMProblem} reading the mapped file.
+     */
+    public static SVMProblem store(DataSource source, Path path) throws IOException
+    {
+        write(source, path);
+        return open(path);
+    }
+
+    /**
+     * Load a text dataset through a binary sidecar file. The sidecar is the file name with {@link #SIDECAR_SUFFIX}
+     * appended, in the same directory. The first load parses the text file and writes the sidecar, later loads map
+     * the sidecar instead of parsing. The sidecar records the size and the modification time of the text file, it is
+     * replaced when either changes.
+     * <p>
+     * If the sidecar can not be written, for example in a read-only directory, the parsed dataset is returned
+     * without it.
+     *
+     * @param text text dataset, may be gzip compressed
+     * @return the {@link SVMProblem}, mapped from the sidecar if it is valid.
+     */
+    public static SVMProblem cached(Path text) throws IOException
+    {
+        requireNonNull(text);
+        Path sidecar = text.resolveSibling(text.getFileName() + SIDECAR_SUFFIX);
+        // taken before parsing, so a file modified while it is parsed does not match it later
+        long size = Files.size(text);
+        long modified = Files.getLastModifiedTime(text).toMillis();
+        if (isSidecarOf(sidecar, size, modified))
+            return open(sidecar);
+
+        SVMProblem problem = ParallelTextLoader.load(text);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+            write(problem, temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                trailer.put(SOURCE_MAGIC).putLong(size).putLong(modified);
+                trailer.flip();
+                long position = channel.size();
+                while (trailer.hasRemaining())
+                    position += channel.write(trailer, position);
+            }
+            try {
+                Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            SVM.info("can not write sidecar " + sidecar + ": " + e + "\n");
+            if (temp != null)
+                Files.deleteIfExists(temp);
+        }
+        return problem;
+    }
+
+    /**
+     * @return true if the file is a complete sidecar of a source with the given size and modification time.
+     */
+    private static boolean isSidecarOf(Path sidecar, long size, long modified) throws IOException
+    {
+        if (!Files.isRegularFile(sidecar) || !isBinary(sidecar))
+            return false;
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.getInt(8) != VERSION)
+                return false;
+            long rows = header.getLong(16);
+            long nnz = header.getLong(24);
+            long end = align8(HEADER_SIZE + 8 * rows + 8 * (rows + 1) + 4 * nnz) + 8 * nnz;
+            if (channel.size() != end + TRAILER_SIZE)
+                return false;
+            ByteBuffer trailer = map(channel, end, TRAILER_SIZE);
+            for (int i = 0; i < SOURCE_MAGIC.length; i++) {
+                if (trailer.get(i) != SOURCE_MAGIC[i])
+                    return false;
+            }
+            return trailer.getLong(8) == size && trailer.getLong(16) == modified;
+        }
+    }
+
+    /**
+     * Streaming writer of the binary format. The number of rows and nodes must be known in advance, every section
+     * is written at its final position through its own buffer.
+     */
+    public static final class Writer implements Closeable
+    {
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final long rows;
+        private final long nnz;
+        private final Section y;
+        private final Section rowPtr;
+        private final Section indices;
+        private final Section values;
+        private long row;
+        private long node;
+        private int maxIndex;
+
+        /**
+         * @param path output file
+         * @param rows number of rows to be written
+         * @param nnz  number of nodes to be written
+         */
+        public Writer(Path path, long rows, long nnz) throws IOException
+        {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.rows = rows;
+            this.nnz = nnz;
+            long rowPtrOffset = HEADER_SIZE + 8 * rows;
+            long indicesOffset = rowPtrOffset + 8 * (rows + 1);
+            this.y = new Section(HEADER_SIZE);
+            this.rowPtr = new Section(rowPtrOffset);
+            this.indices = new Section(indicesOffset);
+            this.values = new Section(align8(indicesOffset + 4 * nnz));
+        }
+
+        /**
+         * Start a new row.
+         *
+         * @param label label of the row
+         */
+        public void startRow(double label) throws IOException
+        {
+            if (row == rows)
+                throw new IllegalStateException("more rows than declared " + rows);
+            y.buffer(8).putDouble(label);
+            rowPtr.buffer(8).putLong(node);
+            row++;
+        }
+
+        /**
+         * Append a node to the current row, nodes must be added in increasing index order.
+         */
+        public void add(int index, double value) throws IOException
+        {
+            if (node == nnz)
+                throw new IllegalStateException("more nodes than declared " + nnz);
+            indices.buffer(4).putInt(index);
+            values.buffer(8).putDouble(value);
+            maxIndex = Math.max(maxIndex, index);
+            node++;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try {
+                if (row != rows || node != nnz)
+                    throw new IllegalStateException("declared " + rows + " rows and " + nnz + " nodes, written " + row
+                            + " rows and " + node + " nodes");
+                rowPtr.buffer(8).putLong(node);
+                y.flush();
+                rowPtr.flush();
+                indices.flush();
+                values.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.put(MAGIC).putInt(VERSION).putInt(maxIndex).putLong(rows).putLong(nnz);
+                header.flip();
+                long position = 0;
+                while (header.hasRemaining())
+                    position += channel.write(header, position);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private final class Section
+        {
+            private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            private long position;
+
+            Section(long position)
+            {
+                this.position = position;
+            }
+
+            ByteBuffer buffer(int bytes) throws IOException
+            {
+                if (buffer.remaining() < bytes)
+                    flush();
+                return buffer;
+            }
+
+            void flush() throws IOException
+            {
+                buffer.flip();
+                while (buffer.hasRemaining())
+                    position += channel.write(buffer, position);
+                buffer.clear();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2) {
+            System.err.print("Usage: BinaryDataset text_file binary_file\n");
+            System.exit(1);
+        }
+        convert(Paths.get(args[0]), Paths.get(args[1]));
+    }
+}
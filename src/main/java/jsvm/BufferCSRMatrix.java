@@ -0,0 +1,343 @@
+package jsvm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * CSR matrix read directly from NIO buffers, such as the regions of a memory-mapped {@link BinaryDataset}, or direct
+ * buffers allocated by {@link #directCopyOf(FeatureMatrix)} and {@link DirectBuilder}. Either way the feature data is
+ * outside of the Java heap, the garbage collector does not trace it, and the kernel reads it without allocation.
+ * <p>
+ * A single buffer can not address more than 2GB, so the nodes are split into segments at row boundaries, every
+ * segment has its own index and value buffer. Row pointers are global node offsets.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 2:10 PM
+ */
+final class BufferCSRMatrix implements FeatureMatrix
+{
+    /**
+     * maximum number of nodes in one buffer, a double buffer can not exceed 2GB
+     */
+    static final long SEGMENT_NODES = Integer.MAX_VALUE / 8;
+
+    private final int rows;
+    private final LongBuffer rowPtr;
+    /**
+     * first row of each segment, followed by the number of rows
+     */
+    private final int[] segmentRow;
+    /**
+     * global offset of the first node of each segment
+     */
+    private final long[] segmentBase;
+    private final IntBuffer[] indices;
+    private final DoubleBuffer[] values;
+    private final int maxIndex;
+
+    BufferCSRMatrix(LongBuffer rowPtr, int[] segmentRow, long[] segmentBase, IntBuffer[] indices,
+            DoubleBuffer[] values, int maxIndex)
+    {
+        this.rows = segmentRow[segmentRow.length - 1];
+        this.rowPtr = rowPtr;
+        this.segmentRow = segmentRow;
+        this.segmentBase = segmentBase;
+        this.indices = indices;
+        this.values = values;
+        this.maxIndex = maxIndex;
+    }
+
+    /**
+     * Split rows into segments whose nodes fit in one buffer.
+     *
+     * @param rowPtr     global row pointers
+     * @param rows       number of rows
+     * @param maxNodes   maximum number of nodes of a segment
+     * @return first row of each segment, followed by the number of rows.
+     */
+    static int[] segments(LongBuffer rowPtr, int rows, long maxNodes)
+    {
+        int[] first = new int[8];
+        int n = 0;
+        int start = 0;
+        for (int i = 0; i < rows; i++) {
+            if (i > start && rowPtr.get(i + 1) - rowPtr.get(start) > maxNodes) {
+                if (n + 1 >= first.length)
+                    first = Arrays.copyOf(first, first.length * 2);
+                first[n++] = start;
+                start = i;
+            }
+        }
+        if (n + 2 > first.length)
+            first = Arrays.copyOf(first, n + 2);
+        first[n++] = start;
+        first[n++] = rows;
+        return Arrays.copyOf(first, n);
+    }
+
+    /**
+     * Copy the rows of any {@link FeatureMatrix} into direct buffers.
+     *
+     * @param matrix the source matrix
+     * @return the off-heap copy.
+     */
+    static BufferCSRMatrix directCopyOf(FeatureMatrix matrix)
+    {
+        int l = matrix.rows();
+        long nnz = 0;
+        for (int i = 0; i < l; i++)
+            nnz += matrix.length(i);
+        DirectBuilder builder = new DirectBuilder(l, nnz);
+        for (int i = 0; i < l; i++) {
+            int n = matrix.length(i);
+            builder.startRow(n);
+            for (int k = 0; k < n; k++)
+                builder.add(matrix.index(i, k), matrix.value(i, k));
+        }
+        return builder.build();
+    }
+
+    private int segment(int row)
+    {
+        if (segmentRow.length == 2)
+            return 0;
+        int s = Arrays.binarySearch(segmentRow, 0, segmentRow.length - 1, row);
+        return s >= 0 ? s : -s - 2;
+    }
+
+    @Override
+    public int rows()
+    {
+        return rows;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return maxIndex;
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return (int) (rowPtr.get(row + 1) - rowPtr.get(row));
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        int s = segment(row);
+        return indices[s].get((int) (rowPtr.get(row) - segmentBase[s]) + k);
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        int s = segment(row);
+        return values[s].get((int) (rowPtr.get(row) - segmentBase[s]) + k);
+    }
+
+    @Override
+    public double dot(int i, int j)
+    {
+        int si = segment(i);
+        int sj = segment(j);
+        IntBuffer xi = indices[si];
+        IntBuffer xj = indices[sj];
+        DoubleBuffer vi = values[si];
+        DoubleBuffer vj = values[sj];
+        int p = (int) (rowPtr.get(i) - segmentBase[si]);
+        int pe = (int) (rowPtr.get(i + 1) - segmentBase[si]);
+        int q = (int) (rowPtr.get(j) - segmentBase[sj]);
+        int qe = (int) (rowPtr.get(j + 1) - segmentBase[sj]);
+
+        double sum = 0;
+        while (p < pe && q < qe) {
+            int a = xi.get(p);
+            int b = xj.get(q);
+            if (a == b)
+                sum += vi.get(p++) * vj.get(q++);
+            else if (a > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(SVMNode[] x, int j)
+    {
+        int s = segment(j);
+        IntBuffer xj = indices[s];
+        DoubleBuffer vj = values[s];
+        int q = (int) (rowPtr.get(j) - segmentBase[s]);
+        int qe = (int) (rowPtr.get(j + 1) - segmentBase[s]);
+
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        while (p < xlen && q < qe) {
+            int a = x[p].index;
+            int b = xj.get(q);
+            if (a == b)
+                sum += x[p++].value * vj.get(q++);
+            else if (a > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(SVMNode[] x, int j)
+    {
+        int s = segment(j);
+        IntBuffer xj = indices[s];
+        DoubleBuffer vj = values[s];
+        int q = (int) (rowPtr.get(j) - segmentBase[s]);
+        int qe = (int) (rowPtr.get(j + 1) - segmentBase[s]);
+
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        while (p < xlen && q < qe) {
+            int a = x[p].index;
+            int b = xj.get(q);
+            if (a == b) {
+                double d = x[p++].value - vj.get(q++);
+                sum += d * d;
+            } else if (a > b) {
+                double v = vj.get(q++);
+                sum += v * v;
+            } else {
+                sum += x[p].value * x[p].value;
+                ++p;
+            }
+        }
+
+        while (p < xlen) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+
+        while (q < qe) {
+            double v = vj.get(q++);
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    /**
+     * Builder of a matrix in direct buffers, the number of rows and nodes must be known in advance. A row is started
+     * with its length, so that it is placed in a single segment.
+     */
+    static final class DirectBuilder
+    {
+        private final long rows;
+        private final long nnz;
+        private final long segmentNodes;
+        private final LongBuffer rowPtr;
+        private int[] segmentRow = new int[2];
+        private long[] segmentBase = new long[1];
+        private IntBuffer[] indices = new IntBuffer[1];
+        private DoubleBuffer[] values = new DoubleBuffer[1];
+        private int segments;
+        private int row;
+        private long node;
+        private long rowEnd;
+        private int maxIndex;
+
+        DirectBuilder(long rows, long nnz)
+        {
+            this(rows, nnz, SEGMENT_NODES);
+        }
+
+        /**
+         * @param segmentNodes maximum number of nodes of a buffer, a row longer than it can not be added
+         */
+        DirectBuilder(long rows, long nnz, long segmentNodes)
+        {
+            if (rows > Integer.MAX_VALUE / 8 - 1)
+                throw new IllegalArgumentException("too many rows: " + rows);
+            this.rows = rows;
+            this.nnz = nnz;
+            this.segmentNodes = segmentNodes;
+            this.rowPtr = allocate(8 * (rows + 1)).asLongBuffer();
+            rowPtr.put(0, 0);
+        }
+
+        private static ByteBuffer allocate(long bytes)
+        {
+            return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        }
+
+        /**
+         * Start a new row.
+         *
+         * @param length number of nodes of the row
+         */
+        void startRow(int length)
+        {
+            if (node != rowEnd)
+                throw new IllegalStateException("row " + (row - 1) + " is incomplete");
+            if (row == rows || node + length > nnz)
+                throw new IllegalStateException("more rows or nodes than declared");
+            if (length > segmentNodes)
+                throw new IllegalArgumentException("row " + row + " is too long: " + length);
+            if (segments == 0 || node + length - segmentBase[segments - 1] > indices[segments - 1].capacity())
+                newSegment();
+            rowEnd = node + length;
+            rowPtr.put(++row, rowEnd);
+        }
+
+        private void newSegment()
+        {
+            if (segments == indices.length) {
+                segmentRow = Arrays.copyOf(segmentRow, segments * 2 + 1);
+                segmentBase = Arrays.copyOf(segmentBase, segments * 2);
+                indices = Arrays.copyOf(indices, segments * 2);
+                values = Arrays.copyOf(values, segments * 2);
+            }
+            int capacity = (int) Math.min(segmentNodes, nnz - node);
+            segmentRow[segments] = row;
+            segmentBase[segments] = node;
+            indices[segments] = allocate(4L * capacity).asIntBuffer();
+            values[segments] = allocate(8L * capacity).asDoubleBuffer();
+            segments++;
+        }
+
+        /**
+         * Add a node to current row.
+         */
+        void add(int index, double value)
+        {
+            if (node == rowEnd)
+                throw new IllegalStateException("row " + (row - 1) + " is full");
+            int p = (int) (node++ - segmentBase[segments - 1]);
+            indices[segments - 1].put(p, index);
+            values[segments - 1].put(p, value);
+            if (index > maxIndex)
+                maxIndex = index;
+        }
+
+        BufferCSRMatrix build()
+        {
+            if (row != rows || node != nnz)
+                throw new IllegalStateException("declared " + rows + " rows and " + nnz + " nodes, added " + row
+                        + " rows and " + node + " nodes");
+            if (segments == 0)
+                newSegment();
+            segmentRow[segments] = row;
+            return new BufferCSRMatrix(rowPtr, Arrays.copyOf(segmentRow, segments + 1),
+                    Arrays.copyOf(segmentBase, segments), Arrays.copyOf(indices, segments),
+                    Arrays.copyOf(values, segments), maxIndex);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package jsvm;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tokenizer and number parser working on raw bytes, shared by the readers of data files and model files. Tokens are
+ * separated by the characters of {@link SVMProblem#SPLITTER}, numbers are parsed in place without creating objects.
+ * <p>
+ * Decimal numbers with at most 18 significant digits and a power of ten within [-22, 22] after removing the
+ * fraction are converted exactly by a single multiplication or division of two exactly representable doubles
+ * (Clinger's fast path), which covers almost all values in LIBSVM files. Other numbers fall back to
+ * {@link Double#parseDouble(String)}, so results are always identical to it.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 6:30 PM
+ */
+final class ByteTokenizer
+{
+    private static final double[] POWER_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * integers up to 2^53 are exactly representable by double
+     */
+    private static final long MAX_EXACT = 1L << 53;
+
+    private byte[] buffer;
+    private int pos;
+    private int end;
+    private int tokenStart;
+    private int tokenEnd;
+
+    /**
+     * Tokenize the bytes [start, end) of buffer.
+     */
+    ByteTokenizer reset(byte[] buffer, int start, int end)
+    {
+        this.buffer = buffer;
+        this.pos = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * Tokenize the current line of the reader.
+     */
+    ByteTokenizer reset(LineReader reader)
+    {
+        return reset(reader.buffer(), reader.start(), reader.end());
+    }
+
+    static boolean isDelimiter(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == ':' || b == '[' || b == ']';
+    }
+
+    /**
+     * Advance to the next token.
+     *
+     * @return false if there is no more token.
+     */
+    boolean next()
+    {
+        while (pos < end && isDelimiter(buffer[pos]))
+            pos++;
+        if (pos == end)
+            return false;
+        tokenStart = pos;
+        while (pos < end && !isDelimiter(buffer[pos]))
+            pos++;
+        tokenEnd = pos;
+        return true;
+    }
+
+    /**
+     * @return true if there are tokens left.
+     */
+    boolean hasNext()
+    {
+        while (pos < end && isDelimiter(buffer[pos]))
+            pos++;
+        return pos < end;
+    }
+
+    /**
+     * @return number of tokens left, the position is not changed.
+     */
+    int countTokens()
+    {
+        int count = 0;
+        int i = pos;
+        while (true) {
+            while (i < end && isDelimiter(buffer[i]))
+                i++;
+            if (i == end)
+                return count;
+            count++;
+            while (i < end && !isDelimiter(buffer[i]))
+                i++;
+        }
+    }
+
+    /**
+     * @return the next token as int.
+     * @throws NumberFormatException if the token is not an integer, or there is no more token.
+     */
+    int nextInt()
+    {
+        if (!next())
+            throw new NumberFormatException("missing integer");
+        return parseInt(buffer, tokenStart, tokenEnd);
+    }
+
+    /**
+     * @return the next token as long.
+     * @throws NumberFormatException if the token is not an integer, or there is no more token.
+     */
+    long nextLong()
+    {
+        if (!next())
+            throw new NumberFormatException("missing integer");
+        return parseLong(buffer, tokenStart, tokenEnd);
+    }
+
+    /**
+     * @return the next token as double.
+     * @throws NumberFormatException if the token is not a number, or there is no more token.
+     */
+    double nextDouble()
+    {
+        if (!next())
+            throw new NumberFormatException("missing number");
+        return parseDouble(buffer, tokenStart, tokenEnd);
+    }
+
+    /**
+     * Parse an int in bytes [start, end).
+     */
+    static int parseInt(byte[] b, int start, int end)
+    {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > 10)
+            return slowInt(b, start, end);
+
+        long value = 0;
+        for (; i < end; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9)
+                return slowInt(b, start, end);
+            value = value * 10 + d;
+        }
+        if (negative)
+            value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            return slowInt(b, start, end);
+        return (int) value;
+    }
+
+    private static int slowInt(byte[] b, int start, int end)
+    {
+        return Integer.parseInt(new String(b, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Parse a long in bytes [start, end).
+     */
+    static long parseLong(byte[] b, int start, int end)
+    {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        // 18 digits can not overflow
+        if (i == end || end - i > 18)
+            return slowLong(b, start, end);
+
+        long value = 0;
+        for (; i < end; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9)
+                return slowLong(b, start, end);
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    private static long slowLong(byte[] b, int start, int end)
+    {
+        return Long.parseLong(new String(b, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Parse a double in bytes [start, end), the result is identical to {@link Double#parseDouble(String)}.
+     */
+    static double parseDouble(byte[] b, int start, int end)
+    {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;        // significant digits in mantissa
+        int exponent = 0;      // power of ten to apply to mantissa
+        boolean anyDigit = false;
+
+        // integer part
+        for (; i < end; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9)
+                break;
+            anyDigit = true;
+            if (mantissa == 0 && d == 0)
+                continue;
+            if (++digits > 18)
+                return slowDouble(b, start, end);
+            mantissa = mantissa * 10 + d;
+        }
+        // fraction part
+        if (i < end && b[i] == '.') {
+            i++;
+            for (; i < end; i++) {
+                int d = b[i] - '0';
+                if (d < 0 || d > 9)
+                    break;
+                anyDigit = true;
+                exponent--;
+                if (mantissa == 0 && d == 0)
+                    continue;
+                if (++digits > 18)
+                    return slowDouble(b, start, end);
+                mantissa = mantissa * 10 + d;
+            }
+        }
+        if (!anyDigit)
+            return slowDouble(b, start, end);
+
+        // exponent part
+        if (i < end && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (b[i] == '-' || b[i] == '+')) {
+                negativeExponent = b[i] == '-';
+                i++;
+            }
+            if (i == end || end - i > 4)
+                return slowDouble(b, start, end);
+            int e = 0;
+            for (; i < end; i++) {
+                int d = b[i] - '0';
+                if (d < 0 || d > 9)
+                    return slowDouble(b, start, end);
+                e = e * 10 + d;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != end)
+            return slowDouble(b, start, end);
+
+        double value;
+        if (mantissa == 0)
+            value = 0;
+        else if (mantissa <= MAX_EXACT && exponent >= -22 && exponent <= 22)
+            value = exponent >= 0 ? mantissa * POWER_OF_TEN[exponent] : mantissa / POWER_OF_TEN[-exponent];
+        else
+            return slowDouble(b, start, end);
+        return negative ? -value : value;
+    }
+
+    private static double slowDouble(byte[] b, int start, int end)
+    {
+        return Double.parseDouble(new String(b, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+}
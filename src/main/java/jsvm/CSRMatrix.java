@@ -0,0 +1,326 @@
+package jsvm;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sparse row storage of a dataset. The nodes of row i are stored in {@code indices} and {@code values} at
+ * positions {@code [rowPtr[i], rowPtr[i+1])}, so the whole dataset lives in three primitive arrays instead of one
+ * {@link SVMNode} object per nonzero.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 9:20 AM
+ */
+public final class CSRMatrix implements FeatureMatrix, java.io.Serializable
+{
+    private final int[] rowPtr;
+    private final int[] indices;
+    private final double[] values;
+    private final int maxIndex;
+
+    /**
+     * Constructor, the arrays are used directly without copy.
+     *
+     * @param rowPtr  row pointers, length is the number of rows plus one
+     * @param indices feature indices of the nonzero nodes, sorted within each row
+     * @param values  feature values of the nonzero nodes
+     */
+    public CSRMatrix(int[] rowPtr, int[] indices, double[] values)
+    {
+        if (rowPtr.length == 0 || rowPtr[0] != 0 || indices.length < rowPtr[rowPtr.length - 1]
+                || values.length < rowPtr[rowPtr.length - 1]) {
+            throw new IllegalArgumentException("invalid CSR arrays");
+        }
+        this.rowPtr = rowPtr;
+        this.indices = indices;
+        this.values = values;
+
+        int max = 0;
+        for (int i = 0; i < rowPtr.length - 1; i++) {
+            if (rowPtr[i + 1] > rowPtr[i])
+                max = Math.max(max, indices[rowPtr[i + 1] - 1]);
+        }
+        this.maxIndex = max;
+    }
+
+    /**
+     * Create a CSR matrix from {@link SVMNode} rows.
+     *
+     * @param x rows of nodes
+     * @param l number of rows to take
+     * @return the {@link CSRMatrix}
+     */
+    public static CSRMatrix of(SVMNode[][] x, int l)
+    {
+        Builder builder = new Builder(l, 16);
+        for (int i = 0; i < l; i++) {
+            for (SVMNode node : x[i])
+                builder.add(node.index, node.value);
+            builder.endRow();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copy the rows of any {@link FeatureMatrix} into a compact CSR matrix.
+     *
+     * @param matrix the source matrix
+     * @return the {@link CSRMatrix}
+     */
+    public static CSRMatrix copyOf(FeatureMatrix matrix)
+    {
+        int l = matrix.rows();
+        Builder builder = new Builder(l, 16);
+        for (int i = 0; i < l; i++) {
+            int n = matrix.length(i);
+            for (int k = 0; k < n; k++)
+                builder.add(matrix.index(i, k), matrix.value(i, k));
+            builder.endRow();
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return row pointers, the array is shared with this matrix.
+     */
+    public int[] getRowPtr()
+    {
+        return rowPtr;
+    }
+
+    /**
+     * @return feature indices, the array is shared with this matrix.
+     */
+    public int[] getIndices()
+    {
+        return indices;
+    }
+
+    /**
+     * @return feature values, the array is shared with this matrix.
+     */
+    public double[] getValues()
+    {
+        return values;
+    }
+
+    /**
+     * @return total number of nonzero nodes.
+     */
+    public int nnz()
+    {
+        return rowPtr[rowPtr.length - 1];
+    }
+
+    @Override
+    public int rows()
+    {
+        return rowPtr.length - 1;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return maxIndex;
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return rowPtr[row + 1] - rowPtr[row];
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        return indices[rowPtr[row] + k];
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        return values[rowPtr[row] + k];
+    }
+
+    @Override
+    public double dot(int i, int j)
+    {
+        double sum = 0;
+        int p = rowPtr[i];
+        int pe = rowPtr[i + 1];
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        while (p < pe && q < qe) {
+            int a = indices[p];
+            int b = indices[q];
+            if (a == b)
+                sum += values[p++] * values[q++];
+            else if (a > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    @Override
+    public void dot(double[] dense, int stride, int n, int j, double[] sums)
+    {
+        for (int b = 0; b < n; b++)
+            sums[b] = 0;
+        int qe = rowPtr[j + 1];
+        for (int q = rowPtr[j]; q < qe; q++) {
+            int index = indices[q];
+            double v = values[q];
+            for (int b = 0; b < n; b++, index += stride)
+                sums[b] += dense[index] * v;
+        }
+    }
+
+    @Override
+    public double dot(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        while (p < xlen && q < qe) {
+            int a = x[p].index;
+            int b = indices[q];
+            if (a == b)
+                sum += x[p++].value * values[q++];
+            else if (a > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        while (p < xlen && q < qe) {
+            int a = x[p].index;
+            int b = indices[q];
+            if (a == b) {
+                double d = x[p++].value - values[q++];
+                sum += d * d;
+            } else if (a > b) {
+                sum += values[q] * values[q];
+                ++q;
+            } else {
+                sum += x[p].value * x[p].value;
+                ++p;
+            }
+        }
+
+        while (p < xlen) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+
+        while (q < qe) {
+            sum += values[q] * values[q];
+            ++q;
+        }
+        return sum;
+    }
+
+    /**
+     * Incremental builder of {@link CSRMatrix}, rows are appended node by node.
+     */
+    public static final class Builder
+    {
+        private int[] rowPtr;
+        private int[] indices;
+        private double[] values;
+        private int rows;
+        private int nnz;
+
+        public Builder()
+        {
+            this(1024, 16);
+        }
+
+        /**
+         * @param expectedRows expected number of rows
+         * @param expectedNnz  expected number of nonzero nodes
+         */
+        public Builder(int expectedRows, int expectedNnz)
+        {
+            rowPtr = new int[Math.max(expectedRows, 1) + 1];
+            indices = new int[Math.max(expectedNnz, 16)];
+            values = new double[indices.length];
+        }
+
+        /**
+         * Append a node to the current row.
+         */
+        public Builder add(int index, double value)
+        {
+            if (nnz == indices.length) {
+                int capacity = indices.length + (indices.length >> 1);
+                indices = Arrays.copyOf(indices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            indices[nnz] = index;
+            values[nnz] = value;
+            nnz++;
+            return this;
+        }
+
+        /**
+         * Finish the current row.
+         */
+        public Builder endRow()
+        {
+            if (rows + 1 == rowPtr.length)
+                rowPtr = Arrays.copyOf(rowPtr, rowPtr.length + (rowPtr.length >> 1) + 1);
+            rowPtr[++rows] = nnz;
+            return this;
+        }
+
+        /**
+         * @return number of finished rows.
+         */
+        public int rows()
+        {
+            return rows;
+        }
+
+        /**
+         * @return number of nodes added so far.
+         */
+        public int nnz()
+        {
+            return nnz;
+        }
+
+        /**
+         * Copy the finished rows into CSR arrays, the rows are placed from row position {@code row} and node
+         * position {@code node}.
+         */
+        void copyTo(int[] rowPtr, int[] indices, double[] values, int row, int node)
+        {
+            for (int i = 1; i <= rows; i++)
+                rowPtr[row + i] = node + this.rowPtr[i];
+            System.arraycopy(this.indices, 0, indices, node, nnz);
+            System.arraycopy(this.values, 0, values, node, nnz);
+        }
+
+        public CSRMatrix build()
+        {
+            // trim the buffers only when they are over-allocated
+            return new CSRMatrix(rowPtr.length == rows + 1 ? rowPtr : Arrays.copyOf(rowPtr, rows + 1),
+                    indices.length == nnz ? indices : Arrays.copyOf(indices, nnz),
+                    values.length == nnz ? values : Arrays.copyOf(values, nnz));
+        }
+    }
+}
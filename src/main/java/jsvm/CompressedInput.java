@@ -0,0 +1,180 @@
+package jsvm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens data files which may be gzip compressed, compressed files are recognized by their magic number, not by the
+ * file name.
+ * <p>
+ * A compressed file is decompressed by a thread of its own into a queue of blocks, which the reader consumes, so
+ * decompression and parsing run in parallel. The decompressor runs up to {@link #QUEUE_BLOCKS} blocks ahead of the
+ * reader, it only waits when the reader is the slower stage.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 9:15 AM
+ */
+final class CompressedInput
+{
+    private static final int BLOCK_SIZE = 1 << 18;
+    private static final int QUEUE_BLOCKS = 16;
+
+    private CompressedInput() { }
+
+    /**
+     * @return true if the file starts with the gzip magic number.
+     */
+    static boolean isGzip(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) ;
+            return magic.position() == 2 && (magic.get(0) & 0xff) == 0x1f && (magic.get(1) & 0xff) == 0x8b;
+        }
+    }
+
+    /**
+     * Open a file for reading, gzip compressed files are decompressed on a background thread.
+     *
+     * @param path file path
+     * @return stream of the uncompressed content.
+     */
+    static InputStream open(Path path) throws IOException
+    {
+        if (isGzip(path))
+            return new Pipeline(path);
+        return Files.newInputStream(path);
+    }
+
+    private static final class Block
+    {
+        final byte[] data = new byte[BLOCK_SIZE];
+        int length;
+        IOException error;
+    }
+
+    /**
+     * Stream of blocks filled by the decompression thread.
+     */
+    static final class Pipeline extends InputStream
+    {
+        private final BlockingQueue<Block> full = new ArrayBlockingQueue<>(QUEUE_BLOCKS + 1);
+        private final BlockingQueue<Block> free = new ArrayBlockingQueue<>(QUEUE_BLOCKS + 1);
+        private final Thread thread;
+        private Block current;
+        private int pos;
+        private boolean eof;
+
+        Pipeline(Path path) throws IOException
+        {
+            InputStream in = new GZIPInputStream(Files.newInputStream(path), 1 << 16);
+            for (int i = 0; i < QUEUE_BLOCKS; i++)
+                free.add(new Block());
+            thread = new Thread(() -> decompress(in), "jsvm-decompress-" + path.getFileName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void decompress(InputStream in)
+        {
+            try (InputStream input = in) {
+                while (true) {
+                    Block block = free.take();
+                    int n = 0;
+                    int r;
+                    while (n < BLOCK_SIZE && (r = input.read(block.data, n, BLOCK_SIZE - n)) >= 0)
+                        n += r;
+                    block.length = n;
+                    full.put(block);
+                    if (n < BLOCK_SIZE) {
+                        full.put(endBlock(null));
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                try {
+                    full.put(endBlock(e));
+                } catch (InterruptedException ignored) {
+                    // closed by the reader
+                }
+            } catch (InterruptedException ignored) {
+                // closed by the reader
+            }
+        }
+
+        private static Block endBlock(IOException error)
+        {
+            Block block = new Block();
+            block.length = -1;
+            block.error = error;
+            return block;
+        }
+
+        /**
+         * @return false at the end of the stream.
+         */
+        private boolean nextBlock() throws IOException
+        {
+            if (eof)
+                return false;
+            if (current != null)
+                free.add(current);
+            try {
+                current = full.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for decompression");
+            }
+            pos = 0;
+            if (current.length < 0) {
+                eof = true;
+                if (current.error != null)
+                    throw new IOException("decompression failed", current.error);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            while (current == null || pos >= current.length) {
+                if (!nextBlock())
+                    return -1;
+            }
+            return current.data[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+                return 0;
+            while (current == null || pos >= current.length) {
+                if (!nextBlock())
+                    return -1;
+            }
+            int n = Math.min(len, current.length - pos);
+            System.arraycopy(current.data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close()
+        {
+            eof = true;
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package jsvm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A dataset that is read row by row and can be iterated repeatedly, only the current row is held in memory. Every
+ * call of {@link #open()} starts a new pass over the rows.
+ * <p>
+ * Prediction and scaling read a source in one or a few passes. For training, {@link BinaryDataset#store(DataSource,
+ * Path)} writes the rows to a disk-backed row store which is memory mapped, so the dataset can be larger than the
+ * heap.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 8:30 PM
+ */
+@FunctionalInterface
+public interface DataSource
+{
+    /**
+     * @return a new {@link Cursor} positioned before the first row.
+     */
+    Cursor open() throws IOException;
+
+    /**
+     * Source of a file, in LIBSVM text format, in {@link BinaryDataset} format or a binary {@link KernelMatrix}. Text
+     * files are parsed line by line and may be gzip compressed, binary files are memory mapped.
+     *
+     * @param path data file
+     * @return the {@link DataSource}
+     */
+    static DataSource of(Path path)
+    {
+        requireNonNull(path);
+        return () -> {
+            if (Files.notExists(path))
+                throw new IllegalArgumentException(path + " is not exist!");
+            if (BinaryDataset.isBinary(path))
+                return new MatrixCursor(BinaryDataset.open(path));
+            if (KernelMatrix.isKernelMatrix(path))
+                return new MatrixCursor(KernelMatrix.open(path));
+            return new TextCursor(new LineReader(CompressedInput.open(path)));
+        };
+    }
+
+    /**
+     * Source of a LIBSVM text file whose feature ids are hashed, see {@link FeatureHashing}. A {@link BinaryDataset}
+     * file is taken as hashed already.
+     *
+     * @param path    data file, text files may be gzip compressed
+     * @param hashing hashing of the feature ids, null if the ids are feature indices
+     * @return the {@link DataSource}
+     */
+    static DataSource of(Path path, FeatureHashing hashing)
+    {
+        requireNonNull(path);
+        if (hashing == null)
+            return of(path);
+        return () -> {
+            if (Files.notExists(path))
+                throw new IllegalArgumentException(path + " is not exist!");
+            if (BinaryDataset.isBinary(path))
+                return new MatrixCursor(BinaryDataset.open(path));
+            return new TextCursor(new LineReader(CompressedInput.open(path)), hashing);
+        };
+    }
+
+    /**
+     * Source of a dataset already in memory.
+     *
+     * @param problem the dataset
+     * @return the {@link DataSource}
+     */
+    static DataSource of(SVMProblem problem)
+    {
+        requireNonNull(problem);
+        return () -> new MatrixCursor(problem);
+    }
+
+    /**
+     * Iterator over the rows of a {@link DataSource}. The arrays returned by {@link #indices()} and {@link #values()}
+     * are reused, they are only valid until the next call of {@link #next()}.
+     */
+    interface Cursor extends Closeable
+    {
+        /**
+         * Advance to the next row.
+         *
+         * @return false if there is no more row.
+         */
+        boolean next() throws IOException;
+
+        /**
+         * @return label of current row.
+         */
+        double label();
+
+        /**
+         * @return number of nonzero nodes of current row.
+         */
+        int length();
+
+        /**
+         * @return feature indices of current row in the first {@link #length()} elements, sorted in increasing order.
+         */
+        int[] indices();
+
+        /**
+         * @return feature values of current row in the first {@link #length()} elements.
+         */
+        double[] values();
+    }
+}
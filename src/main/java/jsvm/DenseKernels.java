@@ -0,0 +1,57 @@
+package jsvm;
+
+/**
+ * Loops over contiguous arrays used by the dense kernels: dot product, squared euclidean distance and batched
+ * {@code exp}. This is the scalar version for Java 8. The multi-release jar has a version for Java 17 under
+ * {@code src/main/java17}, which uses SIMD from {@code jdk.incubator.vector} when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 5:10 PM
+ */
+final class DenseKernels
+{
+    private DenseKernels() { }
+
+    /**
+     * @return true if the SIMD version is used.
+     */
+    static boolean isVectorized()
+    {
+        return false;
+    }
+
+    /**
+     * @return dot product of a[aOffset, aOffset + n) and b[bOffset, bOffset + n).
+     */
+    static double dot(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        double sum = 0;
+        for (int k = 0; k < n; k++)
+            sum += a[aOffset + k] * b[bOffset + k];
+        return sum;
+    }
+
+    /**
+     * @return squared euclidean distance between a[aOffset, aOffset + n) and b[bOffset, bOffset + n).
+     */
+    static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            double d = a[aOffset + k] - b[bOffset + k];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Replace x[offset, offset + n) by their exponentials.
+     */
+    static void exp(double[] x, int offset, int n)
+    {
+        for (int k = offset; k < offset + n; k++)
+            x[k] = Math.exp(x[k]);
+    }
+}
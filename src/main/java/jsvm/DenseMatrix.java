@@ -0,0 +1,255 @@
+package jsvm;
+
+/**
+ * Dense row-major storage for datasets with few zeros. Row i holds the values of features 1 to
+ * {@link #getMaxIndex()} in {@code data[i * columns, (i + 1) * columns)}, so the inner products need no index
+ * comparisons.
+ * <p>
+ * Every column of a row is reported as a node by {@link #length(int)}, {@link #index(int, int)} and
+ * {@link #value(int, int)}, including zeros. {@link #row(int)} and {@link #copy(int[])} skip the zeros, so the
+ * {@link SVMNode} view and the support vectors of a model are sparse as usual.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 10:05 PM
+ */
+public final class DenseMatrix implements FeatureMatrix, java.io.Serializable
+{
+    private final int rows;
+    private final int columns;
+    private final double[] data;
+
+    /**
+     * Constructor, the array is used directly without copy.
+     *
+     * @param rows    number of rows
+     * @param columns number of features, column k holds feature k + 1
+     * @param data    row-major values
+     */
+    public DenseMatrix(int rows, int columns, double[] data)
+    {
+        if (rows < 0 || columns < 0 || data.length < (long) rows * columns)
+            throw new IllegalArgumentException("invalid dense array");
+        this.rows = rows;
+        this.columns = columns;
+        this.data = data;
+    }
+
+    /**
+     * Copy the rows of any {@link FeatureMatrix} into dense storage.
+     *
+     * @param matrix the source matrix, feature indices must start from 1
+     * @return the {@link DenseMatrix}
+     */
+    public static DenseMatrix copyOf(FeatureMatrix matrix)
+    {
+        int l = matrix.rows();
+        int columns = matrix.getMaxIndex();
+        if ((long) l * columns > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many values for DenseMatrix: " + (long) l * columns);
+
+        double[] data = new double[l * columns];
+        for (int i = 0; i < l; i++) {
+            int n = matrix.length(i);
+            int base = i * columns;
+            for (int k = 0; k < n; k++) {
+                int index = matrix.index(i, k);
+                if (index < 1)
+                    throw new IllegalArgumentException("feature index " + index + " can not be stored densely");
+                data[base + index - 1] = matrix.value(i, k);
+            }
+        }
+        return new DenseMatrix(l, columns, data);
+    }
+
+    /**
+     * @return fraction of nonzero values in the matrix, 1 for an empty matrix.
+     */
+    static double density(FeatureMatrix matrix)
+    {
+        long cells = (long) matrix.rows() * matrix.getMaxIndex();
+        if (cells == 0)
+            return 1;
+        long nnz = 0;
+        for (int i = 0; i < matrix.rows(); i++)
+            nnz += matrix.length(i);
+        return (double) nnz / cells;
+    }
+
+    /**
+     * @return row-major values, the array is shared with this matrix.
+     */
+    public double[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * @return number of nonzero values.
+     */
+    public int nnz()
+    {
+        int nnz = 0;
+        int n = rows * columns;
+        for (int i = 0; i < n; i++) {
+            if (data[i] != 0)
+                nnz++;
+        }
+        return nnz;
+    }
+
+    @Override
+    public int rows()
+    {
+        return rows;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return columns;
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return columns;
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        return k + 1;
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        return data[row * columns + k];
+    }
+
+    @Override
+    public double dot(int i, int j)
+    {
+        return DenseKernels.dot(data, i * columns, data, j * columns, columns);
+    }
+
+    @Override
+    public double dot(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int q = j * columns - 1;
+        for (SVMNode node : x) {
+            if (node.index > columns)
+                break;
+            if (node.index >= 1)
+                sum += node.value * data[q + node.index];
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        // features before column 1 only exist in x
+        while (p < xlen && x[p].index < 1) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+
+        int q = j * columns;
+        for (int k = 1; k <= columns; k++) {
+            double d = data[q + k - 1];
+            if (p < xlen && x[p].index == k)
+                d = x[p++].value - d;
+            sum += d * d;
+        }
+
+        while (p < xlen) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(FeatureMatrix x, int i, int j)
+    {
+        if (x instanceof RowSubset) {
+            i = ((RowSubset) x).baseRow(i);
+            x = ((RowSubset) x).base();
+        }
+        if (!(x instanceof DenseMatrix))
+            return FeatureMatrix.dot(x, i, this, j);
+
+        DenseMatrix m = (DenseMatrix) x;
+        return DenseKernels.dot(m.data, i * m.columns, data, j * columns, Math.min(m.columns, columns));
+    }
+
+    @Override
+    public double squaredDistance(FeatureMatrix x, int i, int j)
+    {
+        if (x instanceof RowSubset) {
+            i = ((RowSubset) x).baseRow(i);
+            x = ((RowSubset) x).base();
+        }
+        if (!(x instanceof DenseMatrix))
+            return FeatureMatrix.squaredDistance(x, i, this, j);
+
+        DenseMatrix m = (DenseMatrix) x;
+        int p = i * m.columns;
+        int q = j * columns;
+        int n = Math.min(m.columns, columns);
+        double sum = DenseKernels.squaredDistance(m.data, p, data, q, n);
+        // columns beyond the other matrix are zeros there
+        for (int k = n; k < m.columns; k++)
+            sum += m.data[p + k] * m.data[p + k];
+        for (int k = n; k < columns; k++)
+            sum += data[q + k] * data[q + k];
+        return sum;
+    }
+
+    @Override
+    public void dot(double[] dense, int stride, int n, int j, double[] sums)
+    {
+        // column k is feature k + 1, summed in the same order as dot(int, int)
+        for (int b = 0; b < n; b++)
+            sums[b] = DenseKernels.dot(dense, b * stride + 1, data, j * columns, columns);
+    }
+
+    @Override
+    public SVMNode[] row(int row)
+    {
+        int base = row * columns;
+        int n = 0;
+        for (int k = 0; k < columns; k++) {
+            if (data[base + k] != 0)
+                n++;
+        }
+        SVMNode[] nodes = new SVMNode[n];
+        n = 0;
+        for (int k = 0; k < columns; k++) {
+            if (data[base + k] != 0)
+                nodes[n++] = new SVMNode(k + 1, data[base + k]);
+        }
+        return nodes;
+    }
+
+    @Override
+    public FeatureMatrix copy(int[] rows)
+    {
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(rows.length, rows.length * 16);
+        for (int row : rows) {
+            int base = row * columns;
+            for (int k = 0; k < columns; k++) {
+                if (data[base + k] != 0)
+                    builder.add(k + 1, data[base + k]);
+            }
+            builder.endRow();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,53 @@
+package jsvm;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive double, used by the loaders to avoid boxing every label.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 10:05 AM
+ */
+final class DoubleList
+{
+    private double[] data;
+    private int size;
+
+    DoubleList()
+    {
+        this(1024);
+    }
+
+    DoubleList(int capacity)
+    {
+        data = new double[Math.max(capacity, 16)];
+    }
+
+    void add(double value)
+    {
+        if (size == data.length)
+            data = Arrays.copyOf(data, data.length + (data.length >> 1));
+        data[size++] = value;
+    }
+
+    double get(int i)
+    {
+        return data[i];
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void copyTo(double[] dest, int pos)
+    {
+        System.arraycopy(data, 0, dest, pos, size);
+    }
+
+    double[] toArray()
+    {
+        return Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,104 @@
+package jsvm;
+
+import java.util.Arrays;
+
+/**
+ * Feature hashing, maps raw feature ids of any magnitude into a fixed number of buckets while the data is parsed, so
+ * the memory of the dataset, the scaling statistics and the model is bounded by the number of buckets instead of the
+ * largest id.
+ * <p>
+ * A raw id is a long, it is mixed by the 64-bit finalizer of MurmurHash3 and mapped to a feature index in [1,
+ * buckets]. Values of ids in the same bucket are summed. A model trained on hashed data records the number of
+ * buckets, so {@link SVMPredict} hashes the test data the same way.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 1:10 PM
+ */
+public final class FeatureHashing implements java.io.Serializable
+{
+    private final int buckets;
+
+    /**
+     * Constructor.
+     *
+     * @param buckets number of buckets, the hashed feature indices are in [1, buckets]
+     */
+    public FeatureHashing(int buckets)
+    {
+        if (buckets < 1)
+            throw new IllegalArgumentException("number of buckets must be positive: " + buckets);
+        this.buckets = buckets;
+    }
+
+    /**
+     * @return number of buckets.
+     */
+    public int getBuckets()
+    {
+        return buckets;
+    }
+
+    /**
+     * @param id raw feature id
+     * @return feature index of the id, in [1, buckets].
+     */
+    public int bucket(long id)
+    {
+        return (int) Long.remainderUnsigned(mix(id), buckets) + 1;
+    }
+
+    private static long mix(long h)
+    {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Hash the nodes of a row. The result is sorted by feature index, values of ids in the same bucket are summed in
+     * the order of the ids.
+     *
+     * @param ids     raw feature ids, overwritten
+     * @param values  values of the ids
+     * @param n       number of nodes
+     * @param indices receives the feature indices, at least n elements
+     * @param hashed  receives the values, at least n elements
+     * @return number of hashed nodes.
+     */
+    int hashRow(long[] ids, double[] values, int n, int[] indices, double[] hashed)
+    {
+        // bucket in the high half and position in the low half, so that sorting keeps the order within a bucket
+        for (int k = 0; k < n; k++)
+            ids[k] = ((long) bucket(ids[k]) << 32) | k;
+        Arrays.sort(ids, 0, n);
+
+        int m = 0;
+        for (int k = 0; k < n; k++) {
+            int index = (int) (ids[k] >>> 32);
+            double value = values[(int) ids[k]];
+            if (m > 0 && indices[m - 1] == index) {
+                hashed[m - 1] += value;
+            } else {
+                indices[m] = index;
+                hashed[m++] = value;
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof FeatureHashing && ((FeatureHashing) o).buckets == buckets;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return buckets;
+    }
+}
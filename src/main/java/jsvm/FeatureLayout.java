@@ -0,0 +1,87 @@
+package jsvm;
+
+/**
+ * Storage layout of the feature vectors of a {@link SVMProblem}.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 10:00 PM
+ */
+public enum FeatureLayout
+{
+    /**
+     * dense when at least {@link #DENSE_THRESHOLD} of the values are nonzero, sparse otherwise
+     */
+    AUTO,
+    /**
+     * sparse rows of (index, value) nodes
+     */
+    SPARSE,
+    /**
+     * contiguous rows of all feature values, see {@link DenseMatrix}
+     */
+    DENSE,
+    /**
+     * sparse rows with delta coded varint indices, see {@link VarintCSRMatrix}
+     */
+    VARINT,
+    /**
+     * sparse rows in direct buffers outside of the Java heap, memory mapped binary datasets are kept as they are.
+     * The size is limited by {@code -XX:MaxDirectMemorySize} instead of the heap size.
+     */
+    OFF_HEAP;
+
+    /**
+     * minimum fraction of nonzero values for the dense layout in {@link #AUTO} mode. A dense value takes 8 bytes and
+     * a sparse node 12 bytes, so at this density the dense layout needs at most a third more memory.
+     */
+    public static final double DENSE_THRESHOLD = 0.5;
+
+    /**
+     * Convert a matrix to this layout.
+     *
+     * @param matrix the matrix
+     * @return the matrix itself if it is in this layout already, otherwise a copy in this layout.
+     */
+    FeatureMatrix apply(FeatureMatrix matrix)
+    {
+        switch (this) {
+            case AUTO:
+                if (!(matrix instanceof DenseMatrix) && DenseMatrix.density(matrix) >= DENSE_THRESHOLD
+                        && (long) matrix.rows() * matrix.getMaxIndex() <= Integer.MAX_VALUE && !hasIndexZero(matrix))
+                    return DenseMatrix.copyOf(matrix);
+                return matrix;
+            case SPARSE:
+                if (matrix instanceof DenseMatrix)
+                    return matrix.copy(allRows(matrix.rows()));    // zeros are skipped
+                if (matrix instanceof VarintCSRMatrix)
+                    return CSRMatrix.copyOf(matrix);
+                return matrix;
+            case DENSE:
+                return matrix instanceof DenseMatrix ? matrix : DenseMatrix.copyOf(matrix);
+            case VARINT:
+                return matrix instanceof VarintCSRMatrix ? matrix : VarintCSRMatrix.copyOf(SPARSE.apply(matrix));
+            case OFF_HEAP:
+                return matrix instanceof BufferCSRMatrix ? matrix : BufferCSRMatrix.directCopyOf(SPARSE.apply(matrix));
+            default:
+                return matrix;
+        }
+    }
+
+    private static boolean hasIndexZero(FeatureMatrix matrix)
+    {
+        for (int i = 0; i < matrix.rows(); i++) {
+            if (matrix.length(i) > 0 && matrix.index(i, 0) < 1)
+                return true;
+        }
+        return false;
+    }
+
+    private static int[] allRows(int rows)
+    {
+        int[] all = new int[rows];
+        for (int i = 0; i < rows; i++)
+            all[i] = i;
+        return all;
+    }
+}
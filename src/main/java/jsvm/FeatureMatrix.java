@@ -0,0 +1,272 @@
+package jsvm;
+
+/**
+ * Row-oriented storage of sparse feature vectors, the kernel and the solver read the data through this interface.
+ * Rows are addressed by their position in the matrix, and the nodes of each row are sorted by feature index.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 9:12 AM
+ */
+public interface FeatureMatrix
+{
+    /**
+     * @return number of rows.
+     */
+    int rows();
+
+    /**
+     * @return the largest feature index in the matrix.
+     */
+    int getMaxIndex();
+
+    /**
+     * @param row row position
+     * @return number of nonzero nodes in the row.
+     */
+    int length(int row);
+
+    /**
+     * @param row row position
+     * @param k   position of the node in the row
+     * @return feature index of the k-th node in the row.
+     */
+    int index(int row, int k);
+
+    /**
+     * @param row row position
+     * @param k   position of the node in the row
+     * @return feature value of the k-th node in the row.
+     */
+    double value(int row, int k);
+
+    /**
+     * @return dot product of row i and row j.
+     */
+    default double dot(int i, int j)
+    {
+        double sum = 0;
+        int ilen = length(i);
+        int jlen = length(j);
+        int p = 0;
+        int q = 0;
+        while (p < ilen && q < jlen) {
+            int a = index(i, p);
+            int b = index(j, q);
+            if (a == b)
+                sum += value(i, p++) * value(j, q++);
+            else if (a > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    /**
+     * @return dot product of the vector x and row j.
+     */
+    default double dot(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int jlen = length(j);
+        int p = 0;
+        int q = 0;
+        while (p < xlen && q < jlen) {
+            int b = index(j, q);
+            if (x[p].index == b)
+                sum += x[p++].value * value(j, q++);
+            else if (x[p].index > b)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    /**
+     * @return squared euclidean distance between the vector x and row j.
+     */
+    default double squaredDistance(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int jlen = length(j);
+        int p = 0;
+        int q = 0;
+        while (p < xlen && q < jlen) {
+            int b = index(j, q);
+            if (x[p].index == b) {
+                double d = x[p++].value - value(j, q++);
+                sum += d * d;
+            } else if (x[p].index > b) {
+                double v = value(j, q++);
+                sum += v * v;
+            } else {
+                sum += x[p].value * x[p].value;
+                ++p;
+            }
+        }
+
+        while (p < xlen) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+
+        while (q < jlen) {
+            double v = value(j, q++);
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    /**
+     * @return dot product of row i of matrix x and row j of this matrix.
+     */
+    default double dot(FeatureMatrix x, int i, int j)
+    {
+        return dot(x, i, this, j);
+    }
+
+    /**
+     * @return squared euclidean distance between row i of matrix x and row j of this matrix.
+     */
+    default double squaredDistance(FeatureMatrix x, int i, int j)
+    {
+        return squaredDistance(x, i, this, j);
+    }
+
+    /**
+     * Dot products of row j and n dense vectors, vector b holds the value of feature index k at
+     * {@code dense[b * stride + k]}. The kernel scatters the rows of several columns once and gathers them against
+     * the other rows with this, instead of merging the indices of each pair of rows.
+     *
+     * @param dense  the dense vectors, every feature index of this matrix must be in [0, stride)
+     * @param stride distance between two dense vectors
+     * @param n      number of dense vectors
+     * @param j      row position
+     * @param sums   receives the n dot products
+     */
+    default void dot(double[] dense, int stride, int n, int j, double[] sums)
+    {
+        for (int b = 0; b < n; b++)
+            sums[b] = 0;
+        int jlen = length(j);
+        for (int q = 0; q < jlen; q++) {
+            int index = index(j, q);
+            double v = value(j, q);
+            for (int b = 0; b < n; b++)
+                sums[b] += dense[b * stride + index] * v;
+        }
+    }
+
+    /**
+     * Copy a row out as {@link SVMNode}s, used by the compatible {@code SVMNode[][]} view.
+     *
+     * @param row row position
+     * @return nodes of the row.
+     */
+    default SVMNode[] row(int row)
+    {
+        int n = length(row);
+        SVMNode[] nodes = new SVMNode[n];
+        for (int k = 0; k < n; k++)
+            nodes[k] = new SVMNode(index(row, k), value(row, k));
+        return nodes;
+    }
+
+    /**
+     * Create a view of selected rows, the storage is shared with this matrix.
+     *
+     * @param rows positions of the selected rows in this matrix
+     * @return a matrix whose row i is row {@code rows[i]} of this matrix.
+     */
+    default FeatureMatrix select(int[] rows)
+    {
+        return new RowSubset(this, rows);
+    }
+
+    /**
+     * Copy selected rows into a new compact matrix, used to keep the support vectors of a model. The copy has the
+     * same value precision as this matrix.
+     *
+     * @param rows positions of the selected rows in this matrix
+     * @return a matrix whose row i is a copy of row {@code rows[i]} of this matrix.
+     */
+    default FeatureMatrix copy(int[] rows)
+    {
+        return CSRMatrix.copyOf(select(rows));
+    }
+
+    /**
+     * @return all rows as {@link SVMNode} arrays.
+     */
+    default SVMNode[][] toNodes()
+    {
+        SVMNode[][] x = new SVMNode[rows()][];
+        for (int i = 0; i < x.length; i++)
+            x[i] = row(i);
+        return x;
+    }
+
+    /**
+     * @return dot product of row i of matrix a and row j of matrix b.
+     */
+    static double dot(FeatureMatrix a, int i, FeatureMatrix b, int j)
+    {
+        double sum = 0;
+        int ilen = a.length(i);
+        int jlen = b.length(j);
+        int p = 0;
+        int q = 0;
+        while (p < ilen && q < jlen) {
+            int ai = a.index(i, p);
+            int bj = b.index(j, q);
+            if (ai == bj)
+                sum += a.value(i, p++) * b.value(j, q++);
+            else if (ai > bj)
+                ++q;
+            else
+                ++p;
+        }
+        return sum;
+    }
+
+    /**
+     * @return squared euclidean distance between row i of matrix a and row j of matrix b.
+     */
+    static double squaredDistance(FeatureMatrix a, int i, FeatureMatrix b, int j)
+    {
+        double sum = 0;
+        int ilen = a.length(i);
+        int jlen = b.length(j);
+        int p = 0;
+        int q = 0;
+        while (p < ilen && q < jlen) {
+            int ai = a.index(i, p);
+            int bj = b.index(j, q);
+            if (ai == bj) {
+                double d = a.value(i, p++) - b.value(j, q++);
+                sum += d * d;
+            } else if (ai > bj) {
+                double v = b.value(j, q++);
+                sum += v * v;
+            } else {
+                double v = a.value(i, p++);
+                sum += v * v;
+            }
+        }
+
+        while (p < ilen) {
+            double v = a.value(i, p++);
+            sum += v * v;
+        }
+
+        while (q < jlen) {
+            double v = b.value(j, q++);
+            sum += v * v;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,174 @@
+package jsvm;
+
+import java.util.Arrays;
+
+/**
+ * Minimum and maximum of each feature, kept in an open addressing hash table, so the memory depends on the number of
+ * distinct features instead of the largest feature index.
+ * <p>
+ * A feature which is absent from some rows has the value 0 in those rows, the count of the rows containing a feature
+ * tells whether 0 is part of its range. Features with index below 1 do not take the zeros, as in the range of a
+ * dense scan from index 1.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 1:50 PM
+ */
+final class FeatureRange
+{
+    private static final int EMPTY = Integer.MIN_VALUE;
+    /**
+     * count of a restored range, which is used as it is
+     */
+    private static final long EXACT = -1;
+
+    private int[] keys;
+    private double[] min;
+    private double[] max;
+    private long[] count;
+    private int size;
+    private long rows;
+
+    FeatureRange()
+    {
+        allocate(64);
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        min = new double[capacity];
+        max = new double[capacity];
+        count = new long[capacity];
+    }
+
+    private static int hash(int index)
+    {
+        int h = index * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return slot of the feature, or -1 if the feature has no range.
+     */
+    int slot(int index)
+    {
+        int mask = keys.length - 1;
+        for (int i = hash(index) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == index)
+                return i;
+            if (keys[i] == EMPTY)
+                return -1;
+        }
+    }
+
+    private int insert(int index)
+    {
+        if (index == EMPTY)
+            throw new IllegalArgumentException("invalid feature index " + index);
+        if (2 * (size + 1) > keys.length)
+            rehash();
+        int mask = keys.length - 1;
+        int i = hash(index) & mask;
+        while (keys[i] != index) {
+            if (keys[i] == EMPTY) {
+                keys[i] = index;
+                min[i] = Double.MAX_VALUE;
+                max[i] = -Double.MAX_VALUE;
+                size++;
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void rehash()
+    {
+        int[] oldKeys = keys;
+        double[] oldMin = min;
+        double[] oldMax = max;
+        long[] oldCount = count;
+        allocate(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY)
+                continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            min[i] = oldMin[j];
+            max[i] = oldMax[j];
+            count[i] = oldCount[j];
+        }
+    }
+
+    /**
+     * Start a new row.
+     */
+    void addRow()
+    {
+        rows++;
+    }
+
+    /**
+     * Add a value of a feature in current row.
+     */
+    void add(int index, double value)
+    {
+        int i = insert(index);
+        min[i] = Math.min(min[i], value);
+        max[i] = Math.max(max[i], value);
+        if (count[i] != EXACT)
+            count[i]++;
+    }
+
+    /**
+     * Set the range of a feature, replacing the range of the rows.
+     */
+    void set(int index, double min, double max)
+    {
+        int i = insert(index);
+        this.min[i] = min;
+        this.max[i] = max;
+        count[i] = EXACT;
+    }
+
+    private boolean hasZero(int slot)
+    {
+        return count[slot] != EXACT && count[slot] < rows && keys[slot] >= 1;
+    }
+
+    /**
+     * @return minimum of the feature in a slot.
+     */
+    double minAt(int slot)
+    {
+        return hasZero(slot) ? Math.min(min[slot], 0) : min[slot];
+    }
+
+    /**
+     * @return maximum of the feature in a slot.
+     */
+    double maxAt(int slot)
+    {
+        return hasZero(slot) ? Math.max(max[slot], 0) : max[slot];
+    }
+
+    /**
+     * @return indices of the features with a range, in increasing order.
+     */
+    int[] indices()
+    {
+        int[] indices = new int[size];
+        int n = 0;
+        for (int key : keys) {
+            if (key != EMPTY)
+                indices[n++] = key;
+        }
+        Arrays.sort(indices);
+        return indices;
+    }
+}
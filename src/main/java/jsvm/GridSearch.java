@@ -1,6 +1,7 @@
 package jsvm;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -18,12 +19,14 @@ public class GridSearch
 {
     private static class MatchTask implements Callable<double[]>
     {
+        private SVMProblem problem;
         private String file;
         private SVMParameter parameter;
         private int fold;
 
-        public MatchTask(double c, double g, int fold, String file, SVMParameter parameter)
+        public MatchTask(double c, double g, int fold, SVMProblem problem, String file, SVMParameter parameter)
         {
+            this.problem = problem;
             this.file = file;
             this.parameter = parameter;
             this.parameter.setC(Math.pow(2, c));
@@ -34,7 +37,7 @@ public class GridSearch
         @Override
         public double[] call() throws IOException
         {
-            SVMTrain train = new SVMTrain(file, parameter, true, fold);
+            SVMTrain train = new SVMTrain(problem, file + ".model", parameter, true, fold);
             Pair<Double, Double> result = train.train();
 
             return new double[]{parameter.getC(), parameter.getGamma(), result.getKey()};
@@ -63,6 +66,7 @@ public class GridSearch
     private String dataPath;
     private SVMParameter parameter;
     private int nrThread;
+    private boolean cache;
 
     public GridSearch(String dataPath, SVMParameter parameter)
     {
@@ -117,6 +121,17 @@ public class GridSearch
         this.gStep = gStep;
     }
 
+    /**
+     * Load the dataset through a binary sidecar file, so that repeated searches parse it only once, see
+     * {@link BinaryDataset#cached(java.nio.file.Path)}.
+     *
+     * @param cache true to cache the dataset
+     */
+    public void setCache(boolean cache)
+    {
+        this.cache = cache;
+    }
+
     public static void main(String[] args) throws ExecutionException, InterruptedException, IOException
     {
 //        SVM.rand.setSeed(987654321);
@@ -206,8 +221,10 @@ public class GridSearch
 //                jobs.add(line);
             }
         }
+        // the dataset is loaded once and shared by all tasks, they only read it
+        SVMProblem problem = new SVMProblem(Paths.get(dataPath), FeatureLayout.AUTO, cache);
         for (Pair<Double, Double> job : jobs) {
-            MatchTask task = new MatchTask(job.getKey(), job.getValue(), nrFold, dataPath, new SVMParameter(parameter));
+            MatchTask task = new MatchTask(job.getKey(), job.getValue(), nrFold, problem, dataPath, new SVMParameter(parameter));
             tasks.add(task);
         }
 
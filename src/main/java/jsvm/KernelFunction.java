@@ -0,0 +1,54 @@
+package jsvm;
+
+/**
+ * A kernel that is a function of the dot product and the squared euclidean norms of two data points,
+ * K(u, v) = f(u'v, |u|^2, |v|^2). The built-in kernels of {@link KernelType} other than
+ * {@link KernelType#PRECOMPUTED} have this form, and a custom kernel is plugged in by
+ * {@link SVMParameter#setKernelFunction(KernelFunction)}.
+ * <p>
+ * The dot products are computed in batches by the sparse or scattered rows, then turned into kernel values by
+ * {@link #apply(double, double[], int, double[], int, int)}: once per tile of up to 256 values of a kernel column in
+ * training, and once per data point against all support vectors in prediction. The kernel is chosen once per kernel
+ * matrix or model, so there is one call per batch and no dispatch per value. Implementations should override
+ * {@code apply} with a plain loop over the batch, the default calls {@link #value(double, double, double)} for each
+ * value.
+ * <p>
+ * The function must be symmetric in u and v and give a positive semidefinite kernel, and it is called from several
+ * threads at once when the kernel columns are filled in parallel, so it should be immutable. It is serialized with
+ * the model, a model with a custom kernel can not be saved in the LIBSVM format.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 21 Oct 2026, 9:30 AM
+ */
+public interface KernelFunction extends java.io.Serializable
+{
+    /**
+     * @param dot     u'v
+     * @param uSquare |u|^2, 0 if {@link #usesSquares()} is false
+     * @param vSquare |v|^2, 0 if {@link #usesSquares()} is false
+     * @return K(u, v)
+     */
+    double value(double dot, double uSquare, double vSquare);
+
+    /**
+     * @return true if the kernel reads the squared norms, they are computed only then.
+     */
+    default boolean usesSquares()
+    {
+        return false;
+    }
+
+    /**
+     * Turn the dot products of u and n points v_k into kernel values, values[from + k] holds u'v_k and receives
+     * K(u, v_k).
+     *
+     * @param uSquare |u|^2, 0 if {@link #usesSquares()} is false
+     * @param vSquare vSquare[vFrom + k] is |v_k|^2, null if {@link #usesSquares()} is false
+     */
+    default void apply(double uSquare, double[] vSquare, int vFrom, double[] values, int from, int n)
+    {
+        for (int k = 0; k < n; k++)
+            values[from + k] = value(values[from + k], uSquare, vSquare == null ? 0 : vSquare[vFrom + k]);
+    }
+}
@@ -0,0 +1,496 @@
+package jsvm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Kernel matrix for {@link KernelType#PRECOMPUTED}, row i holds the kernel values between instance i and the
+ * training instances. The matrix is a {@link FeatureMatrix} in the layout of the LIBSVM precomputed format: node 0 is
+ * {@code 0:serial}, the serial number of the row, and node k is {@code k:K(i, k - 1)}. So the kernel reads a value by
+ * {@link #value(int, int)} straight from the array or the mapped file, without parsing and without nodes.
+ * <p>
+ * The matrix is held in a {@code double[][]} or a row-major {@code float[]} by {@link #of(double[][])} and
+ * {@link #of(float[], int, int)}, or it is memory mapped from a binary file by {@link #open(Path)}. Layout of the
+ * binary file, all values are little-endian:
+ * <pre>
+ * magic      8 bytes "JSVMKERN"
+ * version    int
+ * flags      int, 1: float values, 2: symmetric, only the lower triangle is stored
+ * rows       long
+ * columns    long
+ * y          double[rows]
+ * values     double or float, row-major, row i has i + 1 values if symmetric, padded to 8 bytes
+ * </pre>
+ * Usage:
+ * <pre>
+ * KernelMatrix [-f] [-s] text_file binary_file
+ * -f : store values as float
+ * -s : store the lower triangle of a symmetric matrix
+ * </pre>
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 3:30 PM
+ */
+public abstract class KernelMatrix implements FeatureMatrix
+{
+    private static final byte[] MAGIC = {'J', 'S', 'V', 'M', 'K', 'E', 'R', 'N'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int FLOAT = 1;
+    private static final int SYMMETRIC = 2;
+
+    final int rows;
+    final int columns;
+
+    KernelMatrix(int rows, int columns)
+    {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Kernel matrix in a {@code double[][]}, the array is used directly without copy.
+     *
+     * @param k kernel values, {@code k[i][j]} is the kernel between instance i and training instance j, all rows
+     *          have the same length
+     * @return the {@link KernelMatrix}
+     */
+    public static KernelMatrix of(double[][] k)
+    {
+        requireNonNull(k);
+        int columns = k.length == 0 ? 0 : k[0].length;
+        for (double[] row : k) {
+            if (row.length != columns)
+                throw new IllegalArgumentException("rows of the kernel matrix have different lengths");
+        }
+        return new ArrayKernelMatrix(k, columns);
+    }
+
+    /**
+     * Kernel matrix in a row-major {@code float[]}, the array is used directly without copy.
+     *
+     * @param k       kernel values, {@code k[i * columns + j]} is the kernel between instance i and training
+     *                instance j
+     * @param rows    number of instances
+     * @param columns number of training instances
+     * @return the {@link KernelMatrix}
+     */
+    public static KernelMatrix of(float[] k, int rows, int columns)
+    {
+        requireNonNull(k);
+        if (rows < 0 || columns < 0 || k.length < (long) rows * columns)
+            throw new IllegalArgumentException("invalid kernel array");
+        return new FloatKernelMatrix(k, rows, columns);
+    }
+
+    /**
+     * @return kernel value between instance i and training instance j.
+     */
+    public abstract double get(int i, int j);
+
+    /**
+     * @return number of training instances.
+     */
+    public int columns()
+    {
+        return columns;
+    }
+
+    @Override
+    public int rows()
+    {
+        return rows;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return columns;
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return columns + 1;
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        return k;
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        return k == 0 ? row + 1 : get(row, k - 1);
+    }
+
+    /**
+     * Support vectors only keep their serial numbers, as in a model file.
+     */
+    @Override
+    public FeatureMatrix copy(int[] rows)
+    {
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(rows.length, rows.length);
+        for (int row : rows)
+            builder.add(0, row + 1).endRow();
+        return builder.build();
+    }
+
+    private static final class ArrayKernelMatrix extends KernelMatrix
+    {
+        private final double[][] k;
+
+        ArrayKernelMatrix(double[][] k, int columns)
+        {
+            super(k.length, columns);
+            this.k = k;
+        }
+
+        @Override
+        public double get(int i, int j)
+        {
+            return k[i][j];
+        }
+    }
+
+    private static final class FloatKernelMatrix extends KernelMatrix
+    {
+        private final float[] k;
+
+        FloatKernelMatrix(float[] k, int rows, int columns)
+        {
+            super(rows, columns);
+            this.k = k;
+        }
+
+        @Override
+        public double get(int i, int j)
+        {
+            return k[i * columns + j];
+        }
+    }
+
+    /**
+     * Kernel matrix read from mapped buffers. A buffer can not exceed 2GB, so the rows are split into segments, the
+     * segment and the offset of every row are kept.
+     */
+    private static final class BufferKernelMatrix extends KernelMatrix
+    {
+        private final boolean symmetric;
+        private final int[] rowSegment;
+        private final int[] rowStart;
+        private final DoubleBuffer[] doubles;
+        private final FloatBuffer[] floats;
+
+        BufferKernelMatrix(int rows, int columns, boolean symmetric, int[] rowSegment, int[] rowStart,
+                DoubleBuffer[] doubles, FloatBuffer[] floats)
+        {
+            super(rows, columns);
+            this.symmetric = symmetric;
+            this.rowSegment = rowSegment;
+            this.rowStart = rowStart;
+            this.doubles = doubles;
+            this.floats = floats;
+        }
+
+        @Override
+        public double get(int i, int j)
+        {
+            if (symmetric && j > i) {
+                int t = i;
+                i = j;
+                j = t;
+            }
+            if (floats != null)
+                return floats[rowSegment[i]].get(rowStart[i] + j);
+            return doubles[rowSegment[i]].get(rowStart[i] + j);
+        }
+    }
+
+    /**
+     * @param path file path
+     * @return true if the file is a binary kernel matrix.
+     */
+    public static boolean isKernelMatrix(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE)
+                return false;
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) ;
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic.get(i) != MAGIC[i])
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Open a binary kernel matrix by memory mapping, only the labels are copied into the heap.
+     *
+     * @param path binary kernel matrix file
+     * @return {@link SVMProblem} whose matrix is a {@link KernelMatrix} reading the mapped file.
+     */
+    public static SVMProblem open(Path path) throws IOException
+    {
+        requireNonNull(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, HEADER_SIZE);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header.get(i) != MAGIC[i])
+                    throw new IOException(path + " is not a binary kernel matrix");
+            }
+            int version = header.getInt(8);
+            if (version != VERSION)
+                throw new IOException("unsupported binary kernel matrix version " + version);
+            int flags = header.getInt(12);
+            long rows = header.getLong(16);
+            long columns = header.getLong(24);
+            boolean symmetric = (flags & SYMMETRIC) != 0;
+            int size = (flags & FLOAT) != 0 ? 4 : 8;
+            if (rows > Integer.MAX_VALUE - 1 || columns > Integer.MAX_VALUE - 1)
+                throw new IOException("kernel matrix is too large: " + rows + " x " + columns);
+            if (symmetric && rows != columns)
+                throw new IOException("symmetric kernel matrix is not square: " + rows + " x " + columns);
+            int l = (int) rows;
+
+            double[] y = new double[l];
+            map(channel, HEADER_SIZE, 8L * l).asDoubleBuffer().get(y);
+
+            // rows are grouped into segments of at most 2GB
+            long maxElements = (Integer.MAX_VALUE & ~7L) / size;
+            int[] rowSegment = new int[l];
+            int[] rowStart = new int[l];
+            long[] segmentOffset = new long[8];
+            long[] segmentElements = new long[8];
+            int segments = 0;
+            long offset = 0;
+            for (int i = 0; i < l; i++) {
+                long n = symmetric ? i + 1 : columns;
+                if (n > maxElements)
+                    throw new IOException("row of kernel matrix is too long: " + n);
+                if (segments == 0 || segmentElements[segments - 1] + n > maxElements) {
+                    if (segments == segmentOffset.length) {
+                        segmentOffset = Arrays.copyOf(segmentOffset, segments * 2);
+                        segmentElements = Arrays.copyOf(segmentElements, segments * 2);
+                    }
+                    segmentOffset[segments] = offset;
+                    segmentElements[segments] = 0;
+                    segments++;
+                }
+                rowSegment[i] = segments - 1;
+                rowStart[i] = (int) segmentElements[segments - 1];
+                segmentElements[segments - 1] += n;
+                offset += n;
+            }
+
+            long valuesOffset = HEADER_SIZE + 8L * l;
+            DoubleBuffer[] doubles = size == 8 ? new DoubleBuffer[segments] : null;
+            FloatBuffer[] floats = size == 4 ? new FloatBuffer[segments] : null;
+            for (int s = 0; s < segments; s++) {
+                ByteBuffer buffer = map(channel, valuesOffset + size * segmentOffset[s], size * segmentElements[s]);
+                if (floats != null)
+                    floats[s] = buffer.asFloatBuffer();
+                else
+                    doubles[s] = buffer.asDoubleBuffer();
+            }
+            return new SVMProblem(y, new BufferKernelMatrix(l, (int) columns, symmetric, rowSegment, rowStart,
+                    doubles, floats));
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException
+    {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Write a kernel matrix in binary format.
+     *
+     * @param y         labels of the rows
+     * @param k         the kernel matrix
+     * @param path      output file
+     * @param useFloat  true to store the values as float
+     * @param symmetric true to store only the lower triangle, the matrix must be square and symmetric
+     */
+    public static void write(double[] y, KernelMatrix k, Path path, boolean useFloat, boolean symmetric)
+            throws IOException
+    {
+        if (y.length != k.rows())
+            throw new IllegalArgumentException("number of labels " + y.length + " and rows " + k.rows() + " differ");
+        try (Writer writer = new Writer(path, k.rows(), k.columns(), useFloat, symmetric)) {
+            double[] row = new double[k.columns()];
+            for (int i = 0; i < k.rows(); i++) {
+                for (int j = 0; j < row.length; j++)
+                    row[j] = k.get(i, j);
+                writer.write(y[i], row);
+            }
+        }
+    }
+
+    /**
+     * Convert a kernel matrix in LIBSVM precomputed text format to binary format. The text file is read twice, the
+     * first pass counts the rows and columns, the second pass writes them, so the matrix is never held in memory.
+     * Nodes missing from a line are zeros. Every line must start with node 0, the rows are numbered in the order of the
+     * lines, as the serial numbers of the training instances are 1 to l in order.
+     *
+     * @param text      kernel matrix in text format
+     * @param binary    output binary file
+     * @param useFloat  true to store the values as float
+     * @param symmetric true to store only the lower triangle, the matrix must be square and symmetric
+     */
+    public static void convert(Path text, Path binary, boolean useFloat, boolean symmetric) throws IOException
+    {
+        DataSource source = DataSource.of(text);
+        long rows = 0;
+        int columns = 0;
+        try (DataSource.Cursor cursor = source.open()) {
+            while (cursor.next()) {
+                if (cursor.length() > 0)
+                    columns = Math.max(columns, cursor.indices()[cursor.length() - 1]);
+                rows++;
+            }
+        }
+
+        try (DataSource.Cursor cursor = source.open();
+             Writer writer = new Writer(binary, rows, columns, useFloat, symmetric)) {
+            double[] row = new double[columns];
+            long line = 0;
+            while (cursor.next()) {
+                line++;
+                int[] indices = cursor.indices();
+                double[] values = cursor.values();
+                int n = cursor.length();
+                if (n == 0 || indices[0] != 0)
+                    throw new IOException("row " + line + " of " + text + " does not start with 0:serial");
+                Arrays.fill(row, 0);
+                for (int k = 1; k < n; k++)
+                    row[indices[k] - 1] = values[k];
+                writer.write(cursor.label(), row);
+            }
+        }
+    }
+
+    /**
+     * Streaming writer of the binary format. The labels are written in front of the values, they are placed by
+     * position, so rows are written in one pass.
+     */
+    private static final class Writer implements java.io.Closeable
+    {
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final long rows;
+        private final long columns;
+        private final boolean useFloat;
+        private final boolean symmetric;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+        private long row;
+
+        Writer(Path path, long rows, long columns, boolean useFloat, boolean symmetric) throws IOException
+        {
+            if (symmetric && rows != columns)
+                throw new IllegalArgumentException("symmetric kernel matrix is not square: " + rows + " x "
+                        + columns);
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.rows = rows;
+            this.columns = columns;
+            this.useFloat = useFloat;
+            this.symmetric = symmetric;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).putInt((useFloat ? FLOAT : 0) | (symmetric ? SYMMETRIC : 0))
+                    .putLong(rows).putLong(columns);
+            header.flip();
+            writeFully(header, 0);
+            this.position = HEADER_SIZE + 8 * rows;
+        }
+
+        void write(double label, double[] values) throws IOException
+        {
+            if (row == rows)
+                throw new IllegalStateException("more than " + rows + " rows");
+            ByteBuffer y = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            y.putDouble(label).flip();
+            writeFully(y, HEADER_SIZE + 8 * row);
+
+            long n = symmetric ? row + 1 : columns;
+            for (int j = 0; j < n; j++) {
+                if (buffer.remaining() < 8)
+                    flush();
+                if (useFloat)
+                    buffer.putFloat((float) values[j]);
+                else
+                    buffer.putDouble(values[j]);
+            }
+            row++;
+        }
+
+        private void flush() throws IOException
+        {
+            buffer.flip();
+            position += writeFully(buffer, position);
+            buffer.clear();
+        }
+
+        private int writeFully(ByteBuffer b, long at) throws IOException
+        {
+            int written = 0;
+            while (b.hasRemaining())
+                written += channel.write(b, at + written);
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try {
+                if (row != rows)
+                    throw new IllegalStateException("declared " + rows + " rows, written " + row);
+                flush();
+                // pad to 8 bytes
+                long padding = (8 - position % 8) % 8;
+                if (padding > 0)
+                    writeFully(ByteBuffer.allocate((int) padding), position);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        boolean useFloat = false;
+        boolean symmetric = false;
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            if (args[i].equals("-f"))
+                useFloat = true;
+            else if (args[i].equals("-s"))
+                symmetric = true;
+            else
+                break;
+        }
+        if (args.length - i != 2) {
+            System.err.print("Usage: KernelMatrix [-f] [-s] text_file binary_file\n");
+            System.exit(1);
+        }
+        convert(Paths.get(args[i]), Paths.get(args[i + 1]), useFloat, symmetric);
+    }
+}
@@ -0,0 +1,150 @@
+package jsvm;
+
+/**
+ * Kernel values of one data point against all rows of a matrix, the support vectors of a model in prediction or the
+ * landmarks of a {@link Nystroem} approximation. The point is scattered into a dense scratch once and gathered
+ * against each row if the rows are suitable, see {@link #scatterStride(FeatureMatrix)}, otherwise the indices are
+ * merged row by row.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 22 Oct 2026, 2:00 PM
+ */
+final class KernelValues
+{
+    /**
+     * largest dense scratch a row is scattered into
+     */
+    static final int SCRATCH_SIZE = 1 << 21;
+    /**
+     * a row is scattered if the scratch is small enough to stay in cache, or if the rows are sparse enough that the
+     * gathers touch few lines of a larger scratch, otherwise the indices of two rows are merged
+     */
+    private static final int SCATTER_CACHED = 1 << 18;
+    private static final int SCATTER_SPARSE_NNZ = 128;
+    /**
+     * scratch of the rows scattered in prediction, one per thread
+     */
+    private static final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(() -> new double[0]);
+
+    private KernelValues() { }
+
+    /**
+     * @return distance between the rows of x scattered into a dense scratch, the largest feature index plus one, or 0
+     * if the rows are better merged pair by pair, chosen from the largest feature index and the nonzeros per row.
+     */
+    static int scatterStride(FeatureMatrix x)
+    {
+        int l = x.rows();
+        long nnz = 0;
+        for (int i = 0; i < l; i++) {
+            int n = x.length(i);
+            if (n > 0 && x.index(i, 0) < 0)
+                return 0;    // negative feature indices can not be scattered
+            nnz += n;
+        }
+        long stride = (long) x.getMaxIndex() + 1;
+        if (stride <= SCATTER_CACHED || (stride <= SCRATCH_SIZE && nnz <= (long) SCATTER_SPARSE_NNZ * l))
+            return (int) stride;
+        return 0;
+    }
+
+    /**
+     * @return a zeroed scratch of at least size values for the current thread.
+     */
+    private static double[] scratch(int size)
+    {
+        double[] dense = scratch.get();
+        if (dense.length < size) {
+            dense = new double[size];
+            scratch.set(dense);
+        }
+        return dense;
+    }
+
+    /**
+     * Kernel values between x and all rows of sv.
+     *
+     * @param svSquare squared norms of the rows of sv if the kernel uses them, else null
+     * @param stride   see {@link #scatterStride(FeatureMatrix)} of sv
+     * @param kernel   kernel function chosen once per model, null for {@link KernelType#PRECOMPUTED}
+     * @param kvalue   receives one value per row of sv
+     */
+    static void compute(SVMNode[] x, FeatureMatrix sv, double[] svSquare, int stride, KernelFunction kernel,
+            double[] kvalue)
+    {
+        int l = sv.rows();
+        if (kernel == null) {
+            for (int j = 0; j < l; j++)
+                kvalue[j] = x[(int) (sv.value(j, 0))].value;
+            return;
+        }
+
+        if (stride == 0) {
+            for (int j = 0; j < l; j++)
+                kvalue[j] = sv.dot(x, j);
+        } else {
+            double[] dense = scratch(stride);
+            for (SVMNode node : x) {
+                if (node.index >= 0 && node.index < stride)
+                    dense[node.index] = node.value;
+            }
+            double[] sum = new double[1];
+            for (int j = 0; j < l; j++) {
+                sv.dot(dense, stride, 1, j, sum);
+                kvalue[j] = sum[0];
+            }
+            for (SVMNode node : x) {
+                if (node.index >= 0 && node.index < stride)
+                    dense[node.index] = 0;
+            }
+        }
+
+        double xSquare = 0;
+        if (kernel.usesSquares()) {
+            for (SVMNode node : x)
+                xSquare += node.value * node.value;
+        }
+        kernel.apply(xSquare, svSquare, 0, kvalue, 0, l);
+    }
+
+    /**
+     * Kernel values between row i of x and all rows of sv, as {@link #compute(SVMNode[], FeatureMatrix, double[],
+     * int, KernelFunction, double[])}.
+     */
+    static void compute(FeatureMatrix x, int i, FeatureMatrix sv, double[] svSquare, int stride,
+            KernelFunction kernel, double[] kvalue)
+    {
+        int l = sv.rows();
+        if (kernel == null) {
+            for (int j = 0; j < l; j++)
+                kvalue[j] = x.value(i, (int) (sv.value(j, 0)));
+            return;
+        }
+
+        int n = x.length(i);
+        if (stride == 0) {
+            for (int j = 0; j < l; j++)
+                kvalue[j] = sv.dot(x, i, j);
+        } else {
+            double[] dense = scratch(stride);
+            for (int k = 0; k < n; k++) {
+                int index = x.index(i, k);
+                if (index >= 0 && index < stride)
+                    dense[index] = x.value(i, k);
+            }
+            double[] sum = new double[1];
+            for (int j = 0; j < l; j++) {
+                sv.dot(dense, stride, 1, j, sum);
+                kvalue[j] = sum[0];
+            }
+            for (int k = 0; k < n; k++) {
+                int index = x.index(i, k);
+                if (index >= 0 && index < stride)
+                    dense[index] = 0;
+            }
+        }
+
+        kernel.apply(kernel.usesSquares() ? x.dot(i, i) : 0, svSquare, 0, kvalue, 0, l);
+    }
+}
@@ -0,0 +1,170 @@
+package jsvm;
+
+/**
+ * The built-in kernels of {@link KernelType} as {@link KernelFunction}s. Each is a final class whose
+ * {@code apply} is a plain loop over the batch, so the kernel matrix and the models switch on the kernel type once,
+ * when they are built, and not for every value.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 21 Oct 2026, 9:30 AM
+ */
+final class Kernels
+{
+    private Kernels() { }
+
+    /**
+     * @param fast approximate exp and tanh by {@link FastMath}
+     * @return the custom kernel function of the parameter if it is set, else the built-in one of its kernel type,
+     * null for {@link KernelType#PRECOMPUTED}.
+     */
+    static KernelFunction of(SVMParameter param, boolean fast)
+    {
+        if (param.kernelFunction != null)
+            return param.kernelFunction;
+        switch (param.kernelType) {
+            case LINEAR:
+                return new Linear();
+            case POLY:
+                return new Polynomial(param.gamma, param.coef0, param.degree);
+            case RBF:
+                return new Rbf(param.gamma, fast);
+            case SIGMOID:
+                return new Sigmoid(param.gamma, param.coef0, fast);
+            default:    // PRECOMPUTED
+                return null;
+        }
+    }
+
+    static double powi(double base, int times)
+    {
+        double tmp = base, ret = 1.0;
+
+        for (int t = times; t > 0; t /= 2) {
+            if (t % 2 == 1) ret *= tmp;
+            tmp = tmp * tmp;
+        }
+        return ret;
+    }
+
+    /**
+     * u'v
+     */
+    static final class Linear implements KernelFunction
+    {
+        @Override
+        public double value(double dot, double uSquare, double vSquare)
+        {
+            return dot;
+        }
+
+        @Override
+        public void apply(double uSquare, double[] vSquare, int vFrom, double[] values, int from, int n) { }
+    }
+
+    /**
+     * (gamma*u'v + coef0)^degree
+     */
+    static final class Polynomial implements KernelFunction
+    {
+        private final double gamma;
+        private final double coef0;
+        private final int degree;
+
+        Polynomial(double gamma, double coef0, int degree)
+        {
+            this.gamma = gamma;
+            this.coef0 = coef0;
+            this.degree = degree;
+        }
+
+        @Override
+        public double value(double dot, double uSquare, double vSquare)
+        {
+            return powi(gamma * dot + coef0, degree);
+        }
+
+        @Override
+        public void apply(double uSquare, double[] vSquare, int vFrom, double[] values, int from, int n)
+        {
+            for (int k = from; k < from + n; k++)
+                values[k] = powi(gamma * values[k] + coef0, degree);
+        }
+    }
+
+    /**
+     * exp(-gamma*|u-v|^2), |u-v|^2 = |u|^2 + |v|^2 - 2u'v. Rounding can not make the distance negative, and the
+     * exponentials of a batch are evaluated by {@link DenseKernels#exp(double[], int, int)}.
+     */
+    static final class Rbf implements KernelFunction
+    {
+        private final double gamma;
+        private final boolean fast;
+
+        Rbf(double gamma, boolean fast)
+        {
+            this.gamma = gamma;
+            this.fast = fast;
+        }
+
+        @Override
+        public double value(double dot, double uSquare, double vSquare)
+        {
+            double x = -gamma * Math.max(uSquare + vSquare - 2 * dot, 0);
+            return fast ? FastMath.exp(x) : Math.exp(x);
+        }
+
+        @Override
+        public boolean usesSquares()
+        {
+            return true;
+        }
+
+        @Override
+        public void apply(double uSquare, double[] vSquare, int vFrom, double[] values, int from, int n)
+        {
+            for (int k = 0; k < n; k++)
+                values[from + k] = -gamma * Math.max(uSquare + vSquare[vFrom + k] - 2 * values[from + k], 0);
+            if (fast) {
+                for (int k = from; k < from + n; k++)
+                    values[k] = FastMath.exp(values[k]);
+            } else
+                DenseKernels.exp(values, from, n);
+        }
+    }
+
+    /**
+     * tanh(gamma*u'v + coef0)
+     */
+    static final class Sigmoid implements KernelFunction
+    {
+        private final double gamma;
+        private final double coef0;
+        private final boolean fast;
+
+        Sigmoid(double gamma, double coef0, boolean fast)
+        {
+            this.gamma = gamma;
+            this.coef0 = coef0;
+            this.fast = fast;
+        }
+
+        @Override
+        public double value(double dot, double uSquare, double vSquare)
+        {
+            return fast ? FastMath.tanh(gamma * dot + coef0) : Math.tanh(gamma * dot + coef0);
+        }
+
+        @Override
+        public void apply(double uSquare, double[] vSquare, int vFrom, double[] values, int from, int n)
+        {
+            if (fast) {
+                for (int k = from; k < from + n; k++)
+                    values[k] = FastMath.tanh(gamma * values[k] + coef0);
+            } else {
+                for (int k = from; k < from + n; k++)
+                    values[k] = Math.tanh(gamma * values[k] + coef0);
+            }
+        }
+    }
+}
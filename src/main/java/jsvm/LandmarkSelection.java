@@ -0,0 +1,32 @@
+package jsvm;
+
+/**
+ * How the landmarks of a Nystroem approximation are chosen, see {@link SVMParameter#setLandmarks(int)}.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 10:05 AM
+ */
+public enum LandmarkSelection
+{
+    /**
+     * training points drawn uniformly without replacement
+     */
+    UNIFORM("uniform"),
+    /**
+     * centers of k-means clusters of the training points, seeded by a uniform sample
+     */
+    KMEANS("kmeans");
+
+    private String name;
+
+    LandmarkSelection(String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,173 @@
+package jsvm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads lines as raw bytes into a reusable buffer, no object is created per line. The current line is
+ * {@code buffer()[start(), end())}, without the line terminator.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 6:05 PM
+ */
+final class LineReader implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final Reader reader;
+    private char[] chars;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    /**
+     * buffer[pos, limit) is not consumed yet
+     */
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private int start;
+    private int end;
+
+    LineReader(InputStream in)
+    {
+        this.in = in;
+        this.reader = null;
+    }
+
+    /**
+     * Read from a character stream, characters are narrowed to bytes, so the content must be ASCII.
+     */
+    LineReader(Reader reader)
+    {
+        this.in = null;
+        this.reader = reader;
+    }
+
+    /**
+     * Advance to the next line.
+     *
+     * @return false if there is no more line.
+     */
+    boolean next() throws IOException
+    {
+        int scan = pos;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == '\n') {
+                    start = pos;
+                    end = scan > pos && buffer[scan - 1] == '\r' ? scan - 1 : scan;
+                    pos = scan + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (pos == limit)
+                    return false;
+                // last line without line feed
+                start = pos;
+                end = limit;
+                pos = limit;
+                return true;
+            }
+            scan -= pos;
+            fill();
+        }
+    }
+
+    /**
+     * Move the unconsumed bytes to the front and read more, the buffer grows for lines longer than it.
+     */
+    private void fill() throws IOException
+    {
+        int remain = limit - pos;
+        if (remain == buffer.length)
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        else if (pos > 0)
+            System.arraycopy(buffer, pos, buffer, 0, remain);
+        pos = 0;
+        limit = remain;
+
+        int n;
+        if (in != null) {
+            n = in.read(buffer, limit, buffer.length - limit);
+        } else {
+            if (chars == null || chars.length < buffer.length - limit)
+                chars = new char[buffer.length];
+            n = reader.read(chars, 0, buffer.length - limit);
+            for (int i = 0; i < n; i++)
+                buffer[limit + i] = (byte) chars[i];
+        }
+        if (n < 0)
+            eof = true;
+        else
+            limit += n;
+    }
+
+    byte[] buffer()
+    {
+        return buffer;
+    }
+
+    int start()
+    {
+        return start;
+    }
+
+    int end()
+    {
+        return end;
+    }
+
+    /**
+     * @return current line as a String, for the few lines parsed as text.
+     */
+    String line()
+    {
+        return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (in != null)
+            in.close();
+        else
+            reader.close();
+    }
+
+    /**
+     * Input stream over a {@link ByteBuffer}, such as a memory mapped region.
+     */
+    static final class ByteBufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package jsvm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Dual coordinate descent for the linear L1-loss SVM, Hsieh et al., ICML 2008, used to train on explicit feature
+ * maps of the kernel. It solves
+ * <pre>
+ *     min 0.5 alpha^T Q alpha - e^T alpha,  0 &lt;= alpha_i &lt;= Cp for y_i = 1, Cn for y_i = -1
+ * </pre>
+ * with Q_ij = y_i y_j (z_i'z_j + 1). The bias is the weight of an extra feature of value 1, so unlike the SMO
+ * {@link Solver} it is regularized, as in LIBLINEAR. Each pass over the data costs O(l * n), and inactive variables
+ * at the bounds are shrunk as in the SMO solver.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 10:20 AM
+ */
+final class LinearSolver
+{
+    private static final int MAX_ITERATIONS = 1000;
+
+    private LinearSolver() { }
+
+    /**
+     * Train a linear C-SVC on the feature rows z of the problem for each pair of classes, with the weights of the
+     * parameter. The pairs are trained in parallel, each in the order of a seed drawn from {@link SVM#rand} on the
+     * calling thread, so the result does not depend on the number of threads.
+     *
+     * @param model receives the classes and rho of the decision functions
+     * @return weights of the features in each decision function, in the order of rho.
+     */
+    static double[][] trainPairs(SVMProblem prob, SVMParameter param, float[][] z, ForkJoinPool pool, SVMModel model)
+    {
+        int l = prob.l;
+        int[] tmp_nr_class = new int[1];
+        int[][] tmp_label = new int[1][];
+        int[][] tmp_start = new int[1][];
+        int[][] tmp_count = new int[1][];
+        int[] perm = new int[l];
+        SVM.groupClasses(prob, tmp_nr_class, tmp_label, tmp_start, tmp_count, perm);
+        int nr_class = tmp_nr_class[0];
+        int[] label = tmp_label[0];
+        int[] start = tmp_start[0];
+        int[] count = tmp_count[0];
+        if (nr_class == 1)
+            SVM.info("WARNING: training data in only one class. See README for details.\n");
+
+        double[] weighted_C = new double[nr_class];
+        Arrays.fill(weighted_C, param.C);
+        for (int i = 0; i < param.nrWeight; i++) {
+            int j;
+            for (j = 0; j < nr_class; j++)
+                if (param.weightLabel[i] == label[j])
+                    break;
+            if (j == nr_class)
+                System.err.print("WARNING: class label " + param.weightLabel[i] + " specified in weight is not found\n");
+            else
+                weighted_C[j] *= param.weight[i];
+        }
+
+        int pairs = nr_class * (nr_class - 1) / 2;
+        int[] pair_i = new int[pairs];
+        int[] pair_j = new int[pairs];
+        long[] seeds = new long[pairs];
+        int p = 0;
+        for (int i = 0; i < nr_class; i++)
+            for (int j = i + 1; j < nr_class; j++) {
+                pair_i[p] = i;
+                pair_j[p] = j;
+                seeds[p++] = SVM.rand.nextLong();
+            }
+
+        double[][] w = new double[pairs][];
+        parallel(pool, pairs, q -> {
+            int i = pair_i[q], j = pair_j[q];
+            int[] rows = new int[count[i] + count[j]];
+            byte[] y = new byte[rows.length];
+            for (int k = 0; k < count[i]; k++) {
+                rows[k] = perm[start[i] + k];
+                y[k] = 1;
+            }
+            for (int k = 0; k < count[j]; k++) {
+                rows[count[i] + k] = perm[start[j] + k];
+                y[count[i] + k] = -1;
+            }
+            w[q] = solve(z, rows, y, weighted_C[i], weighted_C[j], param.eps, new Random(seeds[q]));
+        });
+
+        model.nrClass = nr_class;
+        model.label = Arrays.copyOf(label, nr_class);
+        model.rho = new double[pairs];
+        double[][] weights = new double[pairs][];
+        for (p = 0; p < pairs; p++) {
+            int n = w[p].length - 1;
+            model.rho[p] = -w[p][n];
+            weights[p] = Arrays.copyOf(w[p], n);
+        }
+        return weights;
+    }
+
+    /**
+     * @param z    dense feature rows of length n
+     * @param rows rows of z in the problem
+     * @param y    +1 or -1 for each of the rows
+     * @param Cp   C of the positive rows
+     * @param Cn   C of the negative rows
+     * @param eps  stopping tolerance on the largest violation of the optimality condition
+     * @param rand order of the coordinates in each pass
+     * @return weights of the n features followed by the bias, the decision value of z_i is w'z_i + w[n].
+     */
+    static double[] solve(float[][] z, int[] rows, byte[] y, double Cp, double Cn, double eps, Random rand)
+    {
+        int l = rows.length;
+        int n = z[rows[0]].length;
+        double[] w = new double[n + 1];
+        double[] alpha = new double[l];
+        double[] QD = new double[l];
+        int[] index = new int[l];
+        for (int i = 0; i < l; i++) {
+            float[] z_i = z[rows[i]];
+            double sum = 1;
+            for (int k = 0; k < n; k++)
+                sum += (double) z_i[k] * z_i[k];
+            QD[i] = sum;
+            index[i] = i;
+        }
+
+        int active_size = l;
+        double PGmax_old = Double.POSITIVE_INFINITY;
+        double PGmin_old = Double.NEGATIVE_INFINITY;
+        int iter = 0;
+        while (iter < MAX_ITERATIONS) {
+            double PGmax = Double.NEGATIVE_INFINITY;
+            double PGmin = Double.POSITIVE_INFINITY;
+
+            for (int s = 0; s < active_size; s++) {
+                int j = s + rand.nextInt(active_size - s);
+                int tmp = index[s];
+                index[s] = index[j];
+                index[j] = tmp;
+            }
+
+            for (int s = 0; s < active_size; s++) {
+                int i = index[s];
+                float[] z_i = z[rows[i]];
+                double C = y[i] > 0 ? Cp : Cn;
+                double G = w[n];
+                for (int k = 0; k < n; k++)
+                    G += w[k] * z_i[k];
+                G = G * y[i] - 1;
+
+                double PG = 0;
+                if (alpha[i] == 0) {
+                    if (G > PGmax_old) {
+                        // shrink
+                        active_size--;
+                        index[s] = index[active_size];
+                        index[active_size] = i;
+                        s--;
+                        continue;
+                    } else if (G < 0)
+                        PG = G;
+                } else if (alpha[i] == C) {
+                    if (G < PGmin_old) {
+                        active_size--;
+                        index[s] = index[active_size];
+                        index[active_size] = i;
+                        s--;
+                        continue;
+                    } else if (G > 0)
+                        PG = G;
+                } else
+                    PG = G;
+
+                PGmax = Math.max(PGmax, PG);
+                PGmin = Math.min(PGmin, PG);
+
+                if (Math.abs(PG) > 1e-12) {
+                    double alpha_old = alpha[i];
+                    alpha[i] = Math.min(Math.max(alpha[i] - G / QD[i], 0), C);
+                    double d = (alpha[i] - alpha_old) * y[i];
+                    for (int k = 0; k < n; k++)
+                        w[k] += d * z_i[k];
+                    w[n] += d;
+                }
+            }
+
+            iter++;
+            if (PGmax - PGmin <= eps) {
+                if (active_size == l)
+                    break;
+                // check the shrunk variables once more
+                active_size = l;
+                PGmax_old = Double.POSITIVE_INFINITY;
+                PGmin_old = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            PGmax_old = PGmax <= 0 ? Double.POSITIVE_INFINITY : PGmax;
+            PGmin_old = PGmin >= 0 ? Double.NEGATIVE_INFINITY : PGmin;
+        }
+
+        if (iter >= MAX_ITERATIONS)
+            SVM.info("\nWARNING: reaching max number of iterations\n");
+        SVM.info("optimization finished, #iter = " + iter + "\n");
+        return w;
+    }
+
+    /**
+     * Run task(t) for t in [0, n) on the pool.
+     */
+    static void parallel(ForkJoinPool pool, int n, IntConsumer task)
+    {
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                List<RecursiveAction> tasks = new ArrayList<>(n);
+                for (int t = 0; t < n; t++) {
+                    int c = t;
+                    tasks.add(new RecursiveAction()
+                    {
+                        @Override
+                        protected void compute()
+                        {
+                            task.accept(c);
+                        }
+                    });
+                }
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package jsvm;
+
+/**
+ * {@link DataSource.Cursor} over the rows of an {@link SVMProblem}, such as a mapped {@link BinaryDataset}.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 8:45 PM
+ */
+final class MatrixCursor implements DataSource.Cursor
+{
+    private final int l;
+    private final double[] y;
+    private final FeatureMatrix x;
+    private int row = -1;
+    private int length;
+    private int[] indices = new int[64];
+    private double[] values = new double[64];
+
+    MatrixCursor(SVMProblem problem)
+    {
+        this.l = problem.l;
+        this.y = problem.y;
+        this.x = problem.getMatrix();
+    }
+
+    @Override
+    public boolean next()
+    {
+        if (row + 1 >= l)
+            return false;
+        row++;
+        int n = x.length(row);
+        if (n > indices.length) {
+            indices = new int[Math.max(n, indices.length * 2)];
+            values = new double[indices.length];
+        }
+        for (int k = 0; k < n; k++) {
+            indices[k] = x.index(row, k);
+            values[k] = x.value(row, k);
+        }
+        length = n;
+        return true;
+    }
+
+    @Override
+    public double label()
+    {
+        return y[row];
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public int[] indices()
+    {
+        return indices;
+    }
+
+    @Override
+    public double[] values()
+    {
+        return values;
+    }
+
+    @Override
+    public void close() { }
+}
@@ -0,0 +1,378 @@
+package jsvm;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Training on a Nystroem approximation of the kernel, enabled by {@link SVMParameter#setLandmarks(int)}.
+ * <p>
+ * With m landmarks c_1..c_m and the Cholesky factor L of their kernel matrix K_mm = L L^T, the features
+ * z(x) = L^-1 k(x), k(x) = (K(x, c_1), ..., K(x, c_m)), satisfy z(x)'z(x') = k(x)' K_mm^-1 k(x'), the Nystroem
+ * approximation of K(x, x'). A linear C-SVC is trained on z for each pair of classes by {@link LinearSolver}, and
+ * its weights w are folded back into coefficients of the landmarks, w'z(x) = (L^-T w)'k(x). The model keeps the
+ * landmarks as its support vectors, so it predicts through the usual kernel evaluations, m per data point.
+ * Landmarks that are linearly dependent on the previous ones in the kernel space are dropped by the factorization.
+ * <p>
+ * The kernel values, the features, the k-means iterations and the pairs of classes are computed on the pool of the
+ * parameter, or else the common pool. The random choices come from {@link SVM#rand} on the calling thread, so the
+ * model does not depend on the number of threads.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 10:40 AM
+ */
+final class Nystroem
+{
+    /**
+     * rows of a parallel task
+     */
+    private static final int CHUNK_ROWS = 256;
+    private static final int KMEANS_ITERATIONS = 10;
+    /**
+     * a landmark is dropped if its squared distance to the span of the previous ones, relative to the largest
+     * kernel value K(c, c), is below this
+     */
+    private static final double DROP_TOLERANCE = 1e-10;
+
+    private Nystroem() { }
+
+    static SVMModel train(SVMProblem prob, SVMParameter param)
+    {
+        ForkJoinPool pool = param.pool != null ? param.pool : ForkJoinPool.commonPool();
+        FeatureMatrix x = prob.getMatrix();
+        int l = prob.l;
+        int m = Math.min(param.landmarks, l);
+
+        int[] sample = sample(l, m, SVM.rand);
+        FeatureMatrix landmarks = param.landmarkSelection == LandmarkSelection.KMEANS ?
+                kmeans(x, sample, pool) : x.copy(sample);
+
+        // K_mm and its factor
+        KernelFunction kernel = Kernels.of(param, param.fastMath);
+        double[] square = kernel.usesSquares() ? square(landmarks) : null;
+        int stride = KernelValues.scatterStride(landmarks);
+        double[][] K = new double[m][m];
+        LinearSolver.parallel(pool, m,
+                i -> KernelValues.compute(landmarks, i, landmarks, square, stride, kernel, K[i]));
+        if (param.stats != null)
+            param.stats.addKernelEvaluations((long) m * m + (long) l * m);
+        int[] kept = new int[m];
+        double[][] factor = cholesky(K, kept);
+        int n = (int) Arrays.stream(kept).filter(k -> k >= 0).count();
+        SVM.info("landmarks = " + m + ", rank = " + n + "\n");
+
+        // features of the training points
+        float[][] z = new float[l][];
+        LinearSolver.parallel(pool, (l + CHUNK_ROWS - 1) / CHUNK_ROWS, c -> {
+            double[] kvalue = new double[m];
+            double[] t = new double[m];
+            for (int i = c * CHUNK_ROWS; i < Math.min(l, (c + 1) * CHUNK_ROWS); i++) {
+                KernelValues.compute(x, i, landmarks, square, stride, kernel, kvalue);
+                z[i] = features(factor, kept, n, kvalue, t);
+            }
+        });
+
+        // one linear C-SVC for each pair of classes, folded into coefficients of the landmarks
+        SVMModel model = new SVMModel();
+        model.param = param;
+        model.featureHashing = prob.getFeatureHashing();
+        double[][] w = LinearSolver.trainPairs(prob, param, z, pool, model);
+        model.landmarkCoef = new double[w.length][];
+        for (int p = 0; p < w.length; p++)
+            model.landmarkCoef[p] = fold(factor, kept, n, w[p]);
+
+        int[] sv = new int[n];
+        for (int j = 0, k = 0; j < m; j++)
+            if (kept[j] >= 0)
+                sv[k++] = j;
+        model.l = n;
+        model.svMatrix = landmarks.copy(sv);
+        if (param.landmarkSelection == LandmarkSelection.UNIFORM) {
+            model.sv_indices = new int[n];
+            for (int k = 0; k < n; k++)
+                model.sv_indices[k] = sample[sv[k]] + 1;
+        }
+        if (kernel.usesSquares())
+            model.getSVSquare();
+        model.getScatterStride();
+        return model;
+    }
+
+    /**
+     * @return m distinct positions in [0, l) in increasing order, drawn uniformly.
+     */
+    private static int[] sample(int l, int m, Random rand)
+    {
+        int[] perm = new int[l];
+        for (int i = 0; i < l; i++)
+            perm[i] = i;
+        for (int i = 0; i < m; i++) {
+            int j = i + rand.nextInt(l - i);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        int[] sample = Arrays.copyOf(perm, m);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    /**
+     * Lloyd iterations seeded by the given rows. The centers are sparse, the nearest centers of a row are found
+     * through the centers of each of its feature indices, so the memory grows with the nonzeros of the centers and
+     * the largest feature index, not with their product.
+     *
+     * @return the centers of the clusters.
+     */
+    private static FeatureMatrix kmeans(FeatureMatrix x, int[] seed, ForkJoinPool pool)
+    {
+        int l = x.rows();
+        int m = seed.length;
+        int stride = x.getMaxIndex() + 1;
+        for (int i = 0; i < l; i++) {
+            if (x.length(i) > 0 && x.index(i, 0) < 0)
+                throw new IllegalArgumentException("k-means landmarks need nonnegative feature indices");
+        }
+
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(m, 16);
+        for (int c = 0; c < m; c++) {
+            int n = x.length(seed[c]);
+            for (int k = 0; k < n; k++) {
+                double value = x.value(seed[c], k);
+                if (value != 0)
+                    builder.add(x.index(seed[c], k), value);
+            }
+            builder.endRow();
+        }
+        CSRMatrix center = builder.build();
+        double[] center_square = new double[m];
+        int[] assign = new int[l];
+        Arrays.fill(assign, -1);
+        int[] size = new int[m];
+        int[] order = new int[l];
+        int[] start = new int[m + 1];
+        // centers by feature index, the ones of index k at feature_ptr[k] until feature_ptr[k + 1]
+        int[] feature_ptr = new int[stride + 1];
+        int[] feature_center = new int[16];
+        double[] feature_value = new double[16];
+        // sums of one center, the indices touched and the center that last touched each index
+        double[] mean = new double[stride];
+        int[] last = new int[stride];
+        int[] touched = new int[16];
+        for (int iter = 0; iter < KMEANS_ITERATIONS; iter++) {
+            int nnz = center.nnz();
+            if (feature_center.length < nnz) {
+                feature_center = new int[nnz];
+                feature_value = new double[nnz];
+            }
+            Arrays.fill(feature_ptr, 0);
+            for (int c = 0; c < m; c++) {
+                int n = center.length(c);
+                for (int k = 0; k < n; k++)
+                    feature_ptr[center.index(c, k) + 1]++;
+            }
+            for (int k = 0; k < stride; k++)
+                feature_ptr[k + 1] += feature_ptr[k];
+            for (int c = 0; c < m; c++) {
+                double sum = 0;
+                int n = center.length(c);
+                for (int k = 0; k < n; k++) {
+                    double value = center.value(c, k);
+                    int p = feature_ptr[center.index(c, k)]++;
+                    feature_center[p] = c;
+                    feature_value[p] = value;
+                    sum += value * value;
+                }
+                center_square[c] = sum;
+            }
+            // back from the ends of the indices to their starts
+            for (int k = stride; k > 0; k--)
+                feature_ptr[k] = feature_ptr[k - 1];
+            feature_ptr[0] = 0;
+
+            // nearest centers, |x - c|^2 = |x|^2 + |c|^2 - 2 x'c
+            boolean[] changed = new boolean[(l + CHUNK_ROWS - 1) / CHUNK_ROWS];
+            int[] centers = feature_center;
+            double[] values = feature_value;
+            LinearSolver.parallel(pool, changed.length, t -> {
+                double[] sums = new double[m];
+                for (int i = t * CHUNK_ROWS; i < Math.min(l, (t + 1) * CHUNK_ROWS); i++) {
+                    Arrays.fill(sums, 0);
+                    int n = x.length(i);
+                    for (int k = 0; k < n; k++) {
+                        int index = x.index(i, k);
+                        double value = x.value(i, k);
+                        for (int p = feature_ptr[index]; p < feature_ptr[index + 1]; p++)
+                            sums[centers[p]] += values[p] * value;
+                    }
+                    int best = 0;
+                    double best_distance = Double.POSITIVE_INFINITY;
+                    for (int c = 0; c < m; c++) {
+                        double distance = center_square[c] - 2 * sums[c];
+                        if (distance < best_distance) {
+                            best = c;
+                            best_distance = distance;
+                        }
+                    }
+                    if (assign[i] != best) {
+                        assign[i] = best;
+                        changed[t] = true;
+                    }
+                }
+            });
+            boolean any = false;
+            for (boolean b : changed)
+                any |= b;
+            if (!any)
+                break;
+
+            // means, a center without points stays; the rows of each center in order
+            Arrays.fill(size, 0);
+            for (int i = 0; i < l; i++)
+                size[assign[i]]++;
+            for (int c = 0; c < m; c++)
+                start[c + 1] = start[c] + size[c];
+            for (int i = 0; i < l; i++)
+                order[start[assign[i]]++] = i;
+            for (int c = m; c > 0; c--)
+                start[c] = start[c - 1];
+            start[0] = 0;
+
+            Arrays.fill(last, -1);
+            builder = new CSRMatrix.Builder(m, nnz);
+            for (int c = 0; c < m; c++) {
+                if (size[c] == 0) {
+                    int n = center.length(c);
+                    for (int k = 0; k < n; k++)
+                        builder.add(center.index(c, k), center.value(c, k));
+                    builder.endRow();
+                    continue;
+                }
+                int count = 0;
+                for (int p = start[c]; p < start[c + 1]; p++) {
+                    int i = order[p];
+                    int n = x.length(i);
+                    for (int k = 0; k < n; k++) {
+                        int index = x.index(i, k);
+                        if (last[index] != c) {
+                            last[index] = c;
+                            mean[index] = 0;
+                            if (count == touched.length)
+                                touched = Arrays.copyOf(touched, 2 * count);
+                            touched[count++] = index;
+                        }
+                        mean[index] += x.value(i, k);
+                    }
+                }
+                Arrays.sort(touched, 0, count);
+                for (int k = 0; k < count; k++) {
+                    double value = mean[touched[k]] / size[c];
+                    if (value != 0)
+                        builder.add(touched[k], value);
+                }
+                builder.endRow();
+            }
+            center = builder.build();
+        }
+        return center;
+    }
+
+    /**
+     * @return squared norms of the rows.
+     */
+    private static double[] square(FeatureMatrix x)
+    {
+        double[] square = new double[x.rows()];
+        for (int i = 0; i < square.length; i++)
+            square[i] = x.dot(i, i);
+        return square;
+    }
+
+    /**
+     * Cholesky factorization K = L L^T of a positive semidefinite matrix. A column whose pivot is not above
+     * DROP_TOLERANCE is dropped and left zero, kept[j] is the feature of column j, or -1 if it is dropped.
+     *
+     * @return the lower triangle of L, row i has i + 1 values.
+     */
+    static double[][] cholesky(double[][] K, int[] kept)
+    {
+        int m = K.length;
+        double largest = 0;
+        for (int j = 0; j < m; j++)
+            largest = Math.max(largest, K[j][j]);
+        double[][] L = new double[m][];
+        for (int i = 0; i < m; i++)
+            L[i] = new double[i + 1];
+
+        int n = 0;
+        for (int j = 0; j < m; j++) {
+            double[] L_j = L[j];
+            double d = K[j][j];
+            for (int k = 0; k < j; k++)
+                d -= L_j[k] * L_j[k];
+            if (!(d > DROP_TOLERANCE * largest)) {
+                kept[j] = -1;
+                continue;
+            }
+            kept[j] = n++;
+            double pivot = Math.sqrt(d);
+            L_j[j] = pivot;
+            for (int i = j + 1; i < m; i++) {
+                double[] L_i = L[i];
+                double sum = K[i][j];
+                for (int k = 0; k < j; k++)
+                    sum -= L_i[k] * L_j[k];
+                L_i[j] = sum / pivot;
+            }
+        }
+        return L;
+    }
+
+    /**
+     * @param t scratch of m values
+     * @return the n features L^-1 k of the kernel values k against the landmarks, by forward substitution over the
+     * kept columns.
+     */
+    static float[] features(double[][] L, int[] kept, int n, double[] k, double[] t)
+    {
+        int m = L.length;
+        float[] z = new float[n];
+        for (int j = 0; j < m; j++) {
+            if (kept[j] < 0) {
+                t[j] = 0;
+                continue;
+            }
+            double[] L_j = L[j];
+            double sum = k[j];
+            for (int i = 0; i < j; i++)
+                sum -= L_j[i] * t[i];
+            t[j] = sum / L_j[j];
+            z[kept[j]] = (float) t[j];
+        }
+        return z;
+    }
+
+    /**
+     * @return coefficients L^-T w of the kept landmarks, by back substitution, so that w'z = coefficients'k.
+     */
+    static double[] fold(double[][] L, int[] kept, int n, double[] w)
+    {
+        int m = L.length;
+        double[] beta = new double[m];
+        for (int j = m - 1; j >= 0; j--) {
+            if (kept[j] < 0)
+                continue;
+            double sum = w[kept[j]];
+            for (int i = j + 1; i < m; i++)
+                sum -= L[i][j] * beta[i];
+            beta[j] = sum / L[j][j];
+        }
+
+        double[] coef = new double[n];
+        for (int j = 0; j < m; j++)
+            if (kept[j] >= 0)
+                coef[kept[j]] = beta[j];
+        return coef;
+    }
+}
@@ -0,0 +1,336 @@
+package jsvm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel loader of LIBSVM text datasets. The file is split into byte ranges aligned to line ends, each range is
+ * memory mapped and parsed by a fork-join task into primitive arrays, and the chunks are merged into one
+ * {@link CSRMatrix}. Gzip compressed files are parsed in one chunk, see {@link CompressedInput}.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 4:20 PM
+ */
+public final class ParallelTextLoader
+{
+    /**
+     * files smaller than this are parsed in a single chunk on the calling thread
+     */
+    private static final long MIN_CHUNK_SIZE = 8L << 20;
+    /**
+     * upper bound of a chunk, a chunk is mapped by a single buffer
+     */
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    /**
+     * chunks per worker thread, so that uneven chunks are balanced
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelTextLoader() { }
+
+    /**
+     * Load a text dataset on the common fork-join pool.
+     *
+     * @param path dataset file
+     * @return the {@link SVMProblem}
+     */
+    public static SVMProblem load(Path path) throws IOException
+    {
+        return load(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load a text dataset.
+     *
+     * @param path dataset file
+     * @param pool pool to parse the chunks
+     * @return the {@link SVMProblem}
+     */
+    public static SVMProblem load(Path path, ForkJoinPool pool) throws IOException
+    {
+        return load(path, pool, null);
+    }
+
+    /**
+     * Load a text dataset whose feature ids are hashed, see {@link FeatureHashing}.
+     *
+     * @param path    dataset file
+     * @param pool    pool to parse the chunks
+     * @param hashing hashing of the feature ids, null if the ids are feature indices
+     * @return the {@link SVMProblem}
+     */
+    public static SVMProblem load(Path path, ForkJoinPool pool, FeatureHashing hashing) throws IOException
+    {
+        return load(path, pool, hashing, 0);
+    }
+
+    /**
+     * Load a text dataset in chunks of the given size.
+     *
+     * @param path      dataset file
+     * @param pool      pool to parse the chunks
+     * @param hashing   hashing of the feature ids, null if the ids are feature indices
+     * @param chunkSize bytes of a chunk before it is extended to the next line end, 0 to choose it from the file
+     *                  size and the parallelism of the pool
+     * @return the {@link SVMProblem}
+     */
+    static SVMProblem load(Path path, ForkJoinPool pool, FeatureHashing hashing, long chunkSize) throws IOException
+    {
+        if (CompressedInput.isGzip(path)) {
+            // a compressed file can not be split, it is parsed while being decompressed on another thread
+            try (LineReader reader = new LineReader(CompressedInput.open(path))) {
+                return merge(new Chunk[]{parse(reader, 1 << 16, hashing)}, pool);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (chunkSize <= 0)
+                chunkSize = chunkSize(channel.size(), pool.getParallelism());
+            long[] bounds = split(channel, Math.min(chunkSize, MAX_CHUNK_SIZE));
+            int n = bounds.length - 1;
+            Chunk[] chunks = new Chunk[n];
+            if (n == 1) {
+                chunks[0] = parse(channel, bounds[0], bounds[1], hashing);
+            } else {
+                List<ChunkTask> tasks = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) {
+                    ChunkTask task = new ChunkTask(channel, bounds[i], bounds[i + 1], hashing);
+                    tasks.add(task);
+                    pool.execute(task);
+                }
+                try {
+                    for (int i = 0; i < n; i++)
+                        chunks[i] = tasks.get(i).join();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            return merge(chunks, pool);
+        }
+    }
+
+    /**
+     * @return bytes of a chunk, so that every worker thread parses a few chunks.
+     */
+    private static long chunkSize(long size, int parallelism)
+    {
+        return Math.max(MIN_CHUNK_SIZE, size / ((long) Math.max(parallelism, 1) * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Split the file into ranges of at least chunkSize bytes, every range except the last ends right after a line
+     * feed.
+     */
+    private static long[] split(FileChannel channel, long chunkSize) throws IOException
+    {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long position = chunkSize;
+        while (position < size) {
+            long end = nextLine(channel, position, buffer);
+            if (end >= size)
+                break;
+            bounds.add(end);
+            position = end + chunkSize;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    /**
+     * @return position after the first line feed at or after position, or the file size if there is none.
+     */
+    private static long nextLine(FileChannel channel, long position, ByteBuffer buffer) throws IOException
+    {
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0)
+                return channel.size();
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Parse the lines in [begin, end) of the file.
+     */
+    private static Chunk parse(FileChannel channel, long begin, long end, FeatureHashing hashing) throws IOException
+    {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, begin, end - begin);
+        return parse(new LineReader(new LineReader.ByteBufferInputStream(buffer)), (int) ((end - begin) / 16),
+                hashing);
+    }
+
+    /**
+     * Parse all lines of the reader.
+     */
+    private static Chunk parse(LineReader reader, int expectedNnz, FeatureHashing hashing) throws IOException
+    {
+        if (hashing != null)
+            return parseHashed(reader, expectedNnz, hashing);
+        Chunk chunk = new Chunk(expectedNnz);
+        ByteTokenizer st = new ByteTokenizer();
+        while (reader.next()) {
+            if (!st.reset(reader).hasNext())
+                continue;
+            chunk.y.add(st.nextDouble());
+            // index:value pairs, an unpaired trailing token is ignored
+            int m = st.countTokens() / 2;
+            for (int j = 0; j < m; j++)
+                chunk.x.add(st.nextInt(), st.nextDouble());
+            chunk.x.endRow();
+        }
+        return chunk;
+    }
+
+    /**
+     * Parse all lines of the reader, the feature ids are hashed.
+     */
+    private static Chunk parseHashed(LineReader reader, int expectedNnz, FeatureHashing hashing) throws IOException
+    {
+        Chunk chunk = new Chunk(expectedNnz);
+        ByteTokenizer st = new ByteTokenizer();
+        long[] ids = new long[64];
+        double[] rawValues = new double[64];
+        int[] indices = new int[64];
+        double[] values = new double[64];
+        while (reader.next()) {
+            if (!st.reset(reader).hasNext())
+                continue;
+            chunk.y.add(st.nextDouble());
+            int m = st.countTokens() / 2;
+            if (m > ids.length) {
+                ids = new long[Math.max(m, ids.length * 2)];
+                rawValues = new double[ids.length];
+                indices = new int[ids.length];
+                values = new double[ids.length];
+            }
+            for (int j = 0; j < m; j++) {
+                ids[j] = st.nextLong();
+                rawValues[j] = st.nextDouble();
+            }
+            int n = hashing.hashRow(ids, rawValues, m, indices, values);
+            for (int j = 0; j < n; j++)
+                chunk.x.add(indices[j], values[j]);
+            chunk.x.endRow();
+        }
+        return chunk;
+    }
+
+    /**
+     * Concatenate the chunks into one dataset, chunks are copied in parallel.
+     */
+    private static SVMProblem merge(Chunk[] chunks, ForkJoinPool pool)
+    {
+        int n = chunks.length;
+        int[] rowStart = new int[n + 1];
+        long[] nodeStart = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            rowStart[i + 1] = rowStart[i] + chunks[i].x.rows();
+            nodeStart[i + 1] = nodeStart[i] + chunks[i].x.nnz();
+        }
+        if (nodeStart[n] > Integer.MAX_VALUE)
+            throw new IllegalStateException("too many nonzero values for CSRMatrix: " + nodeStart[n]);
+
+        int rows = rowStart[n];
+        int nnz = (int) nodeStart[n];
+        double[] y = new double[rows];
+        int[] rowPtr = new int[rows + 1];
+        int[] indices = new int[nnz];
+        double[] values = new double[nnz];
+
+        if (n == 1) {
+            chunks[0].copyTo(y, rowPtr, indices, values, 0, 0);
+        } else {
+            pool.invoke(new RecursiveAction()
+            {
+                @Override
+                protected void compute()
+                {
+                    List<RecursiveAction> copies = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) {
+                        int c = i;
+                        copies.add(new RecursiveAction()
+                        {
+                            @Override
+                            protected void compute()
+                            {
+                                chunks[c].copyTo(y, rowPtr, indices, values, rowStart[c], (int) nodeStart[c]);
+                            }
+                        });
+                    }
+                    ForkJoinTask.invokeAll(copies);
+                }
+            });
+        }
+        return new SVMProblem(y, new CSRMatrix(rowPtr, indices, values));
+    }
+
+    /**
+     * Rows parsed from one range of the file.
+     */
+    private static final class Chunk
+    {
+        final DoubleList y;
+        final CSRMatrix.Builder x;
+
+        Chunk(int expectedNnz)
+        {
+            y = new DoubleList();
+            x = new CSRMatrix.Builder(1024, expectedNnz);
+        }
+
+        void copyTo(double[] y, int[] rowPtr, int[] indices, double[] values, int row, int node)
+        {
+            this.y.copyTo(y, row);
+            x.copyTo(rowPtr, indices, values, row, node);
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Chunk>
+    {
+        private final FileChannel channel;
+        private final long begin;
+        private final long end;
+        private final FeatureHashing hashing;
+
+        ChunkTask(FileChannel channel, long begin, long end, FeatureHashing hashing)
+        {
+            this.channel = channel;
+            this.begin = begin;
+            this.end = end;
+            this.hashing = hashing;
+        }
+
+        @Override
+        protected Chunk compute()
+        {
+            try {
+                return parse(channel, begin, end, hashing);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package jsvm;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Random Fourier features of the RBF kernel, Rahimi and Recht, NIPS 2007, enabled by
+ * {@link SVMParameter#setFourierFeatures(int)}.
+ * <p>
+ * The map z(x) = sqrt(2/D) (cos(w_1'x + b_1), ..., cos(w_D'x + b_D)), with w_k drawn from N(0, 2 gamma I) and b_k
+ * uniformly from [0, 2 pi), satisfies E[z(x)'z(x')] = exp(-gamma |x - x'|^2). A linear C-SVC is trained on z by
+ * {@link LinearSolver}, and a prediction is one map and one dense dot product per decision function, O(D * nnz).
+ * <p>
+ * Every w_k[j] and b_k is a function of the seed, the feature index j and k only, so the model stores D weights per
+ * decision function and the seed instead of the D x (maxIndex + 1) random matrix. The matrix is built for the feature
+ * indices of the training data, up to TABLE_SIZE values, the values of other indices are generated when a data point
+ * has them.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 4:30 PM
+ */
+final class RandomFourierFeatures implements java.io.Serializable
+{
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+    /**
+     * rows of a parallel task
+     */
+    private static final int CHUNK_ROWS = 256;
+    /**
+     * largest number of values of w kept in a table
+     */
+    private static final int TABLE_SIZE = 1 << 22;
+
+    private final int dimension;
+    private final double gamma;
+    private final long seed;
+    private final int maxIndex;
+    private transient int tableRows;     // rows of omega, min(maxIndex + 1, TABLE_SIZE / dimension)
+    private transient double[] omega;    // omega[j * dimension + k] = w_k[j] for j in [0, tableRows)
+    private transient double[] phase;    // b_k
+
+    RandomFourierFeatures(int dimension, double gamma, long seed, int maxIndex)
+    {
+        this.dimension = dimension;
+        this.gamma = gamma;
+        this.seed = seed;
+        this.maxIndex = maxIndex;
+        init();
+    }
+
+    private void init()
+    {
+        tableRows = (int) Math.min((long) maxIndex + 1, TABLE_SIZE / Math.max(dimension, 1));
+        omega = new double[tableRows * dimension];
+        for (int j = 0; j < tableRows; j++)
+            for (int k = 0; k < dimension; k++)
+                omega[j * dimension + k] = omega(j, k);
+        phase = new double[dimension];
+        for (int k = 0; k < dimension; k++)
+            phase[k] = 2 * Math.PI * uniform(-1, k);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        init();
+    }
+
+    static SVMModel train(SVMProblem prob, SVMParameter param)
+    {
+        ForkJoinPool pool = param.pool != null ? param.pool : ForkJoinPool.commonPool();
+        FeatureMatrix x = prob.getMatrix();
+        int l = prob.l;
+        RandomFourierFeatures map = new RandomFourierFeatures(param.fourierFeatures, param.gamma,
+                SVM.rand.nextLong(), Math.max(x.getMaxIndex(), 0));
+
+        float[][] z = new float[l][];
+        LinearSolver.parallel(pool, (l + CHUNK_ROWS - 1) / CHUNK_ROWS, c -> {
+            double[] t = new double[map.dimension];
+            for (int i = c * CHUNK_ROWS; i < Math.min(l, (c + 1) * CHUNK_ROWS); i++) {
+                map.map(x, i, t);
+                float[] z_i = new float[map.dimension];
+                for (int k = 0; k < map.dimension; k++)
+                    z_i[k] = (float) t[k];
+                z[i] = z_i;
+            }
+        });
+
+        SVMModel model = new SVMModel();
+        model.param = param;
+        model.featureHashing = prob.getFeatureHashing();
+        model.fourierFeatures = map;
+        model.fourierCoef = LinearSolver.trainPairs(prob, param, z, pool, model);
+        return model;
+    }
+
+    int getDimension()
+    {
+        return dimension;
+    }
+
+    long getSeed()
+    {
+        return seed;
+    }
+
+    int getMaxIndex()
+    {
+        return maxIndex;
+    }
+
+    /**
+     * @param z receives the D features of x
+     */
+    void map(SVMNode[] x, double[] z)
+    {
+        System.arraycopy(phase, 0, z, 0, dimension);
+        for (SVMNode node : x)
+            add(node.index, node.value, z);
+        finish(z);
+    }
+
+    /**
+     * @param z receives the D features of row i of x
+     */
+    void map(FeatureMatrix x, int i, double[] z)
+    {
+        System.arraycopy(phase, 0, z, 0, dimension);
+        int n = x.length(i);
+        for (int k = 0; k < n; k++)
+            add(x.index(i, k), x.value(i, k), z);
+        finish(z);
+    }
+
+    // t += value * w[index]
+    private void add(int index, double value, double[] t)
+    {
+        if (index >= 0 && index < tableRows) {
+            int offset = index * dimension;
+            for (int k = 0; k < dimension; k++)
+                t[k] += omega[offset + k] * value;
+        } else {
+            for (int k = 0; k < dimension; k++)
+                t[k] += omega(index, k) * value;
+        }
+    }
+
+    private void finish(double[] t)
+    {
+        double scale = Math.sqrt(2.0 / dimension);
+        for (int k = 0; k < dimension; k++)
+            t[k] = scale * Math.cos(t[k]);
+    }
+
+    /**
+     * @return w_k[j], sqrt(2 gamma) times a standard normal value by the Box-Muller transform.
+     */
+    private double omega(int j, int k)
+    {
+        double u1 = uniform(j, 2 * k);
+        double u2 = uniform(j, 2 * k + 1);
+        return Math.sqrt(2 * gamma) * Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * @return a uniform value in (0, 1] determined by the seed, j and t, from the splitmix64 finalizer.
+     */
+    private double uniform(int j, int t)
+    {
+        long z = mix(mix(seed + j * GOLDEN) + t * GOLDEN);
+        return ((z >>> 11) + 1) * 0x1.0p-53;
+    }
+
+    private static long mix(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
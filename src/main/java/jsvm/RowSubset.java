@@ -0,0 +1,128 @@
+package jsvm;
+
+/**
+ * A view over selected rows of another {@link FeatureMatrix}, used for the sub-problems of multi-class training and
+ * cross validation, so that the feature data is never copied.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 9:40 AM
+ */
+final class RowSubset implements FeatureMatrix, java.io.Serializable
+{
+    private final FeatureMatrix base;
+    private final int[] rows;
+
+    RowSubset(FeatureMatrix base, int[] rows)
+    {
+        if (base instanceof RowSubset) {
+            // collapse nested views, so every access is a single indirection
+            RowSubset subset = (RowSubset) base;
+            int[] composed = new int[rows.length];
+            for (int i = 0; i < rows.length; i++)
+                composed[i] = subset.rows[rows[i]];
+            this.base = subset.base;
+            this.rows = composed;
+        } else {
+            this.base = base;
+            this.rows = rows.clone();
+        }
+    }
+
+    @Override
+    public int rows()
+    {
+        return rows.length;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return base.getMaxIndex();
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return base.length(rows[row]);
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        return base.index(rows[row], k);
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        return base.value(rows[row], k);
+    }
+
+    @Override
+    public double dot(int i, int j)
+    {
+        return base.dot(rows[i], rows[j]);
+    }
+
+    @Override
+    public double dot(SVMNode[] x, int j)
+    {
+        return base.dot(x, rows[j]);
+    }
+
+    @Override
+    public double squaredDistance(SVMNode[] x, int j)
+    {
+        return base.squaredDistance(x, rows[j]);
+    }
+
+    @Override
+    public double dot(FeatureMatrix x, int i, int j)
+    {
+        return base.dot(x, i, rows[j]);
+    }
+
+    @Override
+    public double squaredDistance(FeatureMatrix x, int i, int j)
+    {
+        return base.squaredDistance(x, i, rows[j]);
+    }
+
+    @Override
+    public void dot(double[] dense, int stride, int n, int j, double[] sums)
+    {
+        base.dot(dense, stride, n, rows[j], sums);
+    }
+
+    /**
+     * @return the matrix this view selects from.
+     */
+    FeatureMatrix base()
+    {
+        return base;
+    }
+
+    /**
+     * @return position in the base matrix of a row of this view.
+     */
+    int baseRow(int row)
+    {
+        return rows[row];
+    }
+
+    @Override
+    public SVMNode[] row(int row)
+    {
+        return base.row(rows[row]);
+    }
+
+    @Override
+    public FeatureMatrix copy(int[] rows)
+    {
+        int[] selected = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            selected[i] = this.rows[rows[i]];
+        return base.copy(selected);
+    }
+}
@@ -1,6 +1,15 @@
 package jsvm;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import static jsvm.KernelType.*;
 import static jsvm.SVMType.*;
@@ -11,13 +20,39 @@ import static jsvm.SVMType.*;
 //
 // Kernel Cache
 //
+// columns of Q kept between the iterations of the solver, on the heap by Cache or in direct memory by OffHeapCache
+//
+abstract class ColumnCache
+{
+    // request data [0,len) of column index in data[0]
+    // return some position p where [p,len) need to be filled and then stored by put_data
+    // (p >= len if nothing needs to be filled)
+    // data[0] is valid until the next request of the same slot, single columns take slots 0 and 1 in turn and the
+    // columns of a batch the slots from 2 on
+    abstract int get_data(int index, float[][] data, int len, int slot);
+
+    // store data[start,len) of column index after it is filled
+    abstract void put_data(int index, float[] data, int start, int len);
+
+    abstract void swap_index(int i, int j);
+
+    static ColumnCache create(int l, long size, SVMParameter param)
+    {
+        return param.offHeapCache ? new OffHeapCache(l, size, param.stats) : new Cache(l, size, param.stats);
+    }
+}
+
+//
+// Kernel Cache on the heap
+//
 // l is the number of total data items
 // size is the cache size limit in bytes
 //
-class Cache
+class Cache extends ColumnCache
 {
     private final int l;
     private long size;
+    private final TrainingStats stats;    // null if the training is not counted
 
     private final class HeadT
     {
@@ -29,10 +64,11 @@ class Cache
     private final HeadT[] head;
     private HeadT lru_head;
 
-    Cache(int l_, long size_)
+    Cache(int l_, long size_, TrainingStats stats_)
     {
         l = l_;
         size = size_;
+        stats = stats_;
         head = new HeadT[l];
         for (int i = 0; i < l; i++) head[i] = new HeadT();
         size /= 4;
@@ -67,12 +103,22 @@ class Cache
         HeadT h = head[index];
         if (h.len > 0) lru_delete(h);
         int more = len - h.len;
+        if (stats != null) {
+            if (more <= 0)
+                stats.cacheHit();
+            else if (h.len > 0)
+                stats.cachePartialHit();
+            else
+                stats.cacheMiss();
+        }
 
         if (more > 0) {
             // free old space
             while (size < more) {
                 HeadT old = lru_head.next;
                 lru_delete(old);
+                if (stats != null)
+                    stats.addEvictedBytes(4L * old.len);
                 size += old.len;
                 old.data = null;
                 old.len = 0;
@@ -95,6 +141,16 @@ class Cache
         return len;
     }
 
+    // the cached array itself is returned and filled, whatever the slot
+    int get_data(int index, float[][] data, int len, int slot)
+    {
+        return get_data(index, data, len);
+    }
+
+    void put_data(int index, float[] data, int start, int len)
+    {
+    }
+
     void swap_index(int i, int j)
     {
         if (i == j) return;
@@ -119,7 +175,9 @@ class Cache
             i = j;
             j = tmp;
         } while (false);
+        long visits = 0;
         for (HeadT h = lru_head.next; h != lru_head; h = h.next) {
+            visits++;
             if (h.len > i) {
                 if (h.len > j)
                     do {
@@ -130,19 +188,267 @@ class Cache
                 else {
                     // give up
                     lru_delete(h);
+                    if (stats != null)
+                        stats.addEvictedBytes(4L * h.len);
                     size += h.len;
                     h.data = null;
                     h.len = 0;
                 }
             }
         }
+        if (stats != null)
+            stats.addSwap(visits);
+    }
+}
+
+//
+// Kernel Cache in direct memory
+//
+// the columns are kept in slabs of direct memory outside the Java heap, so a cache of many GB leaves nothing for the
+// GC to copy or mark, and its size is limited by -XX:MaxDirectMemorySize instead of -Xmx. Every column takes a block
+// of l floats, so a column requested longer later is filled in place. Blocks come from a free list, a slab is
+// allocated when the list is empty, and when the cache size is reached or the direct memory runs out the least
+// recently used column gives up its block. The solver reads a copy of a column in the heap array of its slot
+//
+class OffHeapCache extends ColumnCache
+{
+    private static final int SLAB_FLOATS = 1 << 22;    // 16 MB, a slab has at least one block
+
+    private final int l;
+    private final int blocks;         // blocks within the cache size
+    private final int slab_blocks;    // blocks of a slab
+    private final List<FloatBuffer> slabs = new ArrayList<>();
+    private final int[] free;         // free blocks
+    private int nr_free;
+    private boolean exhausted;        // the direct memory ran out, no more slabs
+    private final TrainingStats stats;    // null if the training is not counted
+
+    private static final class HeadT
+    {
+        HeadT prev, next;    // a circular list
+        int block = -1;
+        int len;        // [0,len) of the block is cached
+    }
+
+    private final HeadT[] head;
+    private final HeadT lru_head;
+    private float[][] staging = new float[0][];    // copies of the columns, by slot
+
+    OffHeapCache(int l_, long size_, TrainingStats stats_)
+    {
+        l = l_;
+        stats = stats_;
+        head = new HeadT[l];
+        for (int i = 0; i < l; i++) head[i] = new HeadT();
+        long size = size_ - l * 16L;    // sizeof(head_t) == 16
+        blocks = (int) Math.min(l, Math.max(2, size / (4L * l)));    // cache must be large enough for two columns
+        slab_blocks = Math.max(1, Math.min(blocks, SLAB_FLOATS / l));
+        free = new int[blocks];
+        lru_head = new HeadT();
+        lru_head.next = lru_head.prev = lru_head;
+    }
+
+    private void lru_delete(HeadT h)
+    {
+        h.prev.next = h.next;
+        h.next.prev = h.prev;
+    }
+
+    private void lru_insert(HeadT h)
+    {
+        h.next = lru_head;
+        h.prev = lru_head.prev;
+        h.prev.next = h;
+        h.next.prev = h;
+    }
+
+    // a free block, from a new slab if the free list is empty, or else from the least recently used column
+    private int allocate()
+    {
+        if (nr_free == 0 && !exhausted && (long) slabs.size() * slab_blocks < blocks) {
+            int first = slabs.size() * slab_blocks;
+            int n = Math.min(slab_blocks, blocks - first);
+            try {
+                slabs.add(ByteBuffer.allocateDirect(n * l * 4).order(ByteOrder.nativeOrder()).asFloatBuffer());
+                for (int b = n - 1; b >= 0; b--)
+                    free[nr_free++] = first + b;
+            } catch (OutOfMemoryError e) {
+                if (slabs.isEmpty())
+                    throw e;
+                exhausted = true;
+                SVM.info("WARNING: direct memory exhausted, the kernel cache holds " + first + " columns. See "
+                        + "-XX:MaxDirectMemorySize\n");
+            }
+        }
+        if (nr_free > 0)
+            return free[--nr_free];
+
+        HeadT old = lru_head.next;
+        lru_delete(old);
+        if (stats != null)
+            stats.addEvictedBytes(4L * old.len);
+        int block = old.block;
+        old.block = -1;
+        old.len = 0;
+        return block;
+    }
+
+    // the slab of the block, positioned at offset in the block
+    private FloatBuffer locate(int block, int offset)
+    {
+        FloatBuffer slab = slabs.get(block / slab_blocks);
+        slab.position((block % slab_blocks) * l + offset);
+        return slab;
+    }
+
+    private float[] staging(int slot)
+    {
+        if (slot >= staging.length)
+            staging = Arrays.copyOf(staging, slot + 1);
+        if (staging[slot] == null)
+            staging[slot] = new float[l];
+        return staging[slot];
+    }
+
+    int get_data(int index, float[][] data, int len, int slot)
+    {
+        HeadT h = head[index];
+        if (h.len > 0) lru_delete(h);
+        int more = len - h.len;
+        if (stats != null) {
+            if (more <= 0)
+                stats.cacheHit();
+            else if (h.len > 0)
+                stats.cachePartialHit();
+            else
+                stats.cacheMiss();
+        }
+
+        int start = len;
+        if (more > 0) {
+            if (h.block < 0)
+                h.block = allocate();
+            start = h.len;
+            h.len = len;
+        }
+        lru_insert(h);
+
+        float[] column = staging(slot);
+        if (start > 0)
+            locate(h.block, 0).get(column, 0, start);
+        data[0] = column;
+        return start;
+    }
+
+    void put_data(int index, float[] data, int start, int len)
+    {
+        HeadT h = head[index];
+        if (h.len >= len)    // unless a later column of the same batch took the block
+            locate(h.block, start).put(data, start, len - start);
+    }
+
+    void swap_index(int i, int j)
+    {
+        if (i == j) return;
+
+        if (head[i].len > 0) lru_delete(head[i]);
+        if (head[j].len > 0) lru_delete(head[j]);
+        do {
+            int tmp = head[i].block;
+            head[i].block = head[j].block;
+            head[j].block = tmp;
+        } while (false);
+        do {
+            int tmp = head[i].len;
+            head[i].len = head[j].len;
+            head[j].len = tmp;
+        } while (false);
+        if (head[i].len > 0) lru_insert(head[i]);
+        if (head[j].len > 0) lru_insert(head[j]);
+
+        if (i > j) do {
+            int tmp = i;
+            i = j;
+            j = tmp;
+        } while (false);
+        long visits = 0;
+        for (HeadT h = lru_head.next; h != lru_head; h = h.next) {
+            visits++;
+            if (h.len > i) {
+                if (h.len > j) {
+                    FloatBuffer slab = slabs.get(h.block / slab_blocks);
+                    int offset = (h.block % slab_blocks) * l;
+                    float tmp = slab.get(offset + i);
+                    slab.put(offset + i, slab.get(offset + j));
+                    slab.put(offset + j, tmp);
+                } else {
+                    // give up
+                    lru_delete(h);
+                    if (stats != null)
+                        stats.addEvictedBytes(4L * h.len);
+                    free[nr_free++] = h.block;
+                    h.block = -1;
+                    h.len = 0;
+                }
+            }
+        }
+        if (stats != null)
+            stats.addSwap(visits);
+    }
+}
+
+//
+// Whole Q matrix in memory
+//
+// used instead of Cache when the l*l values fit in the cache size, the columns are computed up front by
+// Kernel.kernel_matrix and returned without copy. Like full length columns of Cache, they are kept in the current
+// order of the data items
+//
+class FullQ
+{
+    private final float[][] column;
+    private final TrainingStats stats;    // null if the training is not counted
+
+    FullQ(float[][] column_, TrainingStats stats_)
+    {
+        column = column_;
+        stats = stats_;
+    }
+
+    // whether l columns of l values and the column headers fit in size bytes
+    static boolean fits(int l, long size)
+    {
+        return (long) l * l * 4 + l * 16L <= size;
+    }
+
+    float[] get(int i)
+    {
+        return column[i];
+    }
+
+    void swap_index(int i, int j)
+    {
+        if (i == j) return;
+
+        do {
+            float[] tmp = column[i];
+            column[i] = column[j];
+            column[j] = tmp;
+        } while (false);
+        for (float[] data : column)
+            do {
+                float tmp = data[i];
+                data[i] = data[j];
+                data[j] = tmp;
+            } while (false);
+        if (stats != null)
+            stats.addSwap(column.length);
     }
 }
 
 //
 // Kernel evaluation
 //
-// the static method k_function is for doing single kernel evaluation
 // the constructor of Kernel prepares to calculate the l*l kernel matrix
 // the member function get_Q is for getting one column from the Q Matrix
 //
@@ -150,32 +456,58 @@ abstract class QMatrix
 {
     abstract float[] get_Q(int column, int len);
 
+    // columns[0,n) of the Q matrix at once, each of length len
+    // the arrays are valid until the next call of get_Q or swap_index
+    abstract float[][] get_Q(int[] columns, int n, int len);
+
     abstract double[] get_QD();
 
     abstract void swap_index(int i, int j);
+
+    // counters of the training, null if it is not counted
+    abstract TrainingStats get_stats();
 };
 
 abstract class Kernel extends QMatrix
 {
-    private SVMNode[][] x;
+    private final FeatureMatrix x;
+    private final int[] row;    // row[i] is the position in x of data item i, swapped instead of the data
     private final double[] x_square;
 
-    // SVMParameter
-    private final KernelType kernel_type;
-    private final int degree;
-    private final double gamma;
-    private final double coef0;
+    // kernel function of the SVMParameter, null for PRECOMPUTED. The columns use the approximations of the fast
+    // math mode if it is set, since their values are truncated to float, QD and everything else in double are exact
+    private final KernelFunction kernel;
+    private final KernelFunction column_kernel;
+
+    // kernel columns are computed in tiles of up to TILE_COLUMNS columns and TILE_ROWS rows, the rows of the
+    // columns are scattered into a dense scratch of at most KernelValues.SCRATCH_SIZE values
+    private static final int TILE_COLUMNS = 16;
+    private static final int TILE_ROWS = 256;
+    private final ForkJoinPool pool;    // fills long columns in parallel if not null
+    private final TrainingStats stats;    // null if the training is not counted
+    private final int parallel_threshold;
+    private final int stride;   // distance between the scattered rows, the largest feature index plus one
+    private final int block;    // columns scattered at once, 0 if the rows can not be scattered
+    private final int columns;  // columns of a tile
+    private double[] dense;
+    private double[] sums;
+    private double[] tile;
+    private final int[] one_column = new int[1];
+    private final int[] one_from = new int[1];
+    private final float[][] one_out = new float[1][];
 
     abstract float[] get_Q(int column, int len);
 
+    abstract float[][] get_Q(int[] columns, int n, int len);
+
     abstract double[] get_QD();
 
     void swap_index(int i, int j)
     {
         do {
-            SVMNode[] tmp = x[i];
-            x[i] = x[j];
-            x[j] = tmp;
+            int tmp = row[i];
+            row[i] = row[j];
+            row[j] = tmp;
         } while (false);
         if (x_square != null) do {
             double tmp = x_square[i];
@@ -184,118 +516,228 @@ abstract class Kernel extends QMatrix
         } while (false);
     }
 
-    private static double powi(double base, int times)
+    TrainingStats get_stats()
     {
-        double tmp = base, ret = 1.0;
+        return stats;
+    }
 
-        for (int t = times; t > 0; t /= 2) {
-            if (t % 2 == 1) ret *= tmp;
-            tmp = tmp * tmp;
-        }
-        return ret;
+    // QD[i] = K(i, i) of the l data items
+    double[] kernel_diagonal(int l)
+    {
+        double[] QD = new double[l];
+        for (int i = 0; i < l; i++)
+            QD[i] = kernel_function(i, i);
+        if (stats != null)
+            stats.addKernelEvaluations(l);
+        return QD;
     }
 
     double kernel_function(int i, int j)
     {
-        switch (kernel_type) {
-            case LINEAR:
-                return dot(x[i], x[j]);
-            case POLY:
-                return powi(gamma * dot(x[i], x[j]) + coef0, degree);
-            case RBF:
-                return Math.exp(-gamma * (x_square[i] + x_square[j] - 2 * dot(x[i], x[j])));
-            case SIGMOID:
-                return Math.tanh(gamma * dot(x[i], x[j]) + coef0);
-            case PRECOMPUTED:
-                return x[i][(int) (x[j][0].value)].value;
-            default:
-                return 0;    // Unreachable
-        }
+        if (kernel == null)
+            return x.value(row[i], (int) x.value(row[j], 0));
+        double dot = x.dot(row[i], row[j]);
+        return x_square == null ? kernel.value(dot, 0, 0) : kernel.value(dot, x_square[i], x_square[j]);
     }
 
-    Kernel(int l, SVMNode[][] x_, SVMParameter param)
+    Kernel(int l, FeatureMatrix x_, SVMParameter param)
     {
-        this.kernel_type = param.kernelType;
-        this.degree = param.degree;
-        this.gamma = param.gamma;
-        this.coef0 = param.coef0;
-
-        x = x_.clone();
-
-        if (kernel_type == RBF) {
+        this.kernel = Kernels.of(param, false);
+        this.column_kernel = Kernels.of(param, param.fastMath);
+        this.pool = param.pool;
+        this.parallel_threshold = param.parallelThreshold;
+        this.stats = param.stats;
+
+        x = x_;
+        row = new int[l];
+        for (int i = 0; i < l; i++)
+            row[i] = i;
+
+        if (kernel != null && kernel.usesSquares()) {
             x_square = new double[l];
             for (int i = 0; i < l; i++)
-                x_square[i] = dot(x[i], x[i]);
+                x_square[i] = x.dot(i, i);
         } else
             x_square = null;
+
+        stride = kernel == null ? 0 : KernelValues.scatterStride(x);
+        block = stride == 0 ? 0 : Math.min(TILE_COLUMNS, KernelValues.SCRATCH_SIZE / stride);
+        columns = block == 0 ? TILE_COLUMNS : block;
     }
 
-    static double dot(SVMNode[] x, SVMNode[] y)
+    // out[0,len) receives column i of the kernel matrix from position from, multiplied by y[i] * y[j] if y is given
+    void kernel_column(int i, int from, float[] out, int len, byte[] y)
     {
-        double sum = 0;
-        int xlen = x.length;
-        int ylen = y.length;
-        int i = 0;
-        int j = 0;
-        while (i < xlen && j < ylen) {
-            if (x[i].index == y[j].index)
-                sum += x[i++].value * y[j++].value;
-            else {
-                if (x[i].index > y[j].index)
-                    ++j;
-                else
-                    ++i;
-            }
-        }
-        return sum;
-    }
-
-    static double k_function(SVMNode[] x, SVMNode[] y,
-            SVMParameter param)
-    {
-        switch (param.kernelType) {
-            case LINEAR:
-                return dot(x, y);
-            case POLY:
-                return powi(param.gamma * dot(x, y) + param.coef0, param.degree);
-            case RBF: {
-                double sum = 0;
-                int xlen = x.length;
-                int ylen = y.length;
-                int i = 0;
-                int j = 0;
-                while (i < xlen && j < ylen) {
-                    if (x[i].index == y[j].index) {
-                        double d = x[i++].value - y[j++].value;
-                        sum += d * d;
-                    } else if (x[i].index > y[j].index) {
-                        sum += y[j].value * y[j].value;
-                        ++j;
-                    } else {
-                        sum += x[i].value * x[i].value;
-                        ++i;
-                    }
+        one_column[0] = i;
+        one_from[0] = from;
+        one_out[0] = out;
+        kernel_columns(one_column, one_from, one_out, 1, len, y);
+        one_out[0] = null;
+    }
+
+    // out[b][from[b],len) receives column cols[b] of the kernel matrix, multiplied by y[i] * y[j] if y is given.
+    // The rows of a block of columns are scattered into a dense scratch once and gathered against each x[j], the
+    // kernel function turns a tile of dot products into kernel values at once. Long columns are split among the
+    // tasks of the pool, each value is computed the same way on any thread
+    void kernel_columns(int[] cols, int[] from, float[][] out, int n, int len, byte[] y)
+    {
+        kernel_columns(cols, from, out, n, len, y, pool, parallel_threshold);
+    }
+
+    // all l columns of the kernel matrix, multiplied by y[i] * y[j] if y is given, for FullQ. Only the lower
+    // triangle is computed, on the pool of the parameter or else the common pool, and mirrored to the upper. The
+    // kernel value of (i, j) and (j, i) is the same sum of the same products, so the mirror is exact
+    float[][] kernel_matrix(int l, byte[] y)
+    {
+        float[][] out = new float[l][];
+        int[] cols = new int[l];
+        for (int i = 0; i < l; i++) {
+            out[i] = new float[l];
+            cols[i] = i;
+        }
+        kernel_columns(cols, cols, out, l, l, y, pool != null ? pool : ForkJoinPool.commonPool(), 0);
+
+        for (int j0 = 0; j0 < l; j0 += TILE_ROWS) {
+            for (int i0 = j0; i0 < l; i0 += TILE_ROWS) {
+                for (int i = i0; i < Math.min(l, i0 + TILE_ROWS); i++) {
+                    float[] out_i = out[i];
+                    for (int j = j0; j < Math.min(i, j0 + TILE_ROWS); j++)
+                        out_i[j] = out[j][i];
                 }
+            }
+        }
+        return out;
+    }
+
+    private void kernel_columns(int[] cols, int[] from, float[][] out, int n, int len, byte[] y, ForkJoinPool pool,
+            int parallel_threshold)
+    {
+        if (stats != null && n > 0)
+            stats.addColumns(n);
+        if (tile == null) {
+            if (block > 0)
+                dense = new double[block * stride];
+            sums = new double[columns];
+            tile = new double[columns * TILE_ROWS];
+        }
+        for (int b0 = 0; b0 < n; b0 += columns) {
+            int m = Math.min(columns, n - b0);
+            int start = len;
+            for (int b = 0; b < m; b++) {
+                start = Math.min(start, from[b0 + b]);
+                if (block == 0)
+                    continue;
+                int r = row[cols[b0 + b]];
+                int rlen = x.length(r);
+                for (int k = 0; k < rlen; k++)
+                    dense[b * stride + x.index(r, k)] = x.value(r, k);
+            }
 
-                while (i < xlen) {
-                    sum += x[i].value * x[i].value;
-                    ++i;
+            fill(cols, from, out, b0, m, start, len, y, pool, parallel_threshold);
+
+            for (int b = 0; b < m && block > 0; b++) {
+                int r = row[cols[b0 + b]];
+                int rlen = x.length(r);
+                for (int k = 0; k < rlen; k++)
+                    dense[b * stride + x.index(r, k)] = 0;
+            }
+        }
+    }
+
+    // fill the columns cols[b0,b0+m) at the rows [start,len), in parallel if the pool is set and the columns are long
+    private void fill(int[] cols, int[] from, float[][] out, int b0, int m, int start, int len, byte[] y,
+            ForkJoinPool pool, int parallel_threshold)
+    {
+        int tasks = Math.min(pool == null ? 1 : pool.getParallelism(), (len - start + TILE_ROWS - 1) / TILE_ROWS);
+        if (tasks <= 1 || (long) m * (len - start) < parallel_threshold) {
+            fill_range(cols, from, out, b0, m, start, len, y, sums, tile);
+            return;
+        }
+
+        // split at multiples of TILE_ROWS
+        int tiles = (len - start + TILE_ROWS - 1) / TILE_ROWS;
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                List<RecursiveAction> ranges = new ArrayList<>(tasks);
+                for (int t = 0; t < tasks; t++) {
+                    int j0 = start + (int) ((long) tiles * t / tasks) * TILE_ROWS;
+                    int j1 = Math.min(len, start + (int) ((long) tiles * (t + 1) / tasks) * TILE_ROWS);
+                    ranges.add(new RecursiveAction()
+                    {
+                        @Override
+                        protected void compute()
+                        {
+                            fill_range(cols, from, out, b0, m, j0, j1, y, new double[columns],
+                                    new double[columns * TILE_ROWS]);
+                        }
+                    });
                 }
+                ForkJoinTask.invokeAll(ranges);
+            }
+        });
+    }
 
-                while (j < ylen) {
-                    sum += y[j].value * y[j].value;
-                    ++j;
+    private void fill_range(int[] cols, int[] from, float[][] out, int b0, int m, int start, int end, byte[] y,
+            double[] sums, double[] tile)
+    {
+        long evaluations = 0;
+        if (kernel == null) {
+            for (int b = b0; b < b0 + m; b++) {
+                int i = cols[b];
+                float[] out_b = out[b];
+                for (int j = Math.max(start, from[b]); j < end; j++) {
+                    double k = kernel_function(i, j);
+                    out_b[j] = y == null ? (float) k : (float) (y[i] * y[j] * k);
                 }
+                evaluations += Math.max(0, end - Math.max(start, from[b]));
+            }
+            if (stats != null)
+                stats.addKernelEvaluations(evaluations);
+            return;
+        }
 
-                return Math.exp(-param.gamma * sum);
+        for (int j0 = start; j0 < end; j0 += TILE_ROWS) {
+            int w = Math.min(TILE_ROWS, end - j0);
+            kernel_tile(cols, b0, m, j0, w, sums, tile);
+            evaluations += (long) m * w;
+            for (int b = 0; b < m; b++) {
+                int i = cols[b0 + b];
+                float[] out_b = out[b0 + b];
+                int j = Math.max(j0, from[b0 + b]);
+                if (y == null) {
+                    for (; j < j0 + w; j++)
+                        out_b[j] = (float) tile[b * w + j - j0];
+                } else {
+                    for (; j < j0 + w; j++)
+                        out_b[j] = (float) (y[i] * y[j] * tile[b * w + j - j0]);
+                }
             }
-            case SIGMOID:
-                return Math.tanh(param.gamma * dot(x, y) + param.coef0);
-            case PRECOMPUTED:  //x: test (validation), y: SV
-                return x[(int) (y[0].value)].value;
-            default:
-                return 0;    // Unreachable
         }
+        if (stats != null)
+            stats.addKernelEvaluations(evaluations);
+    }
+
+    // tile[b*w + j-j0] = kernel value of column cols[b0+b] and data item j in [j0,j0+w), from the dot products
+    // gathered against the scattered columns, or merged pair by pair if the rows are not scattered
+    private void kernel_tile(int[] cols, int b0, int m, int j0, int w, double[] sums, double[] tile)
+    {
+        for (int j = 0; j < w; j++) {
+            int r = row[j0 + j];
+            if (block == 0) {
+                for (int b = 0; b < m; b++)
+                    tile[b * w + j] = x.dot(row[cols[b0 + b]], r);
+            } else {
+                x.dot(dense, stride, m, r, sums);
+                for (int b = 0; b < m; b++)
+                    tile[b * w + j] = sums[b];
+            }
+        }
+
+        for (int b = 0; b < m; b++)
+            column_kernel.apply(x_square == null ? 0 : x_square[cols[b0 + b]], x_square, j0, tile, b * w, w);
     }
 }
 
@@ -429,24 +871,48 @@ class Solver
         if (2 * nr_free < active_size)
             SVM.info("\nWARNING: using -h 0 may be faster\n");
 
+        // the columns are requested in blocks, so the kernel computes them together
+        int[] columns = new int[column_block()];
+        int n = 0;
         if (nr_free * l > 2 * active_size * (l - active_size)) {
             for (i = active_size; i < l; i++) {
-                float[] Q_i = Q.get_Q(i, active_size);
-                for (j = 0; j < active_size; j++)
-                    if (is_free(j))
-                        G[i] += alpha[j] * Q_i[j];
+                columns[n++] = i;
+                if (n == columns.length || i == l - 1) {
+                    float[][] Q_b = Q.get_Q(columns, n, active_size);
+                    for (int b = 0; b < n; b++) {
+                        float[] Q_i = Q_b[b];
+                        int k = columns[b];
+                        for (j = 0; j < active_size; j++)
+                            if (is_free(j))
+                                G[k] += alpha[j] * Q_i[j];
+                    }
+                    n = 0;
+                }
             }
         } else {
-            for (i = 0; i < active_size; i++)
-                if (is_free(i)) {
-                    float[] Q_i = Q.get_Q(i, l);
-                    double alpha_i = alpha[i];
-                    for (j = active_size; j < l; j++)
-                        G[j] += alpha_i * Q_i[j];
+            for (i = 0; i < active_size; i++) {
+                if (is_free(i))
+                    columns[n++] = i;
+                if (n > 0 && (n == columns.length || i == active_size - 1)) {
+                    float[][] Q_b = Q.get_Q(columns, n, l);
+                    for (int b = 0; b < n; b++) {
+                        float[] Q_i = Q_b[b];
+                        double alpha_i = alpha[columns[b]];
+                        for (j = active_size; j < l; j++)
+                            G[j] += alpha_i * Q_i[j];
+                    }
+                    n = 0;
                 }
+            }
         }
     }
 
+    // number of columns requested at once, at most 16 and about 16 MB of columns
+    int column_block()
+    {
+        return Math.max(1, Math.min(16, (1 << 22) / l));
+    }
+
     void Solve(int l, QMatrix Q, double[] p_, byte[] y_,
             double[] alpha_, double Cp, double Cn, double eps, SolutionInfo si, boolean shrinking)
     {
@@ -485,17 +951,27 @@ class Solver
                 G[i] = p[i];
                 G_bar[i] = 0;
             }
-            for (i = 0; i < l; i++)
-                if (!is_lower_bound(i)) {
-                    float[] Q_i = Q.get_Q(i, l);
-                    double alpha_i = alpha[i];
-                    int j;
-                    for (j = 0; j < l; j++)
-                        G[j] += alpha_i * Q_i[j];
-                    if (is_upper_bound(i))
+            int[] columns = new int[column_block()];
+            int n = 0;
+            for (i = 0; i < l; i++) {
+                if (!is_lower_bound(i))
+                    columns[n++] = i;
+                if (n > 0 && (n == columns.length || i == l - 1)) {
+                    float[][] Q_b = Q.get_Q(columns, n, l);
+                    for (int b = 0; b < n; b++) {
+                        float[] Q_i = Q_b[b];
+                        int k = columns[b];
+                        double alpha_k = alpha[k];
+                        int j;
                         for (j = 0; j < l; j++)
-                            G_bar[j] += get_C(i) * Q_i[j];
+                            G[j] += alpha_k * Q_i[j];
+                        if (is_upper_bound(k))
+                            for (j = 0; j < l; j++)
+                                G_bar[j] += get_C(k) * Q_i[j];
+                    }
+                    n = 0;
                 }
+            }
         }
 
         // optimization step
@@ -680,6 +1156,8 @@ class Solver
         si.upper_bound_n = Cn;
 
         SVM.info("\noptimization finished, #iter = " + iter + "\n");
+        if (Q.get_stats() != null)
+            Q.get_stats().addSolverIterations(iter);
     }
 
     // return 1 if already optimal, return 0 otherwise
@@ -1089,30 +1567,64 @@ final class Solver_NU extends Solver
 class SVC_Q extends Kernel
 {
     private final byte[] y;
-    private final Cache cache;
+    private final ColumnCache cache;
+    private final FullQ full;    // the whole Q if it fits in the cache size, then cache is null
     private final double[] QD;
+    private int next_slot;
 
     SVC_Q(SVMProblem prob, SVMParameter param, byte[] y_)
     {
-        super(prob.l, prob.x, param);
+        super(prob.l, prob.getMatrix(), param);
         y = (byte[]) y_.clone();
-        cache = new Cache(prob.l, (long) (param.cacheSize * (1 << 20)));
-        QD = new double[prob.l];
-        for (int i = 0; i < prob.l; i++)
-            QD[i] = kernel_function(i, i);
+        long size = (long) (param.cacheSize * (1 << 20));
+        full = !param.offHeapCache && FullQ.fits(prob.l, size)
+                ? new FullQ(kernel_matrix(prob.l, y), param.stats) : null;
+        cache = full == null ? ColumnCache.create(prob.l, size, param) : null;
+        QD = kernel_diagonal(prob.l);
     }
 
     float[] get_Q(int i, int len)
     {
+        if (full != null)
+            return full.get(i);
         float[][] data = new float[1][];
-        int start, j;
-        if ((start = cache.get_data(i, data, len)) < len) {
-            for (j = start; j < len; j++)
-                data[0][j] = (float) (y[i] * y[j] * kernel_function(i, j));
+        int start;
+        if ((start = cache.get_data(i, data, len, next_slot)) < len) {
+            kernel_column(i, start, data[0], len, y);
+            cache.put_data(i, data[0], start, len);
         }
+        next_slot = 1 - next_slot;
         return data[0];
     }
 
+    float[][] get_Q(int[] columns, int n, int len)
+    {
+        float[][] Q = new float[n][];
+        if (full != null) {
+            for (int b = 0; b < n; b++)
+                Q[b] = full.get(columns[b]);
+            return Q;
+        }
+        float[][] out = new float[n][];
+        int[] cols = new int[n];
+        int[] from = new int[n];
+        float[][] data = new float[1][];
+        int m = 0;
+        for (int b = 0; b < n; b++) {
+            int start = cache.get_data(columns[b], data, len, 2 + b);
+            Q[b] = data[0];
+            if (start < len) {
+                cols[m] = columns[b];
+                from[m] = start;
+                out[m++] = data[0];
+            }
+        }
+        kernel_columns(cols, from, out, m, len, y);
+        for (int b = 0; b < m; b++)
+            cache.put_data(cols[b], out[b], from[b], len);
+        return Q;
+    }
+
     double[] get_QD()
     {
         return QD;
@@ -1120,7 +1632,10 @@ class SVC_Q extends Kernel
 
     void swap_index(int i, int j)
     {
-        cache.swap_index(i, j);
+        if (full != null)
+            full.swap_index(i, j);
+        else
+            cache.swap_index(i, j);
         super.swap_index(i, j);
         do {
             byte tmp = y[i];
@@ -1137,29 +1652,63 @@ class SVC_Q extends Kernel
 
 class ONE_CLASS_Q extends Kernel
 {
-    private final Cache cache;
+    private final ColumnCache cache;
+    private final FullQ full;    // the whole Q if it fits in the cache size, then cache is null
     private final double[] QD;
+    private int next_slot;
 
     ONE_CLASS_Q(SVMProblem prob, SVMParameter param)
     {
-        super(prob.l, prob.x, param);
-        cache = new Cache(prob.l, (long) (param.cacheSize * (1 << 20)));
-        QD = new double[prob.l];
-        for (int i = 0; i < prob.l; i++)
-            QD[i] = kernel_function(i, i);
+        super(prob.l, prob.getMatrix(), param);
+        long size = (long) (param.cacheSize * (1 << 20));
+        full = !param.offHeapCache && FullQ.fits(prob.l, size)
+                ? new FullQ(kernel_matrix(prob.l, null), param.stats) : null;
+        cache = full == null ? ColumnCache.create(prob.l, size, param) : null;
+        QD = kernel_diagonal(prob.l);
     }
 
     float[] get_Q(int i, int len)
     {
+        if (full != null)
+            return full.get(i);
         float[][] data = new float[1][];
-        int start, j;
-        if ((start = cache.get_data(i, data, len)) < len) {
-            for (j = start; j < len; j++)
-                data[0][j] = (float) kernel_function(i, j);
+        int start;
+        if ((start = cache.get_data(i, data, len, next_slot)) < len) {
+            kernel_column(i, start, data[0], len, null);
+            cache.put_data(i, data[0], start, len);
         }
+        next_slot = 1 - next_slot;
         return data[0];
     }
 
+    float[][] get_Q(int[] columns, int n, int len)
+    {
+        float[][] Q = new float[n][];
+        if (full != null) {
+            for (int b = 0; b < n; b++)
+                Q[b] = full.get(columns[b]);
+            return Q;
+        }
+        float[][] out = new float[n][];
+        int[] cols = new int[n];
+        int[] from = new int[n];
+        float[][] data = new float[1][];
+        int m = 0;
+        for (int b = 0; b < n; b++) {
+            int start = cache.get_data(columns[b], data, len, 2 + b);
+            Q[b] = data[0];
+            if (start < len) {
+                cols[m] = columns[b];
+                from[m] = start;
+                out[m++] = data[0];
+            }
+        }
+        kernel_columns(cols, from, out, m, len, null);
+        for (int b = 0; b < m; b++)
+            cache.put_data(cols[b], out[b], from[b], len);
+        return Q;
+    }
+
     double[] get_QD()
     {
         return QD;
@@ -1167,7 +1716,10 @@ class ONE_CLASS_Q extends Kernel
 
     void swap_index(int i, int j)
     {
-        cache.swap_index(i, j);
+        if (full != null)
+            full.swap_index(i, j);
+        else
+            cache.swap_index(i, j);
         super.swap_index(i, j);
         do {
             double tmp = QD[i];
@@ -1180,27 +1732,32 @@ class ONE_CLASS_Q extends Kernel
 class SVR_Q extends Kernel
 {
     private final int l;
-    private final Cache cache;
+    private final ColumnCache cache;
+    private final FullQ full;    // the whole kernel matrix if it fits in the cache size, then cache is null
     private final byte[] sign;
     private final int[] index;
     private int next_buffer;
     private float[][] buffer;
+    private float[][] batch_buffer;
     private final double[] QD;
 
     SVR_Q(SVMProblem prob, SVMParameter param)
     {
-        super(prob.l, prob.x, param);
+        super(prob.l, prob.getMatrix(), param);
         l = prob.l;
-        cache = new Cache(l, (long) (param.cacheSize * (1 << 20)));
+        long size = (long) (param.cacheSize * (1 << 20));
+        full = !param.offHeapCache && FullQ.fits(l, size) ? new FullQ(kernel_matrix(l, null), param.stats) : null;
+        cache = full == null ? ColumnCache.create(l, size, param) : null;
         QD = new double[2 * l];
         sign = new byte[2 * l];
         index = new int[2 * l];
+        double[] diagonal = kernel_diagonal(l);
         for (int k = 0; k < l; k++) {
             sign[k] = 1;
             sign[k + l] = -1;
             index[k] = k;
             index[k + l] = k;
-            QD[k] = kernel_function(k, k);
+            QD[k] = diagonal[k];
             QD[k + l] = QD[k];
         }
         buffer = new float[2][2 * l];
@@ -1231,9 +1788,11 @@ class SVR_Q extends Kernel
     {
         float[][] data = new float[1][];
         int j, real_i = index[i];
-        if (cache.get_data(real_i, data, l) < l) {
-            for (j = 0; j < l; j++)
-                data[0][j] = (float) kernel_function(real_i, j);
+        if (full != null)
+            data[0] = full.get(real_i);
+        else if (cache.get_data(real_i, data, l, 0) < l) {
+            kernel_column(real_i, 0, data[0], l, null);
+            cache.put_data(real_i, data[0], 0, l);
         }
 
         // reorder and copy
@@ -1245,6 +1804,49 @@ class SVR_Q extends Kernel
         return buf;
     }
 
+    float[][] get_Q(int[] columns, int n, int len)
+    {
+        float[][] data = new float[n][];
+        float[][] out = new float[n][];
+        int[] cols = new int[n];
+        int[] from = new int[n];
+        float[][] column = new float[1][];
+        int m = 0;
+        for (int b = 0; b < n; b++) {
+            int real_i = index[columns[b]];
+            int c = 0;
+            while (c < b && index[columns[c]] != real_i)
+                c++;
+            if (c < b) {    // both signs of a data item, the column is read once
+                data[b] = data[c];
+                continue;
+            }
+            if (full != null)
+                column[0] = full.get(real_i);
+            else if (cache.get_data(real_i, column, l, 2 + b) < l) {
+                cols[m] = real_i;
+                out[m++] = column[0];
+            }
+            data[b] = column[0];
+        }
+        kernel_columns(cols, from, out, m, l, null);
+        for (int b = 0; b < m; b++)
+            cache.put_data(cols[b], out[b], 0, l);
+
+        // reorder and copy
+        if (batch_buffer == null || batch_buffer.length < n)
+            batch_buffer = new float[n][2 * l];
+        float[][] Q = new float[n][];
+        for (int b = 0; b < n; b++) {
+            float[] buf = batch_buffer[b];
+            byte si = sign[columns[b]];
+            for (int j = 0; j < len; j++)
+                buf[j] = (float) si * sign[j] * data[b][index[j]];
+            Q[b] = buf;
+        }
+        return Q;
+    }
+
     double[] get_QD()
     {
         return QD;
@@ -1692,23 +2294,22 @@ public class SVM
             int begin = i * prob.l / nr_fold;
             int end = (i + 1) * prob.l / nr_fold;
             int j, k;
-            SVMProblem subprob = new SVMProblem();
-
-            subprob.l = prob.l - (end - begin);
-            subprob.x = new SVMNode[subprob.l][];
-            subprob.y = new double[subprob.l];
+            int sub_l = prob.l - (end - begin);
+            int[] sub_rows = new int[sub_l];
+            double[] sub_y = new double[sub_l];
 
             k = 0;
             for (j = 0; j < begin; j++) {
-                subprob.x[k] = prob.x[perm[j]];
-                subprob.y[k] = prob.y[perm[j]];
+                sub_rows[k] = perm[j];
+                sub_y[k] = prob.y[perm[j]];
                 ++k;
             }
             for (j = end; j < prob.l; j++) {
-                subprob.x[k] = prob.x[perm[j]];
-                subprob.y[k] = prob.y[perm[j]];
+                sub_rows[k] = perm[j];
+                sub_y[k] = prob.y[perm[j]];
                 ++k;
             }
+            SVMProblem subprob = prob.select(sub_rows, sub_y);
             int p_count = 0, n_count = 0;
             for (j = 0; j < k; j++)
                 if (subprob.y[j] > 0)
@@ -1739,7 +2340,7 @@ public class SVM
                 SVMModel submodel = train(subprob, subparam);
                 for (j = begin; j < end; j++) {
                     double[] dec_value = new double[1];
-                    predictValues(submodel, prob.x[perm[j]], dec_value);
+                    predictValues(submodel, prob.getMatrix(), perm[j], dec_value);
                     dec_values[perm[j]] = dec_value[0];
                     // ensure +1 -1 order; reason not using CV subroutine
                     dec_values[perm[j]] *= submodel.label[0];
@@ -1780,7 +2381,7 @@ public class SVM
 
     // label: label name, start: begin of each class, count: #data of classes, perm: indices to the original data
     // perm, length l, must be allocated before calling this subroutine
-    private static void groupClasses(SVMProblem prob, int[] nr_class_ret, int[][] label_ret, int[][] start_ret, int[][] count_ret, int[] perm)
+    static void groupClasses(SVMProblem prob, int[] nr_class_ret, int[][] label_ret, int[][] start_ret, int[][] count_ret, int[] perm)
     {
         int l = prob.l;
         int max_nr_class = 16;
@@ -1859,12 +2460,28 @@ public class SVM
     }
 
     /**
-     * Train a model of given dataset and parameter.
+     * Train a model of given dataset and parameter. The work done is counted in
+     * {@link SVMModel#getTrainingStats()}.
      */
     public static SVMModel train(SVMProblem prob, SVMParameter param)
     {
+        if (param.stats == null) {
+            // count this training, and the ones it runs for probability estimates, on a copy of the parameter
+            SVMParameter counted = new SVMParameter(param);
+            counted.stats = new TrainingStats();
+            SVMModel model = train(prob, counted);
+            model.param = param;
+            model.stats = counted.stats;
+            return model;
+        }
+        if (param.landmarks > 0)
+            return Nystroem.train(prob, param);
+        if (param.fourierFeatures > 0)
+            return RandomFourierFeatures.train(prob, param);
+
         SVMModel model = new SVMModel();
         model.param = param;
+        model.featureHashing = prob.getFeatureHashing();
 
         if (param.svmType == ONE_CLASS ||
                 param.svmType == EPSILON_SVR ||
@@ -1893,17 +2510,18 @@ public class SVM
             for (i = 0; i < prob.l; i++)
                 if (Math.abs(f.alpha[i]) > 0) ++nSV;
             model.l = nSV;
-            model.SV = new SVMNode[nSV][];
+            int[] sv_rows = new int[nSV];
             model.sv_coef[0] = new double[nSV];
             model.sv_indices = new int[nSV];
             int j = 0;
             for (i = 0; i < prob.l; i++)
                 if (Math.abs(f.alpha[i]) > 0) {
-                    model.SV[j] = prob.x[i];
+                    sv_rows[j] = i;
                     model.sv_coef[0][j] = f.alpha[i];
                     model.sv_indices[j] = i + 1;
                     ++j;
                 }
+            model.svMatrix = prob.getMatrix().copy(sv_rows);
         } else {
             // classification
             int l = prob.l;
@@ -1923,10 +2541,8 @@ public class SVM
             if (nr_class == 1)
                 SVM.info("WARNING: training data in only one class. See README for details.\n");
 
-            SVMNode[][] x = new SVMNode[l][];
+            FeatureMatrix x = prob.getMatrix().select(perm);
             int i;
-            for (i = 0; i < l; i++)
-                x[i] = prob.x[perm[i]];
 
             // calculate weighted C
 
@@ -1960,21 +2576,20 @@ public class SVM
             int p = 0;
             for (i = 0; i < nr_class; i++)
                 for (int j = i + 1; j < nr_class; j++) {
-                    SVMProblem sub_prob = new SVMProblem();
                     int si = start[i], sj = start[j];
                     int ci = count[i], cj = count[j];
-                    sub_prob.l = ci + cj;
-                    sub_prob.x = new SVMNode[sub_prob.l][];
-                    sub_prob.y = new double[sub_prob.l];
+                    int[] sub_rows = new int[ci + cj];
+                    double[] sub_y = new double[ci + cj];
                     int k;
                     for (k = 0; k < ci; k++) {
-                        sub_prob.x[k] = x[si + k];
-                        sub_prob.y[k] = +1;
+                        sub_rows[k] = si + k;
+                        sub_y[k] = +1;
                     }
                     for (k = 0; k < cj; k++) {
-                        sub_prob.x[ci + k] = x[sj + k];
-                        sub_prob.y[ci + k] = -1;
+                        sub_rows[ci + k] = sj + k;
+                        sub_y[ci + k] = -1;
                     }
+                    SVMProblem sub_prob = new SVMProblem(sub_y, x.select(sub_rows));
 
                     if (param.probability) {
                         double[] probAB = new double[2];
@@ -2034,14 +2649,15 @@ public class SVM
             SVM.info("Total nSV = " + total_sv + "\n");
 
             model.l = total_sv;
-            model.SV = new SVMNode[total_sv][];
+            int[] sv_rows = new int[total_sv];
             model.sv_indices = new int[total_sv];
             p = 0;
             for (i = 0; i < l; i++)
                 if (nonzero[i]) {
-                    model.SV[p] = x[i];
+                    sv_rows[p] = i;
                     model.sv_indices[p++] = perm[i] + 1;
                 }
+            model.svMatrix = x.copy(sv_rows);
 
             int[] nz_start = new int[nr_class];
             nz_start[0] = 0;
@@ -2076,6 +2692,10 @@ public class SVM
                     ++p;
                 }
         }
+        KernelFunction kernel = model.getKernel();
+        if (kernel != null && kernel.usesSquares())
+            model.getSVSquare();
+        model.getScatterStride();
         return model;
     }
 
@@ -2162,37 +2782,77 @@ public class SVM
             int begin = fold_start[i];
             int end = fold_start[i + 1];
             int j, k;
-            SVMProblem subprob = new SVMProblem();
-
-            subprob.l = l - (end - begin);
-            subprob.x = new SVMNode[subprob.l][];
-            subprob.y = new double[subprob.l];
+            int sub_l = l - (end - begin);
+            int[] sub_rows = new int[sub_l];
+            double[] sub_y = new double[sub_l];
 
             k = 0;
             for (j = 0; j < begin; j++) {
-                subprob.x[k] = prob.x[perm[j]];
-                subprob.y[k] = prob.y[perm[j]];
+                sub_rows[k] = perm[j];
+                sub_y[k] = prob.y[perm[j]];
                 ++k;
             }
             for (j = end; j < l; j++) {
-                subprob.x[k] = prob.x[perm[j]];
-                subprob.y[k] = prob.y[perm[j]];
+                sub_rows[k] = perm[j];
+                sub_y[k] = prob.y[perm[j]];
                 ++k;
             }
+            SVMProblem subprob = prob.select(sub_rows, sub_y);
+            FeatureMatrix x = prob.getMatrix();
             SVMModel submodel = train(subprob, param);
             if (param.probability &&
                     (param.svmType == C_SVC ||
                             param.svmType == NU_SVC)) {
                 double[] prob_estimates = new double[submodel.nrClass];
                 for (j = begin; j < end; j++)
-                    target[perm[j]] = predictProbability(submodel, prob.x[perm[j]], prob_estimates);
+                    target[perm[j]] = predictProbability(submodel, x, perm[j], prob_estimates);
             } else
                 for (j = begin; j < end; j++)
-                    target[perm[j]] = predict(submodel, prob.x[perm[j]]);
+                    target[perm[j]] = predict(submodel, x, perm[j]);
         }
     }
 
     public static double predictValues(SVMModel model, SVMNode[] x, double[] dec_values)
+    {
+        if (model.fourierFeatures != null) {
+            double[] z = new double[model.fourierFeatures.getDimension()];
+            model.fourierFeatures.map(x, z);
+            return predictValues(model, z, dec_values);
+        }
+        double[] kvalue = new double[model.l];
+        KernelFunction kernel = model.getKernel();
+        KernelValues.compute(x, model.getSVMatrix(),
+                kernel != null && kernel.usesSquares() ? model.getSVSquare() : null, model.getScatterStride(), kernel,
+                kvalue);
+        return predictValues(model, kvalue, dec_values);
+    }
+
+    /**
+     * Decision values of a row of a {@link FeatureMatrix}, the row is read in place.
+     *
+     * @param model      {@link SVMModel}
+     * @param x          matrix holding the data point
+     * @param row        row position of the data point
+     * @param dec_values array to store decision values
+     * @return predicted label or regression value.
+     */
+    public static double predictValues(SVMModel model, FeatureMatrix x, int row, double[] dec_values)
+    {
+        if (model.fourierFeatures != null) {
+            double[] z = new double[model.fourierFeatures.getDimension()];
+            model.fourierFeatures.map(x, row, z);
+            return predictValues(model, z, dec_values);
+        }
+        double[] kvalue = new double[model.l];
+        KernelFunction kernel = model.getKernel();
+        KernelValues.compute(x, row, model.getSVMatrix(),
+                kernel != null && kernel.usesSquares() ? model.getSVSquare() : null, model.getScatterStride(), kernel,
+                kvalue);
+        return predictValues(model, kvalue, dec_values);
+    }
+
+    // decision values from the kernel values against all SVs, or from the features of a random Fourier feature model
+    private static double predictValues(SVMModel model, double[] kvalue, double[] dec_values)
     {
         int i;
         if (model.param.svmType == ONE_CLASS ||
@@ -2201,7 +2861,7 @@ public class SVM
             double[] sv_coef = model.sv_coef[0];
             double sum = 0;
             for (i = 0; i < model.l; i++)
-                sum += sv_coef[i] * Kernel.k_function(x, model.SV[i], model.param);
+                sum += sv_coef[i] * kvalue[i];
             sum -= model.rho[0];
             dec_values[0] = sum;
 
@@ -2213,14 +2873,13 @@ public class SVM
             int nr_class = model.nrClass;
             int l = model.l;
 
-            double[] kvalue = new double[l];
-            for (i = 0; i < l; i++)
-                kvalue[i] = Kernel.k_function(x, model.SV[i], model.param);
-
+            // the decision functions of Nystroem and random Fourier feature models weigh all values of kvalue
+            double[][] coef = model.landmarkCoef != null ? model.landmarkCoef : model.fourierCoef;
             int[] start = new int[nr_class];
             start[0] = 0;
-            for (i = 1; i < nr_class; i++)
-                start[i] = start[i - 1] + model.nSV[i - 1];
+            if (coef == null)
+                for (i = 1; i < nr_class; i++)
+                    start[i] = start[i - 1] + model.nSV[i - 1];
 
             int[] vote = new int[nr_class];
             for (i = 0; i < nr_class; i++)
@@ -2230,18 +2889,24 @@ public class SVM
             for (i = 0; i < nr_class; i++)
                 for (int j = i + 1; j < nr_class; j++) {
                     double sum = 0;
-                    int si = start[i];
-                    int sj = start[j];
-                    int ci = model.nSV[i];
-                    int cj = model.nSV[j];
-
-                    int k;
-                    double[] coef1 = model.sv_coef[j - 1];
-                    double[] coef2 = model.sv_coef[i];
-                    for (k = 0; k < ci; k++)
-                        sum += coef1[si + k] * kvalue[si + k];
-                    for (k = 0; k < cj; k++)
-                        sum += coef2[sj + k] * kvalue[sj + k];
+                    if (coef != null) {
+                        double[] coef_p = coef[p];
+                        for (int k = 0; k < coef_p.length; k++)
+                            sum += coef_p[k] * kvalue[k];
+                    } else {
+                        int si = start[i];
+                        int sj = start[j];
+                        int ci = model.nSV[i];
+                        int cj = model.nSV[j];
+
+                        int k;
+                        double[] coef1 = model.sv_coef[j - 1];
+                        double[] coef2 = model.sv_coef[i];
+                        for (k = 0; k < ci; k++)
+                            sum += coef1[si + k] * kvalue[si + k];
+                        for (k = 0; k < cj; k++)
+                            sum += coef2[sj + k] * kvalue[sj + k];
+                    }
                     sum -= model.rho[p];
                     dec_values[p] = sum;
 
@@ -2262,51 +2927,86 @@ public class SVM
     }
 
     public static double predict(SVMModel model, SVMNode[] x)
+    {
+        double pred_result = predictValues(model, x, new double[decisionValuesLength(model)]);
+        return pred_result;
+    }
+
+    /**
+     * Predict a row of a {@link FeatureMatrix}, the row is read in place.
+     */
+    public static double predict(SVMModel model, FeatureMatrix x, int row)
+    {
+        return predictValues(model, x, row, new double[decisionValuesLength(model)]);
+    }
+
+    private static int decisionValuesLength(SVMModel model)
     {
         int nr_class = model.nrClass;
-        double[] dec_values;
         if (model.param.svmType == ONE_CLASS ||
                 model.param.svmType == EPSILON_SVR ||
                 model.param.svmType == NU_SVR)
-            dec_values = new double[1];
+            return 1;
         else
-            dec_values = new double[nr_class * (nr_class - 1) / 2];
-        double pred_result = predictValues(model, x, dec_values);
-        return pred_result;
+            return nr_class * (nr_class - 1) / 2;
+    }
+
+    private static boolean hasProbabilityModel(SVMModel model)
+    {
+        return (model.param.svmType == C_SVC || model.param.svmType == NU_SVC) &&
+                model.probA != null && model.probB != null;
     }
 
     public static double predictProbability(SVMModel model, SVMNode[] x, double[] prob_estimates)
     {
-        if ((model.param.svmType == C_SVC || model.param.svmType == NU_SVC) &&
-                model.probA != null && model.probB != null) {
-            int i;
+        if (hasProbabilityModel(model)) {
             int nr_class = model.nrClass;
             double[] dec_values = new double[nr_class * (nr_class - 1) / 2];
             predictValues(model, x, dec_values);
+            return predictProbability(model, dec_values, prob_estimates);
+        } else
+            return predict(model, x);
+    }
 
-            double min_prob = 1e-7;
-            double[][] pairwise_prob = new double[nr_class][nr_class];
-
-            int k = 0;
-            for (i = 0; i < nr_class; i++)
-                for (int j = i + 1; j < nr_class; j++) {
-                    pairwise_prob[i][j] = Math.min(Math.max(sigmoid_predict(dec_values[k], model.probA[k], model.probB[k]), min_prob), 1 - min_prob);
-                    pairwise_prob[j][i] = 1 - pairwise_prob[i][j];
-                    k++;
-                }
-            if (nr_class == 2) {
-                prob_estimates[0] = pairwise_prob[0][1];
-                prob_estimates[1] = pairwise_prob[1][0];
-            } else
-                multiclass_probability(nr_class, pairwise_prob, prob_estimates);
+    /**
+     * Predict probability of a row of a {@link FeatureMatrix}, the row is read in place.
+     */
+    public static double predictProbability(SVMModel model, FeatureMatrix x, int row, double[] prob_estimates)
+    {
+        if (hasProbabilityModel(model)) {
+            int nr_class = model.nrClass;
+            double[] dec_values = new double[nr_class * (nr_class - 1) / 2];
+            predictValues(model, x, row, dec_values);
+            return predictProbability(model, dec_values, prob_estimates);
+        } else
+            return predict(model, x, row);
+    }
 
-            int prob_max_idx = 0;
-            for (i = 1; i < nr_class; i++)
-                if (prob_estimates[i] > prob_estimates[prob_max_idx])
-                    prob_max_idx = i;
-            return model.label[prob_max_idx];
+    private static double predictProbability(SVMModel model, double[] dec_values, double[] prob_estimates)
+    {
+        int i;
+        int nr_class = model.nrClass;
+        double min_prob = 1e-7;
+        double[][] pairwise_prob = new double[nr_class][nr_class];
+
+        int k = 0;
+        for (i = 0; i < nr_class; i++)
+            for (int j = i + 1; j < nr_class; j++) {
+                pairwise_prob[i][j] = Math.min(Math.max(sigmoid_predict(dec_values[k], model.probA[k], model.probB[k]), min_prob), 1 - min_prob);
+                pairwise_prob[j][i] = 1 - pairwise_prob[i][j];
+                k++;
+            }
+        if (nr_class == 2) {
+            prob_estimates[0] = pairwise_prob[0][1];
+            prob_estimates[1] = pairwise_prob[1][0];
         } else
-            return predict(model, x);
+            multiclass_probability(nr_class, pairwise_prob, prob_estimates);
+
+        int prob_max_idx = 0;
+        for (i = 1; i < nr_class; i++)
+            if (prob_estimates[i] > prob_estimates[prob_max_idx])
+                prob_max_idx = i;
+        return model.label[prob_max_idx];
     }
 
     public static String checkParameter(SVMProblem prob, SVMParameter param)
@@ -2325,6 +3025,9 @@ public class SVM
         if (kernel_type == POLY && param.degree < 0)
             return "degree of polynomial kernel < 0";
 
+        if (param.kernelFunction != null && kernel_type == PRECOMPUTED)
+            return "a kernel function can not be combined with the precomputed kernel";
+
         // cache_size,eps,C,nu,p,shrinking
 
         if (param.cacheSize <= 0)
@@ -2352,6 +3055,37 @@ public class SVM
         if (param.probability && svm_type == ONE_CLASS)
             return "one-class SVM probability output not supported yet";
 
+        if (param.landmarks < 0)
+            return "landmarks < 0";
+
+        if (param.landmarks > 0) {
+            if (svm_type != C_SVC)
+                return "landmarks are only supported for C-SVC";
+            if (kernel_type == PRECOMPUTED)
+                return "landmarks are not supported for the precomputed kernel";
+            if (param.probability)
+                return "probability output is not supported with landmarks";
+            // k-means keeps a few arrays of the largest feature index plus two values
+            if (param.landmarkSelection == LandmarkSelection.KMEANS &&
+                    (long) prob.getMaxIndex() + 2 > Integer.MAX_VALUE - 8)
+                return "feature indices are too large for k-means landmarks";
+        }
+
+        if (param.fourierFeatures < 0)
+            return "Fourier features < 0";
+
+        if (param.fourierFeatures > 0) {
+            if (svm_type != C_SVC || kernel_type != RBF || param.kernelFunction != null)
+                return "Fourier features are only supported for C-SVC with the RBF kernel";
+            if (param.landmarks > 0)
+                return "landmarks and Fourier features can not be combined";
+            if (param.probability)
+                return "probability output is not supported with Fourier features";
+            // the features of the data are l rows of D floats
+            if ((long) prob.l * param.fourierFeatures > Runtime.getRuntime().maxMemory() / 4)
+                return "the Fourier features of the data do not fit in the heap";
+        }
+
         // check whether nu-svc is feasible
         if (svm_type == NU_SVC) {
             int l = prob.l;
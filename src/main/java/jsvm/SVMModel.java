@@ -1,6 +1,7 @@
 package jsvm;
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.StringTokenizer;
 
@@ -12,12 +13,22 @@ public class SVMModel implements java.io.Serializable
     public SVMParameter param;    // parameter
     public int nrClass;        // number of classes, = 2 in regression/one class svm
     public int l;            // total #SV
-    public SVMNode[][] SV;    // SVs (SV[l])
+    private SVMNode[][] SV;    // SVs (SV[l]), compatible view of svMatrix, created by getSV()
+    FeatureMatrix svMatrix;    // SVs stored in rows
+    private SVMNode[][] svSource;    // SV the svMatrix was built from, null if SV is a view of svMatrix
     public double[][] sv_coef;    // coefficients for SVs in decision functions (sv_coef[k-1][l])
     public double[] rho;        // constants in decision functions (rho[k*(k-1)/2])
     public double[] probA;         // pariwise probability information
     public double[] probB;
     public int[] sv_indices;       // sv_indices[0,...,nSV-1] are values in [1,...,num_traning_data] to indicate SVs in the training set
+    double[][] landmarkCoef;    // for Nystroem models, coefficients of all SVs in each decision function (landmarkCoef[k*(k-1)/2][l]), null otherwise
+    RandomFourierFeatures fourierFeatures;    // for random Fourier feature models, the map of the data points, null otherwise
+    double[][] fourierCoef;    // weights of the features in each decision function (fourierCoef[k*(k-1)/2][D])
+    FeatureHashing featureHashing;    // hashing of the feature ids of the training data, null if not hashed
+    transient TrainingStats stats;    // counters of the training, null for a loaded model
+    private transient volatile KernelFunction kernel;    // kernel function of param, chosen on first use
+    private transient volatile double[] svSquare;    // squared norms of the SVs for RBF, computed on first use
+    private transient volatile int scatterStride = -1;    // see KernelValues.scatterStride, computed on first use
 
     // for classification only
 
@@ -30,10 +41,15 @@ public class SVMModel implements java.io.Serializable
 
     public SVMModel(String file) throws IOException
     {
-        this(new BufferedReader(new FileReader(file)));
+        this(new LineReader(CompressedInput.open(Paths.get(file))));
     }
 
     public SVMModel(BufferedReader reader) throws IOException
+    {
+        this(new LineReader(reader));
+    }
+
+    private SVMModel(LineReader reader) throws IOException
     {
         rho = null;
         probA = null;
@@ -47,28 +63,49 @@ public class SVMModel implements java.io.Serializable
         }
 
         // read sv_coef and SV
-        int m = nrClass - 1;
-        sv_coef = new double[m][l];
-        SV = new SVMNode[l][];
+        int m = landmarkCoef != null ? nrClass * (nrClass - 1) / 2 : nrClass - 1;
+        double[][] coef = new double[m][l];
+        if (landmarkCoef != null)
+            landmarkCoef = coef;
+        else
+            sv_coef = coef;
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(l, 16);
+        ByteTokenizer st = new ByteTokenizer();
         for (int i = 0; i < l; i++) {
-            String line = reader.readLine();
-            StringTokenizer st = new StringTokenizer(line, " \t\n\r\f:");
+            if (!reader.next())
+                throw new IllegalArgumentException("ERROR: failed to read model");
+            st.reset(reader);
 
             for (int k = 0; k < m; k++)
-                sv_coef[k][i] = atof(st.nextToken());
+                coef[k][i] = st.nextDouble();
             int n = st.countTokens() / 2;
-            SV[i] = new SVMNode[n];
             for (int j = 0; j < n; j++) {
-                SV[i][j] = new SVMNode();
-                SV[i][j].index = atoi(st.nextToken());
-                SV[i][j].value = atof(st.nextToken());
+                builder.add(st.nextInt(), st.nextDouble());
             }
+            builder.endRow();
         }
+        svMatrix = builder.build();
+        if (fourierFeatures != null) {
+            // weights of the features instead of SVs
+            int n = nrClass * (nrClass - 1) / 2;
+            fourierCoef = new double[n][fourierFeatures.getDimension()];
+            for (int p = 0; p < n; p++) {
+                if (!reader.next())
+                    throw new IllegalArgumentException("ERROR: failed to read model");
+                st.reset(reader);
+                for (int k = 0; k < fourierCoef[p].length; k++)
+                    fourierCoef[p][k] = st.nextDouble();
+            }
+        }
+        KernelFunction function = getKernel();
+        if (function != null && function.usesSquares())
+            getSVSquare();
+        getScatterStride();
 
         reader.close();
     }
 
-    private boolean readHeader(BufferedReader fp)
+    private boolean readHeader(LineReader fp)
     {
         param = new SVMParameter();
         // parameters for training only won't be assigned, but arrays are assigned as null for safety
@@ -78,7 +115,9 @@ public class SVMModel implements java.io.Serializable
 
         try {
             while (true) {
-                String cmd = fp.readLine();
+                if (!fp.next())
+                    return false;
+                String cmd = fp.line();
                 String arg = cmd.substring(cmd.indexOf(' ') + 1);
 
                 if (cmd.startsWith("svm_type")) {
@@ -114,6 +153,8 @@ public class SVMModel implements java.io.Serializable
                     param.gamma = atof(arg);
                 else if (cmd.startsWith("coef0"))
                     param.coef0 = atof(arg);
+                else if (cmd.startsWith("feature_hashing"))
+                    featureHashing = new FeatureHashing(atoi(arg));
                 else if (cmd.startsWith("nr_class"))
                     nrClass = atoi(arg);
                 else if (cmd.startsWith("total_sv"))
@@ -148,7 +189,14 @@ public class SVMModel implements java.io.Serializable
                     StringTokenizer st = new StringTokenizer(arg);
                     for (int i = 0; i < n; i++)
                         nSV[i] = atoi(st.nextToken());
-                } else if (cmd.startsWith("SV")) {
+                } else if (cmd.startsWith("landmarks")) {
+                    landmarkCoef = new double[0][];
+                } else if (cmd.startsWith("fourier_features")) {
+                    StringTokenizer st = new StringTokenizer(arg);
+                    int dimension = atoi(st.nextToken());
+                    long seed = Long.parseLong(st.nextToken());
+                    fourierFeatures = new RandomFourierFeatures(dimension, param.gamma, seed, atoi(st.nextToken()));
+                } else if (cmd.startsWith("SV") || cmd.startsWith("weights")) {
                     break;
                 } else {
                     System.err.print("unknown text in model file: [" + cmd + "]\n");
@@ -173,6 +221,9 @@ public class SVMModel implements java.io.Serializable
 
     public void saveModel(String modeFile) throws IOException
     {
+        if (param.kernelFunction != null)
+            throw new IllegalStateException("a model with a custom kernel function can not be saved in the LIBSVM "
+                    + "format, serialize it instead");
         DataOutputStream fp = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(modeFile)));
 
         fp.writeBytes("svm_type " + param.svmType.getName() + "\n");
@@ -187,6 +238,9 @@ public class SVMModel implements java.io.Serializable
         if (param.kernelType == POLY || param.kernelType == SIGMOID)
             fp.writeBytes("coef0 " + param.coef0 + "\n");
 
+        if (featureHashing != null)
+            fp.writeBytes("feature_hashing " + featureHashing.getBuckets() + "\n");
+
         fp.writeBytes("nr_class " + nrClass + "\n");
         fp.writeBytes("total_sv " + l + "\n");
 
@@ -223,24 +277,52 @@ public class SVMModel implements java.io.Serializable
             fp.writeBytes("\n");
         }
 
+        if (landmarkCoef != null)
+            fp.writeBytes("landmarks\n");
+
+        if (fourierFeatures != null) {
+            fp.writeBytes("fourier_features " + fourierFeatures.getDimension() + " " + fourierFeatures.getSeed() + " "
+                    + fourierFeatures.getMaxIndex() + "\n");
+            fp.writeBytes("weights\n");
+            for (double[] w : fourierCoef) {
+                for (double v : w)
+                    fp.writeBytes(v + " ");
+                fp.writeBytes("\n");
+            }
+            fp.close();
+            return;
+        }
+
         fp.writeBytes("SV\n");
 
+        FeatureMatrix sv = getSVMatrix();
+        double[][] coef = landmarkCoef != null ? landmarkCoef : sv_coef;
         for (int i = 0; i < l; i++) {
-            for (int j = 0; j < nrClass - 1; j++)
-                fp.writeBytes(sv_coef[j][i] + " ");
+            for (double[] c : coef)
+                fp.writeBytes(c[i] + " ");
 
-            SVMNode[] p = SV[i];
             if (param.kernelType == PRECOMPUTED)
-                fp.writeBytes("0:" + (int) (p[0].value));
-            else
-                for (SVMNode svmNode : p)
-                    fp.writeBytes(svmNode.index + ":" + svmNode.value + " ");
+                fp.writeBytes("0:" + (int) (sv.value(i, 0)));
+            else {
+                int n = sv.length(i);
+                for (int k = 0; k < n; k++)
+                    fp.writeBytes(sv.index(i, k) + ":" + sv.value(i, k) + " ");
+            }
             fp.writeBytes("\n");
         }
 
         fp.close();
     }
 
+    /**
+     * @return hashing of the feature ids, which is applied to the data to predict, null if the features are not
+     * hashed.
+     */
+    public FeatureHashing getFeatureHashing()
+    {
+        return featureHashing;
+    }
+
     /**
      * @return {@link SVMType} of this model.
      */
@@ -254,6 +336,157 @@ public class SVMModel implements java.io.Serializable
         return nrClass;
     }
 
+    /**
+     * @return support vectors as {@link SVMNode}s, the view is created from the {@link FeatureMatrix} on first call.
+     */
+    public SVMNode[][] getSV()
+    {
+        if (SV == null && svMatrix != null)
+            SV = svMatrix.toNodes();
+        return SV;
+    }
+
+    /**
+     * @return counters of the work done by the training of this model, null for a model loaded from a file.
+     */
+    public TrainingStats getTrainingStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Set the support vectors as {@link SVMNode} rows, the first {@link #l} rows are the support vectors. The nodes
+     * are copied into a {@link FeatureMatrix} when the model is used.
+     *
+     * @param SV rows of nodes in ascending feature index
+     */
+    public void setSV(SVMNode[][] SV)
+    {
+        this.SV = SV;
+        svMatrix = null;
+        svSource = null;
+        svSquare = null;
+        scatterStride = -1;
+    }
+
+    /**
+     * @return support vectors stored in a {@link FeatureMatrix}. For models assembled by
+     * {@link #setSV(SVMNode[][])}, it is built from the nodes on first call, and again if {@link #l} changes.
+     */
+    public FeatureMatrix getSVMatrix()
+    {
+        if (SV != null && (svMatrix == null || (svSource == SV && svMatrix.rows() != l))) {
+            svMatrix = CSRMatrix.of(SV, l);
+            svSource = SV;
+            svSquare = null;
+            scatterStride = -1;
+        }
+        return svMatrix;
+    }
+
+    /**
+     * @return kernel function of the parameter, chosen once so that a prediction calls it once for all support
+     * vectors, null for {@link KernelType#PRECOMPUTED}. See {@link Kernels#of(SVMParameter, boolean)}.
+     */
+    KernelFunction getKernel()
+    {
+        KernelFunction function = kernel;
+        if (function == null && param.kernelType != PRECOMPUTED) {
+            function = Kernels.of(param, param.fastMath);
+            kernel = function;
+        }
+        return function;
+    }
+
+    /**
+     * @return squared euclidean norms of the support vectors, used by the RBF kernel in prediction. They are computed
+     * when a model is trained or loaded, and again after the storage of the support vectors changes.
+     */
+    double[] getSVSquare()
+    {
+        double[] square = svSquare;
+        if (square == null) {
+            FeatureMatrix sv = getSVMatrix();
+            if (sv == null)
+                return null;
+            square = new double[l];
+            for (int i = 0; i < l; i++)
+                square[i] = sv.dot(i, i);
+            svSquare = square;
+        }
+        return square;
+    }
+
+    /**
+     * @return size of the dense scratch a data point is scattered into in prediction, so the dot products with the
+     * support vectors are gathers, or 0 if they merge the indices, see
+     * {@link KernelValues#scatterStride(FeatureMatrix)}.
+     */
+    int getScatterStride()
+    {
+        int stride = scatterStride;
+        if (stride < 0) {
+            FeatureMatrix sv = getSVMatrix();
+            stride = sv == null || param.kernelType == PRECOMPUTED ? 0 : KernelValues.scatterStride(sv);
+            scatterStride = stride;
+        }
+        return stride;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        scatterStride = -1;
+    }
+
+    /**
+     * Switch the storage of support vectors to single precision, which halves the memory of their values.
+     */
+    public void useFloatStorage()
+    {
+        FeatureMatrix sv = getSVMatrix();
+        if (sv != null && !(sv instanceof FloatCSRMatrix)) {
+            svMatrix = FloatCSRMatrix.copyOf(sv);
+            SV = null;
+            svSquare = null;
+            scatterStride = -1;
+        }
+    }
+
+    /**
+     * Change the storage layout of support vectors, such as {@link FeatureLayout#VARINT} for models with many sparse
+     * support vectors.
+     *
+     * @param layout storage layout
+     */
+    public void setLayout(FeatureLayout layout)
+    {
+        FeatureMatrix sv = getSVMatrix();
+        if (sv != null) {
+            svMatrix = layout.apply(sv);
+            svSquare = null;
+            scatterStride = -1;
+        }
+    }
+
+    /**
+     * @return true if this model was trained on a Nystroem approximation of the kernel, its support vectors are the
+     * landmarks and every decision function weighs all of them, see {@link SVMParameter#setLandmarks(int)}.
+     */
+    public boolean isLandmarkModel()
+    {
+        return landmarkCoef != null;
+    }
+
+    /**
+     * @return true if this model was trained on random Fourier features of the RBF kernel, it has no support vectors
+     * but the weights of the features, see {@link SVMParameter#setFourierFeatures(int)}.
+     */
+    public boolean isFourierModel()
+    {
+        return fourierFeatures != null;
+    }
+
     /**
      * @return the indices of support vectors.
      */
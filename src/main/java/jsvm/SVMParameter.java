@@ -3,6 +3,7 @@ package jsvm;
 import com.beust.jcommander.Parameter;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import static jsvm.KernelType.RBF;
 import static jsvm.SVMType.C_SVC;
@@ -32,6 +33,9 @@ public class SVMParameter implements Cloneable, java.io.Serializable
     // these are for training only
     @Parameter(names = "-m", description = "cache memory size in MB")
     double cacheSize = 100; // in MB
+
+    @Parameter(names = "-offheap", description = "keep the kernel cache in direct memory outside the Java heap")
+    boolean offHeapCache = false;
     /**
      * tolerance of termination criterion (default 0.001)
      */
@@ -59,6 +63,38 @@ public class SVMParameter implements Cloneable, java.io.Serializable
     @Parameter(names = "-b", description = "whether to train a SVC or SVR model for probability estimates")
     boolean probability = false;
 
+    @Parameter(names = "-fastmath", description = "approximate exp and tanh in the RBF and sigmoid kernels")
+    boolean fastMath = false;
+
+    @Parameter(names = "-landmarks", description = "train a linear model on a Nystroem approximation of the kernel "
+            + "with this many landmarks, 0 for the exact kernel")
+    int landmarks = 0;
+
+    @Parameter(names = "-landmark-selection", description = "choice of the landmarks, UNIFORM or KMEANS")
+    LandmarkSelection landmarkSelection = LandmarkSelection.UNIFORM;
+
+    @Parameter(names = "-fourier", description = "train a linear model on this many random Fourier features of the "
+            + "RBF kernel, 0 for the exact kernel")
+    int fourierFeatures = 0;
+
+    /**
+     * custom kernel replacing the kernel type, null for the built-in kernels
+     */
+    KernelFunction kernelFunction;
+
+    /**
+     * pool filling the kernel columns in parallel, null to fill them on the solver thread
+     */
+    transient ForkJoinPool pool;
+    /**
+     * kernel columns with fewer values to compute stay on the solver thread
+     */
+    int parallelThreshold = 1 << 14;
+    /**
+     * counters of the running training, set by SVM.train on its copy of the parameter
+     */
+    transient TrainingStats stats;
+
     public SVMParameter(SVMParameter parameter)
     {
         this.svmType = parameter.svmType;
@@ -67,15 +103,25 @@ public class SVMParameter implements Cloneable, java.io.Serializable
         this.gamma = parameter.gamma;
         this.coef0 = parameter.coef0;
         this.cacheSize = parameter.cacheSize;
+        this.offHeapCache = parameter.offHeapCache;
         this.eps = parameter.eps;
         this.C = parameter.C;
         this.nrWeight = parameter.nrWeight;
-        this.weightLabel = Arrays.copyOf(parameter.weightLabel, parameter.weightLabel.length);
-        this.weight = Arrays.copyOf(parameter.weight, parameter.weight.length);
+        this.weightLabel = parameter.weightLabel == null ? null :
+                Arrays.copyOf(parameter.weightLabel, parameter.weightLabel.length);
+        this.weight = parameter.weight == null ? null : Arrays.copyOf(parameter.weight, parameter.weight.length);
         this.nu = parameter.nu;
         this.p = parameter.p;
         this.shrinking = parameter.shrinking;
         this.probability = parameter.probability;
+        this.fastMath = parameter.fastMath;
+        this.landmarks = parameter.landmarks;
+        this.landmarkSelection = parameter.landmarkSelection;
+        this.fourierFeatures = parameter.fourierFeatures;
+        this.kernelFunction = parameter.kernelFunction;
+        this.pool = parameter.pool;
+        this.parallelThreshold = parameter.parallelThreshold;
+        this.stats = parameter.stats;
     }
 
     public SVMParameter()
@@ -121,6 +167,26 @@ public class SVMParameter implements Cloneable, java.io.Serializable
         this.kernelType = kernelType;
     }
 
+    /**
+     * @return the custom kernel function, null if the kernel type is used.
+     */
+    public KernelFunction getKernelFunction()
+    {
+        return kernelFunction;
+    }
+
+    /**
+     * Use a custom kernel instead of the kernel type, it is evaluated in batches of dot products like the built-in
+     * kernels, see {@link KernelFunction}. The degree, gamma, coef0 and fast math settings do not apply to it, and
+     * it can not be combined with {@link KernelType#PRECOMPUTED} or random Fourier features.
+     *
+     * @param kernelFunction the kernel, null for the kernel type
+     */
+    public void setKernelFunction(KernelFunction kernelFunction)
+    {
+        this.kernelFunction = kernelFunction;
+    }
+
     /**
      * @return the degree.
      */
@@ -254,6 +320,145 @@ public class SVMParameter implements Cloneable, java.io.Serializable
         this.weight = weight;
     }
 
+    /**
+     * @return true if the kernel cache is kept in direct memory.
+     */
+    public boolean isOffHeapCache()
+    {
+        return offHeapCache;
+    }
+
+    /**
+     * Keep the kernel cache in direct memory outside the Java heap, so a cache of many GB does not grow the heap or
+     * the GC pauses. The cache still holds at most {@link #getCacheSize()} MB, but the direct memory is limited by
+     * -XX:MaxDirectMemorySize, which defaults to the maximum heap size; if it runs out the cache stays at the columns
+     * it holds. The whole kernel matrix is then never kept on the heap, even if it fits in the cache size.
+     *
+     * @param offHeapCache true to use direct memory
+     */
+    public void setOffHeapCache(boolean offHeapCache)
+    {
+        this.offHeapCache = offHeapCache;
+    }
+
+    /**
+     * @return true if the RBF and sigmoid kernels approximate exp and tanh.
+     */
+    public boolean isFastMath()
+    {
+        return fastMath;
+    }
+
+    /**
+     * Approximate exp and tanh in the RBF and sigmoid kernels, see {@link FastMath} for the error bounds. The
+     * approximations are far more precise than the float kernel cache, models usually come out identical.
+     *
+     * @param fastMath true to approximate
+     */
+    public void setFastMath(boolean fastMath)
+    {
+        this.fastMath = fastMath;
+    }
+
+    /**
+     * @return number of landmarks of the Nystroem approximation, 0 if the exact kernel is used.
+     */
+    public int getLandmarks()
+    {
+        return landmarks;
+    }
+
+    /**
+     * Train on a Nystroem approximation of the kernel instead of the exact kernel, for problems too large for the
+     * O(l^2) kernel matrix. The kernel values between the training points and the landmarks are mapped to features
+     * of at most this dimension, a linear C-SVC is trained on them, and the model keeps the landmarks as its support
+     * vectors, so a prediction costs this many kernel evaluations. Only {@link SVMType#C_SVC} is supported.
+     *
+     * @param landmarks number of landmarks, 0 for the exact kernel
+     */
+    public void setLandmarks(int landmarks)
+    {
+        this.landmarks = landmarks;
+    }
+
+    /**
+     * @return how the landmarks are chosen.
+     */
+    public LandmarkSelection getLandmarkSelection()
+    {
+        return landmarkSelection;
+    }
+
+    /**
+     * setter of the {@link LandmarkSelection}, uniform by default.
+     *
+     * @param landmarkSelection {@link LandmarkSelection}
+     */
+    public void setLandmarkSelection(LandmarkSelection landmarkSelection)
+    {
+        this.landmarkSelection = landmarkSelection;
+    }
+
+    /**
+     * @return number of random Fourier features of the RBF kernel, 0 if the exact kernel is used.
+     */
+    public int getFourierFeatures()
+    {
+        return fourierFeatures;
+    }
+
+    /**
+     * Train on random Fourier features of the RBF kernel with the gamma of this parameter instead of the exact kernel.
+     * A linear C-SVC is trained on the features in time linear in l, and a prediction maps the data point and takes
+     * one dense dot product per decision function. Only {@link SVMType#C_SVC} with {@link KernelType#RBF} is
+     * supported.
+     *
+     * @param fourierFeatures dimension of the features, 0 for the exact kernel
+     */
+    public void setFourierFeatures(int fourierFeatures)
+    {
+        this.fourierFeatures = fourierFeatures;
+    }
+
+    /**
+     * @return pool filling the kernel columns, null if they are filled on the solver thread.
+     */
+    public ForkJoinPool getPool()
+    {
+        return pool;
+    }
+
+    /**
+     * Fill the kernel columns missing from the cache in parallel. The rows of a column are split among the tasks and
+     * every kernel value is computed the same way as on one thread, so the model is identical. Training with
+     * landmarks or random Fourier features and precomputing a kernel matrix that fits in the cache also run on this
+     * pool, or on the common pool if it is not set.
+     *
+     * @param pool the pool, null to fill the columns on the solver thread
+     */
+    public void setPool(ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * @return the smallest number of kernel values of a column filled in parallel.
+     */
+    public int getParallelThreshold()
+    {
+        return parallelThreshold;
+    }
+
+    /**
+     * setter of the parallel threshold, kernel columns with fewer values to compute stay on the solver thread.
+     *
+     * @param parallelThreshold number of kernel values
+     */
+    public void setParallelThreshold(int parallelThreshold)
+    {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     public Object clone()
     {
         try {
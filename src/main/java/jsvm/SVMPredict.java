@@ -2,9 +2,7 @@ package jsvm;
 
 
 import java.io.*;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.StringTokenizer;
 
 import static jsvm.SVMType.*;
 
@@ -24,11 +22,6 @@ public class SVMPredict
         svm_print_string.print(s);
     }
 
-    private static double atof(String s)
-    {
-        return Double.parseDouble(s);
-    }
-
     private static void exit_with_help()
     {
         System.err.print("usage: SVMPredict [options] test_file model_file output_file\n"
@@ -64,12 +57,33 @@ public class SVMPredict
         predict(testFile, modelFile, outFile, predictProbability);
     }
 
+    /**
+     * Predict
+     *
+     * @param testFile           the data file, in LIBSVM text format or {@link BinaryDataset} format, the feature ids
+     *                           are hashed if the model is trained with {@link FeatureHashing}
+     * @param modelFile          the model file
+     * @param outFile            the output file
+     * @param predictProbability true if predict probability.
+     * @throws IOException for data file IO exception.
+     */
     public static void predict(String testFile, String modelFile, String outFile, boolean predictProbability) throws IOException
     {
-        double error = 0;
-        double sump = 0, sumt = 0, sumpp = 0, sumtt = 0, sumpt = 0;
-
         SVMModel model = new SVMModel(modelFile);
+        predict(DataSource.of(Paths.get(testFile), model.getFeatureHashing()), model, outFile, predictProbability);
+    }
+
+    /**
+     * Predict the rows of a {@link DataSource} in one pass, only one row is held in memory at a time.
+     *
+     * @param data               the data to predict
+     * @param model              the model
+     * @param outFile            the output file
+     * @param predictProbability true if predict probability.
+     * @throws IOException for data file IO exception.
+     */
+    public static void predict(DataSource data, SVMModel model, String outFile, boolean predictProbability) throws IOException
+    {
         if (predictProbability) {
             if (!model.isSupportProbability()) {
                 throw new IllegalArgumentException("Model does not support probability estimates");
@@ -83,7 +97,6 @@ public class SVMPredict
         SVMType svmType = model.getSVMType();
         int nrClass = model.getNrClass();
 
-        BufferedReader reader = Files.newBufferedReader(Paths.get(testFile));
         DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outFile)));
         double[] probEstimates = null;
         if (predictProbability) {
@@ -98,35 +111,52 @@ public class SVMPredict
                 output.writeBytes("\n");
             }
         }
+        boolean probabilityOutput = predictProbability && (svmType == C_SVC || svmType == NU_SVC);
+
+        Statistics statistics = new Statistics();
+        try (DataSource.Cursor cursor = data.open()) {
+            int[] rowPtr = new int[2];
+            while (cursor.next()) {
+                // one-row matrix over the reused arrays of the cursor
+                rowPtr[1] = cursor.length();
+                CSRMatrix x = new CSRMatrix(rowPtr, cursor.indices(), cursor.values());
+
+                double predict_label;
+                if (probabilityOutput) {
+                    predict_label = SVM.predictProbability(model, x, 0, probEstimates);
+                    writeProbability(output, predict_label, probEstimates);
+                } else {
+                    predict_label = SVM.predict(model, x, 0);
+                    output.writeBytes(predict_label + "\n");
+                }
+                statistics.add(predict_label, cursor.label());
+            }
+        }
 
-        int correct = 0;
-        int total = 0;
-        String line;
-        while ((line = reader.readLine()) != null) {
-
-            StringTokenizer st = new StringTokenizer(line, " \t\n\r\f:");
+        statistics.report(svmType);
+        output.close();
+    }
 
-            double target_label = atof(st.nextToken());
-            int m = st.countTokens() / 2;
-            SVMNode[] x = new SVMNode[m];
-            for (int j = 0; j < m; j++) {
-                x[j] = new SVMNode();
-                x[j].index = Integer.parseInt(st.nextToken());
-                x[j].value = atof(st.nextToken());
-            }
+    private static void writeProbability(DataOutputStream output, double predict_label, double[] probEstimates) throws IOException
+    {
+        output.writeBytes(predict_label + " ");
+        for (double probEstimate : probEstimates)
+            output.writeBytes(probEstimate + " ");
+        output.writeBytes("\n");
+    }
 
-            double predict_label;
-            if (predictProbability && (svmType == C_SVC || svmType == NU_SVC)) {
-                predict_label = SVM.predictProbability(model, x, probEstimates);
-                output.writeBytes(predict_label + " ");
-                for (int j = 0; j < nrClass; j++)
-                    output.writeBytes(probEstimates[j] + " ");
-                output.writeBytes("\n");
-            } else {
-                predict_label = SVM.predict(model, x);
-                output.writeBytes(predict_label + "\n");
-            }
+    /**
+     * Accuracy and regression statistics of the predictions.
+     */
+    private static class Statistics
+    {
+        private int correct = 0;
+        private int total = 0;
+        private double error = 0;
+        private double sump = 0, sumt = 0, sumpp = 0, sumtt = 0, sumpt = 0;
 
+        void add(double predict_label, double target_label)
+        {
             if (predict_label == target_label)
                 ++correct;
             error += (predict_label - target_label) * (predict_label - target_label);
@@ -138,18 +168,18 @@ public class SVMPredict
             ++total;
         }
 
-        if (svmType == EPSILON_SVR || svmType == NU_SVR) {
-            info("Mean squared error = " + error / total + " (regression)\n");
-            info("Squared correlation coefficient = " +
-                    ((total * sumpt - sump * sumt) * (total * sumpt - sump * sumt)) /
-                            ((total * sumpp - sump * sump) * (total * sumtt - sumt * sumt)) +
-                    " (regression)\n");
-        } else
-            info("Accuracy = " + (double) correct / total * 100 +
-                    "% (" + correct + "/" + total + ") (classification)\n");
-
-        reader.close();
-        output.close();
+        void report(SVMType svmType)
+        {
+            if (svmType == EPSILON_SVR || svmType == NU_SVR) {
+                info("Mean squared error = " + error / total + " (regression)\n");
+                info("Squared correlation coefficient = " +
+                        ((total * sumpt - sump * sumt) * (total * sumpt - sump * sumt)) /
+                                ((total * sumpp - sump * sump) * (total * sumtt - sumt * sumt)) +
+                        " (regression)\n");
+            } else
+                info("Accuracy = " + (double) correct / total * 100 +
+                        "% (" + correct + "/" + total + ") (classification)\n");
+        }
     }
 
     public static void main(String[] argv)
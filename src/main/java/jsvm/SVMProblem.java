@@ -1,13 +1,13 @@
 package jsvm;
 
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Objects.requireNonNull;
 
@@ -24,12 +24,46 @@ public class SVMProblem implements java.io.Serializable
 
     public int l;
     public double[] y;
-    public SVMNode[][] x;
+    /**
+     * {@link SVMNode} view of the dataset, kept for compatibility. Datasets loaded from file are stored in a
+     * {@link FeatureMatrix} and this view is only created by {@link #getX()}.
+     */
+    private SVMNode[][] x;
+    private transient FeatureMatrix matrix;    // serialized by writeObject
+    private SVMNode[][] source;    // x the matrix was built from, null if x is a view of the matrix
     private int maxIndex;
     private int size;
+    private FeatureHashing featureHashing;
 
     public SVMProblem() { }
 
+    /**
+     * Construct with labels and the feature matrix.
+     *
+     * @param y      labels
+     * @param matrix {@link FeatureMatrix} with one row per label
+     */
+    public SVMProblem(double[] y, FeatureMatrix matrix)
+    {
+        requireNonNull(y);
+        requireNonNull(matrix);
+        if (y.length != matrix.rows()) {
+            throw new IllegalArgumentException("number of labels " + y.length + " and rows " + matrix.rows() + " differ");
+        }
+        init(y, matrix);
+    }
+
+    private void init(double[] y, FeatureMatrix matrix)
+    {
+        this.l = y.length;
+        this.y = y;
+        this.matrix = matrix;
+        this.maxIndex = matrix.getMaxIndex();
+        this.size = 0;
+        for (int i = 0; i < l; i++)
+            size += matrix.length(i);
+    }
+
     public static void main(String[] args)
     {
         Path path = Paths.get("D:\\data\\datasets\\train.2");
@@ -38,58 +72,211 @@ public class SVMProblem implements java.io.Serializable
     }
 
     /**
-     * Construct with a file
+     * Construct with a file, either in LIBSVM text format, in {@link BinaryDataset} format or a binary
+     * {@link KernelMatrix} for {@link KernelType#PRECOMPUTED}. Binary files are memory mapped instead of being parsed,
+     * text files are parsed in parallel by {@link ParallelTextLoader} and may be gzip compressed. Text files are stored
+     * densely if they have few zeros, see {@link FeatureLayout#AUTO}.
      *
      * @param path {@link Path} of the file.
      */
     public SVMProblem(Path path)
+    {
+        this(path, FeatureLayout.AUTO);
+    }
+
+    /**
+     * Construct with a file in the given layout. In {@link FeatureLayout#AUTO} mode, memory mapped binary files stay
+     * sparse and mapped, as they may be larger than the heap. In {@link FeatureLayout#OFF_HEAP} mode, text files are
+     * streamed into direct buffers and never held in the heap.
+     *
+     * @param path   {@link Path} of the file.
+     * @param layout storage layout of the features
+     */
+    public SVMProblem(Path path, FeatureLayout layout)
+    {
+        this(path, layout, false);
+    }
+
+    /**
+     * Construct with a file in the given layout, optionally through a binary sidecar file. With a sidecar, a text file
+     * is parsed only at the first load, later loads map the sidecar written next to it, see
+     * {@link BinaryDataset#cached(Path)}.
+     *
+     * @param path    {@link Path} of the file.
+     * @param layout  storage layout of the features
+     * @param sidecar true to cache text files in a binary sidecar file
+     */
+    public SVMProblem(Path path, FeatureLayout layout, boolean sidecar)
     {
         requireNonNull(path);
+        requireNonNull(layout);
         if (Files.notExists(path)) {
             throw new IllegalArgumentException(path + " is not exist!");
         }
 
-        List<Double> vy = new ArrayList<>();
-        List<SVMNode[]> vx = new ArrayList<>();
-        maxIndex = 0;
-        try (BufferedReader reader = Files.newBufferedReader(path)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-
-                StringTokenizer st = new StringTokenizer(line, SPLITTER);
-                vy.add(Double.parseDouble(st.nextToken()));
-
-                int m = st.countTokens() / 2;
-                size += m;
-                SVMNode[] x = new SVMNode[m];
-                for (int j = 0; j < m; j++) {
-                    x[j] = new SVMNode(Integer.parseInt(st.nextToken()), Double.parseDouble(st.nextToken()));
-                }
-                if (m > 0) {
-                    maxIndex = Math.max(maxIndex, x[m - 1].index);
-                }
-                vx.add(x);
+        try {
+            if (BinaryDataset.isBinary(path)) {
+                SVMProblem problem = BinaryDataset.open(path);
+                init(problem.y, problem.matrix);
+                if (layout != FeatureLayout.AUTO)
+                    setLayout(layout);
+            } else if (KernelMatrix.isKernelMatrix(path)) {
+                // the layout does not apply to kernel values
+                SVMProblem problem = KernelMatrix.open(path);
+                init(problem.y, problem.matrix);
+            } else {
+                SVMProblem problem;
+                if (sidecar)
+                    problem = BinaryDataset.cached(path);
+                else if (layout == FeatureLayout.OFF_HEAP)
+                    problem = offHeap(DataSource.of(path));
+                else
+                    problem = ParallelTextLoader.load(path);
+                init(problem.y, problem.matrix);
+                setLayout(layout);
             }
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Construct with a LIBSVM text file whose feature ids are hashed while parsing, so the memory is bounded by the
+     * number of buckets whatever the largest id is. A model trained on this problem records the hashing.
+     *
+     * @param path    {@link Path} of the text file, may be gzip compressed
+     * @param hashing hashing of the feature ids
+     */
+    public SVMProblem(Path path, FeatureHashing hashing)
+    {
+        requireNonNull(path);
+        requireNonNull(hashing);
+        if (Files.notExists(path)) {
+            throw new IllegalArgumentException(path + " is not exist!");
+        }
+
+        try {
+            if (BinaryDataset.isBinary(path))
+                throw new IllegalArgumentException(path + " is a binary dataset, its features can not be hashed");
+            SVMProblem problem = ParallelTextLoader.load(path, ForkJoinPool.commonPool(), hashing);
+            init(problem.y, problem.matrix);
+            this.featureHashing = hashing;
+            setLayout(FeatureLayout.AUTO);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return hashing of the feature ids, null if the features are not hashed.
+     */
+    public FeatureHashing getFeatureHashing()
+    {
+        return featureHashing;
+    }
+
+    /**
+     * Read the rows of a {@link DataSource} into direct buffers outside of the Java heap, only the labels are held in
+     * the heap. The source is read twice, the first pass counts rows and nodes, the second pass copies them.
+     *
+     * @param source the dataset
+     * @return {@link SVMProblem} in {@link FeatureLayout#OFF_HEAP} layout.
+     */
+    public static SVMProblem offHeap(DataSource source) throws IOException
+    {
+        long rows = 0;
+        long nnz = 0;
+        try (DataSource.Cursor cursor = source.open()) {
+            while (cursor.next()) {
+                nnz += cursor.length();
+                rows++;
+            }
         }
 
-        this.l = vy.size();
-        this.x = new SVMNode[l][];
-        for (int i = 0; i < l; i++) {
-            x[i] = vx.get(i);
+        BufferCSRMatrix.DirectBuilder builder = new BufferCSRMatrix.DirectBuilder(rows, nnz);
+        double[] y = new double[(int) rows];
+        int i = 0;
+        try (DataSource.Cursor cursor = source.open()) {
+            while (cursor.next()) {
+                int n = cursor.length();
+                builder.startRow(n);
+                y[i++] = cursor.label();
+                int[] indices = cursor.indices();
+                double[] values = cursor.values();
+                for (int k = 0; k < n; k++)
+                    builder.add(indices[k], values[k]);
+            }
         }
-        y = new double[l];
-        for (int i = 0; i < l; i++) {
-            y[i] = vy.get(i);
+        return new SVMProblem(y, builder.build());
+    }
+
+    /**
+     * Change the storage layout of the features, the kernel computes the same values in all layouts. Precomputed
+     * kernel data, which has feature index 0, always stays sparse in {@link FeatureLayout#AUTO} mode.
+     *
+     * @param layout storage layout
+     */
+    public void setLayout(FeatureLayout layout)
+    {
+        this.matrix = layout.apply(getMatrix());
+    }
+
+    /**
+     * @return true if the features are stored in {@link DenseMatrix}.
+     */
+    public boolean isDense()
+    {
+        return getMatrix() instanceof DenseMatrix;
+    }
+
+    /**
+     * Create a problem of selected rows, the feature data is shared with this problem.
+     *
+     * @param rows positions of the selected rows
+     * @param y    labels of the selected rows
+     */
+    SVMProblem select(int[] rows, double[] y)
+    {
+        SVMProblem problem = new SVMProblem();
+        problem.l = rows.length;
+        problem.y = y;
+        problem.matrix = getMatrix().select(rows);
+        problem.maxIndex = maxIndex;
+        problem.featureHashing = featureHashing;
+        for (int i = 0; i < problem.l; i++)
+            problem.size += problem.matrix.length(i);
+        return problem;
+    }
+
+    /**
+     * Switch the feature storage to single precision, which halves the memory of the feature values. The kernel still
+     * computes in double, models trained on this problem store their support vectors in single precision too. The
+     * single precision storage is sparse.
+     */
+    public void useFloatStorage()
+    {
+        setLayout(FeatureLayout.SPARSE);
+        FeatureMatrix matrix = getMatrix();
+        if (!(matrix instanceof FloatCSRMatrix)) {
+            this.matrix = FloatCSRMatrix.copyOf(matrix);
+            this.x = null;
         }
     }
 
+    /**
+     * @return true if the feature values are stored in single precision.
+     */
+    public boolean isFloatStorage()
+    {
+        return getMatrix() instanceof FloatCSRMatrix;
+    }
+
     /**
      * @return number of points in this dataset.
      */
     public int size()
     {
+        getMatrix();
         return size;
     }
 
@@ -98,13 +285,68 @@ public class SVMProblem implements java.io.Serializable
         return y;
     }
 
+    /**
+     * @return {@link SVMNode} view of the dataset, it is created from the {@link FeatureMatrix} on first call.
+     */
     public SVMNode[][] getX()
     {
+        if (x == null && matrix != null)
+            x = matrix.toNodes();
         return x;
     }
 
+    /**
+     * Set the features as {@link SVMNode} rows, the first {@link #l} rows are the dataset. The nodes are copied into
+     * a {@link FeatureMatrix} when the problem is used.
+     *
+     * @param x rows of nodes in ascending feature index
+     */
+    public void setX(SVMNode[][] x)
+    {
+        this.x = x;
+        this.matrix = null;
+        this.source = null;
+    }
+
+    /**
+     * @return the {@link FeatureMatrix} of the dataset. For problems assembled by {@link #setX(SVMNode[][])}, it is
+     * built from the nodes on first call, and again if {@link #l} changes.
+     */
+    public FeatureMatrix getMatrix()
+    {
+        if (x != null && (matrix == null || (source == x && matrix.rows() != l))) {
+            matrix = CSRMatrix.of(x, l);
+            source = x;
+            maxIndex = matrix.getMaxIndex();
+            size = 0;
+            for (int i = 0; i < l; i++)
+                size += matrix.length(i);
+        }
+        return matrix;
+    }
+
+    /**
+     * Write the fields and the matrix. Matrices outside of the heap, such as memory-mapped datasets and binary kernel
+     * matrices, and row subsets of them, are written as a {@link CSRMatrix} copy.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+        FeatureMatrix stored = matrix;
+        if (stored != null && (!(stored instanceof java.io.Serializable) || stored instanceof RowSubset))
+            stored = CSRMatrix.copyOf(stored);
+        out.writeObject(stored);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        matrix = (FeatureMatrix) in.readObject();
+    }
+
     public int getMaxIndex()
     {
+        getMatrix();
         return maxIndex;
     }
 }
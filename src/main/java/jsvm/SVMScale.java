@@ -9,7 +9,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.Arrays;
 import java.util.Formatter;
 
 /**
@@ -48,8 +47,18 @@ public class SVMScale
     @Parameter(names = "-r", description = "restore scaling parameters file")
     private String restoreParameterFile;
 
-    private double[] featureMax;
-    private double[] featureMin;
+    @Parameter(names = "-hash", description = "hash the feature ids into the given number of buckets")
+    private int hashBuckets = 0;
+
+    /**
+     * the data to scale, read in three passes, only one row is held in memory
+     */
+    private DataSource data;
+
+    /**
+     * min and max of the features, kept sparse so that the memory does not depend on the largest feature index
+     */
+    private FeatureRange range;
     /**
      * maximum y-value of the data
      */
@@ -112,26 +121,35 @@ public class SVMScale
         this.yUpper = y_upper;
     }
 
+    /**
+     * Hash the feature ids of data files, see {@link FeatureHashing}. The scaled data has the hashed indices.
+     *
+     * @param buckets number of buckets, 0 to use the feature ids as indices
+     */
+    public void setHashBuckets(int buckets)
+    {
+        this.hashBuckets = buckets;
+    }
+
+    private DataSource source(String file)
+    {
+        return DataSource.of(Paths.get(file), hashBuckets > 0 ? new FeatureHashing(hashBuckets) : null);
+    }
+
     /**
      * find the max index and number of points in the dataset.
      */
     private void updateMaxIndex()
     {
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(dataFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.trim().split(SVMProblem.SPLITTER);
-                for (int i = 1; i < values.length; i++) {
-                    String value = values[i];
-                    if (value.trim().isEmpty()) {
-                        continue;
-                    }
-                    int index = Integer.parseInt(values[i]);
-                    if (index > maxIndex)
-                        maxIndex = index;
-                    numNonzeros++;
-                    i++;
+        try (DataSource.Cursor cursor = data.open()) {
+            while (cursor.next()) {
+                int[] indices = cursor.indices();
+                int n = cursor.length();
+                for (int k = 0; k < n; k++) {
+                    if (indices[k] > maxIndex)
+                        maxIndex = indices[k];
                 }
+                numNonzeros += n;
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -166,36 +184,19 @@ public class SVMScale
 
     private void updateLimit()
     {
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(dataFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.trim().split(SVMProblem.SPLITTER);
-
-                double target = Double.parseDouble(values[0]);
+        try (DataSource.Cursor cursor = data.open()) {
+            while (cursor.next()) {
+                double target = cursor.label();
                 yMax = Math.max(yMax, target);
                 yMin = Math.min(yMin, target);
 
-                int nextIndex = 1;
-                for (int i = 1; i < values.length; i++) {
-                    if (values[i].trim().isEmpty())
-                        continue;
-
-                    int index = Integer.parseInt(values[i]);
-                    double value = Double.parseDouble(values[i + 1]);
-
-                    for (int j = nextIndex; j < index; j++) {
-                        featureMin[j] = Math.min(featureMin[j], 0);
-                        featureMax[j] = Math.max(featureMax[j], 0);
-                    }
-                    featureMax[index] = Math.max(featureMax[index], value);
-                    featureMin[index] = Math.min(featureMin[index], value);
-                    nextIndex = index + 1;
-                    i++;
-                }
-                for (int j = nextIndex; j <= maxIndex; j++) {
-                    featureMax[j] = Math.max(featureMax[j], 0);
-                    featureMin[j] = Math.min(featureMin[j], 0);
-                }
+                // absent features are zeros, FeatureRange accounts for them by the number of rows
+                range.addRow();
+                int[] indices = cursor.indices();
+                double[] values = cursor.values();
+                int n = cursor.length();
+                for (int k = 0; k < n; k++)
+                    range.add(indices[k], values[k]);
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -237,10 +238,8 @@ public class SVMScale
                     int index = Integer.parseInt(values[0]);
                     double min = Double.parseDouble(values[1]);
                     double max = Double.parseDouble(values[2]);
-                    if (index <= maxIndex) {
-                        featureMin[index] = min;
-                        featureMax[index] = max;
-                    }
+                    if (index <= maxIndex)
+                        range.set(index, min, max);
                 }
             }
         } catch (IOException e) {
@@ -260,9 +259,10 @@ public class SVMScale
             }
             formatter.format("x\n");
             formatter.format("%.16g %.16g\n", xLower, xUpper);
-            for (int i = 1; i <= maxIndex; i++) {
-                if (featureMin[i] != featureMax[i]) {
-                    formatter.format("%d %.16g %.16g\n", i, featureMin[i], featureMax[i]);
+            for (int i : range.indices()) {
+                int slot = range.slot(i);
+                if (i >= 1 && range.minAt(slot) != range.maxAt(slot)) {
+                    formatter.format("%d %.16g %.16g\n", i, range.minAt(slot), range.maxAt(slot));
                 }
             }
             writer.write(formatter.toString());
@@ -273,6 +273,7 @@ public class SVMScale
 
     public void scale()
     {
+        data = source(dataFile);
         if (!(xUpper > xLower) || (y_scaling && !(yUpper > yLower))) {
             throw new IllegalArgumentException("Inconsistent lower/upper specification");
         }
@@ -289,16 +290,7 @@ public class SVMScale
         }
 
         updateMaxIndex();
-        try {
-            featureMax = new double[maxIndex + 1];
-            featureMin = new double[maxIndex + 1];
-        } catch (OutOfMemoryError e) {
-            System.err.println("can't allocate enough memory");
-            System.exit(1);
-        }
-
-        Arrays.fill(featureMax, -Double.MAX_VALUE);
-        Arrays.fill(featureMin, Double.MAX_VALUE);
+        range = new FeatureRange();
         updateLimit();
 
         /* pass 2.5: save/restore feature_min/feature_max */
@@ -311,7 +303,7 @@ public class SVMScale
         }
 
         /* pass 3: scale */
-        scale(dataFile, outFile);
+        scale(outFile);
 
         if (new_num_nonzeros > numNonzeros)
             System.err.print("WARNING: original #nonzeros " + numNonzeros + "\n"
@@ -319,29 +311,26 @@ public class SVMScale
                     + "Use -l 0 if many original feature values are zeros\n");
     }
 
-    private void scale(String file, String targetFile)
+    private void scale(String targetFile)
     {
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(file));
+        try (DataSource.Cursor cursor = data.open();
              PrintWriter writer = new PrintWriter(targetFile)) {
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.trim().split(SVMProblem.SPLITTER);
-                double target = Double.parseDouble(values[0]);
-                writer.print(getTarget(target) + " ");
-
-                for (int i = 1; i < values.length; i++) {
-                    if (values[i].trim().isEmpty())
+            while (cursor.next()) {
+                writer.print(getTarget(cursor.label()) + " ");
+
+                int[] indices = cursor.indices();
+                double[] values = cursor.values();
+                int n = cursor.length();
+                for (int k = 0; k < n; k++) {
+                    int index = indices[k];
+                    int slot = range.slot(index);
+                    double min = range.minAt(slot);
+                    double max = range.maxAt(slot);
+                    if (min == max)
                         continue;
 
-                    int index = Integer.parseInt(values[i]);
-                    double value = Double.parseDouble(values[i + 1]);
-                    i++;
-
-                    if (featureMin[index] == featureMax[index])
-                        continue;
-
-                    double val = getValue(index, value);
+                    double val = getValue(min, max, values[k]);
                     writer.print(index + ":" + val + " ");
                 }
                 writer.println();
@@ -364,15 +353,15 @@ public class SVMScale
         return value;
     }
 
-    private double getValue(int index, double value)
+    private double getValue(double min, double max, double value)
     {
         double rValue;
-        if (value == featureMin[index])
+        if (value == min)
             rValue = xLower;
-        else if (value == featureMax[index])
+        else if (value == max)
             rValue = xUpper;
         else
-            rValue = xLower + (xUpper - xLower) * (value - featureMin[index]) / (featureMax[index] - featureMin[index]);
+            rValue = xLower + (xUpper - xLower) * (value - min) / (max - min);
 
         if (rValue != 0) {
             new_num_nonzeros++;
@@ -391,6 +380,18 @@ public class SVMScale
         scale(dataFile, null, outFile, paramFile);
     }
 
+    /**
+     * Scale a {@link DataSource} with parameters generated previously, the rows are streamed.
+     *
+     * @param data      the data to scale
+     * @param paramFile parameter generated previously
+     * @param outFile   data file after scaling.
+     */
+    public void scaleTest(DataSource data, String paramFile, String outFile)
+    {
+        scale(data, null, outFile, paramFile);
+    }
+
     /**
      * Execute the scale after setting parameters, write scale parameter to file name end with ".range",
      * writer scaled data to file name end with ".scale";
@@ -417,6 +418,19 @@ public class SVMScale
         this.scale(dataFile, saveParamFile, outFile, null);
     }
 
+    /**
+     * Execute the scale of a {@link DataSource} after setting parameters, the rows are streamed, so the data is not
+     * required to fit in memory.
+     *
+     * @param data          the data to scale
+     * @param saveParamFile path to save parameter
+     * @param outFile       output file.
+     */
+    public void scaleTrain(DataSource data, String saveParamFile, String outFile)
+    {
+        this.scale(data, saveParamFile, outFile, null);
+    }
+
     /**
      * Execute the scale after setting parameters, restoreFile and saveParamFile can only exits one, the other should be null.
      *
@@ -428,6 +442,12 @@ public class SVMScale
     private void scale(String dataFile, String saveParamFile, String outFile, String restoreFile)
     {
         this.dataFile = dataFile;
+        scale(source(dataFile), saveParamFile, outFile, restoreFile);
+    }
+
+    private void scale(DataSource data, String saveParamFile, String outFile, String restoreFile)
+    {
+        this.data = data;
         this.saveParameterFile = saveParamFile;
         this.outFile = outFile;
         this.restoreParameterFile = restoreFile;
@@ -448,19 +468,7 @@ public class SVMScale
         }
 
         updateMaxIndex();
-        try {
-            featureMax = new double[maxIndex + 1];
-            featureMin = new double[maxIndex + 1];
-        } catch (OutOfMemoryError e) {
-            System.err.println("can't allocate enough memory");
-            System.exit(1);
-        }
-
-        for (int i = 0; i <= maxIndex; i++) {
-            featureMax[i] = -Double.MAX_VALUE;
-            featureMin[i] = Double.MAX_VALUE;
-        }
-
+        range = new FeatureRange();
         updateLimit();
 
         /* pass 2.5: save/restore feature_min/feature_max */
@@ -473,7 +481,7 @@ public class SVMScale
         }
 
         /* pass 3: scale */
-        scale(dataFile, outFile);
+        scale(outFile);
 
         if (new_num_nonzeros > numNonzeros)
             System.err.print("WARNING: original #nonzeros " + numNonzeros + "\n"
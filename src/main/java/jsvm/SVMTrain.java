@@ -5,6 +5,7 @@ import com.beust.jcommander.ParametersDelegate;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 import static jsvm.KernelType.PRECOMPUTED;
 import static jsvm.SVMType.EPSILON_SVR;
@@ -38,6 +39,15 @@ public class SVMTrain
     @Parameter(names = "-v", description = "n-fold cross validation mode")
     private int nrFold = 0;
 
+    @Parameter(names = "-cache", description = "cache the parsed dataset in a binary file next to it")
+    private boolean cache;
+
+    @Parameter(names = "-hash", description = "hash the feature ids into the given number of buckets")
+    private int hashBuckets = 0;
+
+    @Parameter(names = "-threads", description = "number of threads filling the kernel columns")
+    private int threads = 1;
+
     public SVMTrain() { }
 
     public SVMTrain(String inputFileName)
@@ -69,6 +79,22 @@ public class SVMTrain
         this.nrFold = nrFold;
     }
 
+    /**
+     * Construct with a loaded dataset, so that the dataset can be shared by several trainings.
+     *
+     * @param problem       the dataset
+     * @param modelFileName output model file
+     */
+    public SVMTrain(SVMProblem problem, String modelFileName, SVMParameter parameter,
+            boolean crossValidation, int nrFold)
+    {
+        this.problem = problem;
+        this.modelFileName = modelFileName;
+        this.parameter = parameter;
+        this.crossValidation = crossValidation;
+        this.nrFold = nrFold;
+    }
+
     public void setC(double c)
     {
         parameter.setC(c);
@@ -79,6 +105,38 @@ public class SVMTrain
         parameter.setGamma(g);
     }
 
+    /**
+     * Load the dataset through a binary sidecar file, so that it is parsed only once, see
+     * {@link BinaryDataset#cached(java.nio.file.Path)}.
+     *
+     * @param cache true to cache the dataset
+     */
+    public void setCache(boolean cache)
+    {
+        this.cache = cache;
+    }
+
+    /**
+     * Hash the feature ids of the dataset file, the model records the hashing, see {@link FeatureHashing}.
+     *
+     * @param buckets number of buckets, 0 to use the feature ids as indices
+     */
+    public void setHashBuckets(int buckets)
+    {
+        this.hashBuckets = buckets;
+    }
+
+    /**
+     * Fill the kernel columns with a pool of the given number of threads, unless the parameter has a pool already,
+     * see {@link SVMParameter#setPool(java.util.concurrent.ForkJoinPool)}.
+     *
+     * @param threads number of threads, 1 to fill the columns on the solver thread
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
     public String getModelFileName()
     {
         return modelFileName;
@@ -102,17 +160,21 @@ public class SVMTrain
             modelFileName = inputFileName + ".model";
         }
 
-        this.problem = new SVMProblem(Paths.get(inputFileName));
+        if (problem == null && hashBuckets > 0)
+            this.problem = new SVMProblem(Paths.get(inputFileName), new FeatureHashing(hashBuckets));
+        if (problem == null)
+            this.problem = new SVMProblem(Paths.get(inputFileName), FeatureLayout.AUTO, cache);
         if (parameter.gamma == 0 && problem.getMaxIndex() > 0) {
             parameter.gamma = 1.0 / problem.getMaxIndex();
         }
         if (parameter.kernelType == PRECOMPUTED) {
+            FeatureMatrix x = problem.getMatrix();
             for (int i = 0; i < problem.l; i++) {
-                if (problem.x[i][0].index != 0) {
+                if (x.length(i) == 0 || x.index(i, 0) != 0) {
                     System.err.print("Wrong kernel matrix: first column must be 0:sample_serial_number\n");
                     System.exit(1);
                 }
-                if ((int) problem.x[i][0].value <= 0 || (int) problem.x[i][0].value > problem.getMaxIndex()) {
+                if ((int) x.value(i, 0) <= 0 || (int) x.value(i, 0) > problem.getMaxIndex()) {
                     System.err.print("Wrong input format: sample_serial_number out of range\n");
                     System.exit(1);
                 }
@@ -125,12 +187,25 @@ public class SVMTrain
             System.exit(1);
         }
 
-        if (crossValidation) {
-            return doCrossValidation();
-        } else {
-            model = SVM.train(problem, parameter);
-            model.saveModel(modelFileName);
-            return Pair.create(0., 0.);
+        ForkJoinPool pool = null;
+        if (threads > 1 && parameter.pool == null) {
+            pool = new ForkJoinPool(threads);
+            parameter.setPool(pool);
+        }
+        try {
+            if (crossValidation) {
+                return doCrossValidation();
+            } else {
+                model = SVM.train(problem, parameter);
+                SVM.info(model.getTrainingStats() + "\n");
+                model.saveModel(modelFileName);
+                return Pair.create(0., 0.);
+            }
+        } finally {
+            if (pool != null) {
+                parameter.setPool(null);
+                pool.shutdown();
+            }
         }
     }
 
@@ -0,0 +1,110 @@
+package jsvm;
+
+import java.io.IOException;
+
+/**
+ * {@link DataSource.Cursor} over the lines of a LIBSVM text file, blank lines are skipped. With
+ * {@link FeatureHashing}, the feature ids of a line are parsed as long and hashed.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 8:40 PM
+ */
+final class TextCursor implements DataSource.Cursor
+{
+    private final LineReader reader;
+    private final FeatureHashing hashing;
+    private final ByteTokenizer st = new ByteTokenizer();
+    private double label;
+    private int length;
+    private int[] indices = new int[64];
+    private double[] values = new double[64];
+    /**
+     * raw ids and values of a line to hash
+     */
+    private long[] ids;
+    private double[] rawValues;
+
+    TextCursor(LineReader reader)
+    {
+        this(reader, null);
+    }
+
+    /**
+     * @param hashing hashing of the feature ids, null if the ids are feature indices
+     */
+    TextCursor(LineReader reader, FeatureHashing hashing)
+    {
+        this.reader = reader;
+        this.hashing = hashing;
+        if (hashing != null) {
+            ids = new long[64];
+            rawValues = new double[64];
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        while (reader.next()) {
+            if (!st.reset(reader).hasNext())
+                continue;
+            label = st.nextDouble();
+            // index:value pairs, an unpaired trailing token is ignored
+            int m = st.countTokens() / 2;
+            if (m > indices.length) {
+                indices = new int[Math.max(m, indices.length * 2)];
+                values = new double[indices.length];
+            }
+            if (hashing != null) {
+                if (m > ids.length) {
+                    ids = new long[indices.length];
+                    rawValues = new double[indices.length];
+                }
+                for (int j = 0; j < m; j++) {
+                    ids[j] = st.nextLong();
+                    rawValues[j] = st.nextDouble();
+                }
+                length = hashing.hashRow(ids, rawValues, m, indices, values);
+                return true;
+            }
+            for (int j = 0; j < m; j++) {
+                indices[j] = st.nextInt();
+                values[j] = st.nextDouble();
+            }
+            length = m;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public double label()
+    {
+        return label;
+    }
+
+    @Override
+    public int length()
+    {
+        return length;
+    }
+
+    @Override
+    public int[] indices()
+    {
+        return indices;
+    }
+
+    @Override
+    public double[] values()
+    {
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+}
@@ -0,0 +1,238 @@
+package jsvm;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the work done by a training, to see why one training takes much longer than another. Every call of
+ * {@link SVM#train(SVMProblem, SVMParameter)} counts into a new object returned by
+ * {@link SVMModel#getTrainingStats()}, including the trainings it runs for probability estimates, and into the
+ * process-wide {@link #total()}, which is registered with the platform MBean server as
+ * {@code jsvm:type=TrainingStats} so monitoring can read it during long runs.
+ * <p>
+ * The counters are {@link LongAdder}s, which are cheap to update from the threads filling kernel columns in
+ * parallel, and they are updated once per tile of kernel values, cache lookup, swap or solver run rather than once
+ * per value. They are read without stopping the training, so a snapshot of a running training may be slightly
+ * inconsistent across counters.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 21 Oct 2026, 2:40 PM
+ */
+public final class TrainingStats implements TrainingStatsMXBean
+{
+    private static final class Total
+    {
+        private static final TrainingStats TOTAL = register(new TrainingStats(null));
+
+        private static TrainingStats register(TrainingStats stats)
+        {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+                        new ObjectName("jsvm:type=TrainingStats"));
+            } catch (JMException | SecurityException e) {
+                SVM.info("WARNING: training statistics are not registered with JMX: " + e + "\n");
+            }
+            return stats;
+        }
+    }
+
+    private final TrainingStats parent;    // also receives every count, null for the total
+    private final LongAdder kernelEvaluations = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cachePartialHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    private final LongAdder swaps = new LongAdder();
+    private final LongAdder swapVisits = new LongAdder();
+    private final LongAdder solverIterations = new LongAdder();
+    private final LongAdder columns = new LongAdder();
+
+    /**
+     * Create counters of a training, which also add to {@link #total()}.
+     */
+    TrainingStats()
+    {
+        this(Total.TOTAL);
+    }
+
+    private TrainingStats(TrainingStats parent)
+    {
+        this.parent = parent;
+    }
+
+    /**
+     * @return counters of all trainings in this JVM, registered with JMX as {@code jsvm:type=TrainingStats}.
+     */
+    public static TrainingStats total()
+    {
+        return Total.TOTAL;
+    }
+
+    void addKernelEvaluations(long n)
+    {
+        kernelEvaluations.add(n);
+        if (parent != null)
+            parent.addKernelEvaluations(n);
+    }
+
+    void cacheHit()
+    {
+        cacheHits.increment();
+        if (parent != null)
+            parent.cacheHit();
+    }
+
+    void cachePartialHit()
+    {
+        cachePartialHits.increment();
+        if (parent != null)
+            parent.cachePartialHit();
+    }
+
+    void cacheMiss()
+    {
+        cacheMisses.increment();
+        if (parent != null)
+            parent.cacheMiss();
+    }
+
+    void addEvictedBytes(long n)
+    {
+        evictedBytes.add(n);
+        if (parent != null)
+            parent.addEvictedBytes(n);
+    }
+
+    /**
+     * @param visits cached columns visited to swap their values
+     */
+    void addSwap(long visits)
+    {
+        swaps.increment();
+        swapVisits.add(visits);
+        if (parent != null)
+            parent.addSwap(visits);
+    }
+
+    void addSolverIterations(long n)
+    {
+        solverIterations.add(n);
+        if (parent != null)
+            parent.addSolverIterations(n);
+    }
+
+    void addColumns(long n)
+    {
+        columns.add(n);
+        if (parent != null)
+            parent.addColumns(n);
+    }
+
+    /**
+     * @return kernel values computed, for the kernel columns, the diagonal and the landmarks of a Nystroem
+     * approximation. The columns are computed in tiles, so this includes the few values of a tile above the part of
+     * a column that was missing from the cache.
+     */
+    @Override
+    public long getKernelEvaluations()
+    {
+        return kernelEvaluations.sum();
+    }
+
+    /**
+     * @return lookups of a column found in the kernel cache at the requested length.
+     */
+    @Override
+    public long getCacheHits()
+    {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return lookups of a column found in the kernel cache, but shorter than requested, so the rest was computed.
+     */
+    @Override
+    public long getCachePartialHits()
+    {
+        return cachePartialHits.sum();
+    }
+
+    /**
+     * @return lookups of a column not in the kernel cache.
+     */
+    @Override
+    public long getCacheMisses()
+    {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return bytes of cached columns evicted to make room for others, or dropped by a swap because they were too
+     * short to hold both swapped values.
+     */
+    @Override
+    public long getEvictedBytes()
+    {
+        return evictedBytes.sum();
+    }
+
+    /**
+     * @return swaps of two data items, done by the shrinking of the solver.
+     */
+    @Override
+    public long getSwaps()
+    {
+        return swaps.sum();
+    }
+
+    /**
+     * @return cached columns visited by the swaps, each swap walks all cached columns to swap two of their values.
+     */
+    @Override
+    public long getSwapVisits()
+    {
+        return swapVisits.sum();
+    }
+
+    /**
+     * @return iterations of the SMO solver.
+     */
+    @Override
+    public long getSolverIterations()
+    {
+        return solverIterations.sum();
+    }
+
+    /**
+     * @return kernel columns computed in full or in part, because they were not in the cache or the whole kernel
+     * matrix was computed up front.
+     */
+    @Override
+    public long getColumns()
+    {
+        return columns.sum();
+    }
+
+    /**
+     * @return kernel columns computed per solver iteration, about 2 if the cache is too small and close to 0 if it
+     * holds the columns of the free variables.
+     */
+    @Override
+    public double getColumnsPerIteration()
+    {
+        long iterations = getSolverIterations();
+        return iterations == 0 ? 0 : (double) getColumns() / iterations;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "kernel evaluations = " + getKernelEvaluations() + ", cache hits = " + getCacheHits()
+                + ", partial hits = " + getCachePartialHits() + ", misses = " + getCacheMisses()
+                + ", evicted bytes = " + getEvictedBytes() + ", swaps = " + getSwaps() + ", swap visits = "
+                + getSwapVisits() + ", iterations = " + getSolverIterations() + ", columns = " + getColumns();
+    }
+}
@@ -0,0 +1,31 @@
+package jsvm;
+
+/**
+ * Counters of {@link TrainingStats} as seen through JMX.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 21 Oct 2026, 2:40 PM
+ */
+public interface TrainingStatsMXBean
+{
+    long getKernelEvaluations();
+
+    long getCacheHits();
+
+    long getCachePartialHits();
+
+    long getCacheMisses();
+
+    long getEvictedBytes();
+
+    long getSwaps();
+
+    long getSwapVisits();
+
+    long getSolverIterations();
+
+    long getColumns();
+
+    double getColumnsPerIteration();
+}
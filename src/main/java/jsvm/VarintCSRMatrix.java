@@ -0,0 +1,388 @@
+package jsvm;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sparse row storage whose feature indices are delta coded varints. The first index of a row is stored as
+ * is, each following index as the gap to the previous one, in 7 bits per byte with the high bit marking that more
+ * bytes follow. Bag-of-words rows with a large vocabulary mostly have gaps below 128, so an index takes one byte
+ * instead of four.
+ * <p>
+ * The kernel walks the rows with a decoder that merges the indices on the fly. For random access by
+ * {@link #index(int, int)}, the absolute index and byte position of every 16th node are kept, so at most 15 gaps are
+ * decoded per call.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 10:40 PM
+ */
+public final class VarintCSRMatrix implements FeatureMatrix, java.io.Serializable
+{
+    private static final int CHECKPOINT_SHIFT = 4;
+
+    private final int[] rowPtr;
+    /**
+     * position of the first index byte of each row, followed by the total number of bytes
+     */
+    private final int[] bytePtr;
+    private final byte[] indexBytes;
+    private final double[] values;
+    /**
+     * feature index of every 16th node
+     */
+    private final int[] checkpointIndex;
+    /**
+     * position after the index bytes of every 16th node
+     */
+    private final int[] checkpointByte;
+    private final int maxIndex;
+
+    private VarintCSRMatrix(int[] rowPtr, int[] bytePtr, byte[] indexBytes, double[] values, int[] checkpointIndex,
+            int[] checkpointByte, int maxIndex)
+    {
+        this.rowPtr = rowPtr;
+        this.bytePtr = bytePtr;
+        this.indexBytes = indexBytes;
+        this.values = values;
+        this.checkpointIndex = checkpointIndex;
+        this.checkpointByte = checkpointByte;
+        this.maxIndex = maxIndex;
+    }
+
+    /**
+     * Encode the rows of any {@link FeatureMatrix}.
+     *
+     * @param matrix the source matrix, feature indices must be non-negative and increasing within each row
+     * @return the {@link VarintCSRMatrix}
+     */
+    public static VarintCSRMatrix copyOf(FeatureMatrix matrix)
+    {
+        int l = matrix.rows();
+        long total = 0;
+        for (int i = 0; i < l; i++)
+            total += matrix.length(i);
+        if (total > Integer.MAX_VALUE)
+            throw new IllegalStateException("too many nonzero values for VarintCSRMatrix: " + total);
+        int nnz = (int) total;
+
+        int[] rowPtr = new int[l + 1];
+        int[] bytePtr = new int[l + 1];
+        byte[] bytes = new byte[Math.max(nnz + (nnz >> 2), 16)];
+        double[] values = new double[nnz];
+        int[] checkpointIndex = new int[(nnz >> CHECKPOINT_SHIFT) + 1];
+        int[] checkpointByte = new int[checkpointIndex.length];
+        int maxIndex = 0;
+
+        int p = 0;
+        int pos = 0;
+        for (int i = 0; i < l; i++) {
+            int n = matrix.length(i);
+            int previous = 0;
+            for (int k = 0; k < n; k++) {
+                int index = matrix.index(i, k);
+                if (index < previous || (k > 0 && index == previous))
+                    throw new IllegalArgumentException("feature indices of row " + i + " are not increasing");
+                if (bytes.length - pos < 5)
+                    bytes = Arrays.copyOf(bytes, bytes.length + (bytes.length >> 1) + 5);
+                int delta = index - previous;
+                while ((delta & ~0x7f) != 0) {
+                    bytes[pos++] = (byte) ((delta & 0x7f) | 0x80);
+                    delta >>>= 7;
+                }
+                bytes[pos++] = (byte) delta;
+                previous = index;
+
+                if ((p & ((1 << CHECKPOINT_SHIFT) - 1)) == 0) {
+                    checkpointIndex[p >> CHECKPOINT_SHIFT] = index;
+                    checkpointByte[p >> CHECKPOINT_SHIFT] = pos;
+                }
+                values[p++] = matrix.value(i, k);
+            }
+            if (n > 0)
+                maxIndex = Math.max(maxIndex, previous);
+            rowPtr[i + 1] = p;
+            bytePtr[i + 1] = pos;
+        }
+        return new VarintCSRMatrix(rowPtr, bytePtr, Arrays.copyOf(bytes, pos), values, checkpointIndex,
+                checkpointByte, maxIndex);
+    }
+
+    /**
+     * @return memory of the index encoding in bytes, including row pointers and checkpoints.
+     */
+    public long indexBytes()
+    {
+        return indexBytes.length + 4L * (bytePtr.length + checkpointIndex.length + checkpointByte.length);
+    }
+
+    /**
+     * @return total number of nonzero nodes.
+     */
+    public int nnz()
+    {
+        return rowPtr[rowPtr.length - 1];
+    }
+
+    @Override
+    public int rows()
+    {
+        return rowPtr.length - 1;
+    }
+
+    @Override
+    public int getMaxIndex()
+    {
+        return maxIndex;
+    }
+
+    @Override
+    public int length(int row)
+    {
+        return rowPtr[row + 1] - rowPtr[row];
+    }
+
+    @Override
+    public int index(int row, int k)
+    {
+        int node = rowPtr[row] + k;
+        int checkpoint = node >> CHECKPOINT_SHIFT;
+        int first = checkpoint << CHECKPOINT_SHIFT;
+        Decoder decoder;
+        if (first > rowPtr[row]) {
+            decoder = new Decoder(indexBytes, checkpointByte[checkpoint], checkpointIndex[checkpoint]);
+        } else {
+            decoder = new Decoder(indexBytes, bytePtr[row], 0);
+            first = rowPtr[row] - 1;
+        }
+        int index = decoder.index;
+        for (int i = first; i < node; i++)
+            index = decoder.next();
+        return index;
+    }
+
+    @Override
+    public double value(int row, int k)
+    {
+        return values[rowPtr[row] + k];
+    }
+
+    @Override
+    public double dot(int i, int j)
+    {
+        return dot(this, i, j);
+    }
+
+    @Override
+    public double dot(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        if (q == qe)
+            return 0;
+        Decoder dj = new Decoder(indexBytes, bytePtr[j], 0);
+        int b = dj.next();
+        while (p < xlen) {
+            int a = x[p].index;
+            if (a == b) {
+                sum += x[p++].value * values[q++];
+                if (q == qe)
+                    break;
+                b = dj.next();
+            } else if (a > b) {
+                if (++q == qe)
+                    break;
+                b = dj.next();
+            } else {
+                ++p;
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(SVMNode[] x, int j)
+    {
+        double sum = 0;
+        int xlen = x.length;
+        int p = 0;
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        Decoder dj = new Decoder(indexBytes, bytePtr[j], 0);
+        int b = q < qe ? dj.next() : 0;
+        while (p < xlen && q < qe) {
+            int a = x[p].index;
+            if (a == b) {
+                double d = x[p++].value - values[q++];
+                sum += d * d;
+                if (q < qe)
+                    b = dj.next();
+            } else if (a > b) {
+                sum += values[q] * values[q];
+                if (++q < qe)
+                    b = dj.next();
+            } else {
+                sum += x[p].value * x[p].value;
+                ++p;
+            }
+        }
+
+        while (p < xlen) {
+            sum += x[p].value * x[p].value;
+            ++p;
+        }
+
+        while (q < qe) {
+            sum += values[q] * values[q];
+            ++q;
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(FeatureMatrix x, int i, int j)
+    {
+        if (x instanceof RowSubset) {
+            i = ((RowSubset) x).baseRow(i);
+            x = ((RowSubset) x).base();
+        }
+        if (!(x instanceof VarintCSRMatrix))
+            return FeatureMatrix.dot(x, i, this, j);
+
+        VarintCSRMatrix m = (VarintCSRMatrix) x;
+        double sum = 0;
+        int p = m.rowPtr[i];
+        int pe = m.rowPtr[i + 1];
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        if (p == pe || q == qe)
+            return 0;
+        Decoder di = new Decoder(m.indexBytes, m.bytePtr[i], 0);
+        Decoder dj = new Decoder(indexBytes, bytePtr[j], 0);
+        int a = di.next();
+        int b = dj.next();
+        while (true) {
+            if (a == b) {
+                sum += m.values[p++] * values[q++];
+                if (p == pe || q == qe)
+                    break;
+                a = di.next();
+                b = dj.next();
+            } else if (a > b) {
+                if (++q == qe)
+                    break;
+                b = dj.next();
+            } else {
+                if (++p == pe)
+                    break;
+                a = di.next();
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double squaredDistance(FeatureMatrix x, int i, int j)
+    {
+        if (x instanceof RowSubset) {
+            i = ((RowSubset) x).baseRow(i);
+            x = ((RowSubset) x).base();
+        }
+        if (!(x instanceof VarintCSRMatrix))
+            return FeatureMatrix.squaredDistance(x, i, this, j);
+
+        VarintCSRMatrix m = (VarintCSRMatrix) x;
+        double sum = 0;
+        int p = m.rowPtr[i];
+        int pe = m.rowPtr[i + 1];
+        int q = rowPtr[j];
+        int qe = rowPtr[j + 1];
+        Decoder di = new Decoder(m.indexBytes, m.bytePtr[i], 0);
+        Decoder dj = new Decoder(indexBytes, bytePtr[j], 0);
+        int a = p < pe ? di.next() : 0;
+        int b = q < qe ? dj.next() : 0;
+        while (p < pe && q < qe) {
+            if (a == b) {
+                double d = m.values[p++] - values[q++];
+                sum += d * d;
+                if (p < pe)
+                    a = di.next();
+                if (q < qe)
+                    b = dj.next();
+            } else if (a > b) {
+                double v = values[q];
+                sum += v * v;
+                if (++q < qe)
+                    b = dj.next();
+            } else {
+                double v = m.values[p];
+                sum += v * v;
+                if (++p < pe)
+                    a = di.next();
+            }
+        }
+
+        while (p < pe) {
+            double v = m.values[p++];
+            sum += v * v;
+        }
+
+        while (q < qe) {
+            double v = values[q++];
+            sum += v * v;
+        }
+        return sum;
+    }
+
+    @Override
+    public SVMNode[] row(int row)
+    {
+        int p = rowPtr[row];
+        int n = rowPtr[row + 1] - p;
+        SVMNode[] nodes = new SVMNode[n];
+        Decoder decoder = new Decoder(indexBytes, bytePtr[row], 0);
+        for (int k = 0; k < n; k++)
+            nodes[k] = new SVMNode(decoder.next(), values[p + k]);
+        return nodes;
+    }
+
+    @Override
+    public FeatureMatrix copy(int[] rows)
+    {
+        return copyOf(select(rows));
+    }
+
+    /**
+     * Decoder of the delta coded indices of a row, {@link #next()} returns the indices in order.
+     */
+    private static final class Decoder
+    {
+        private final byte[] bytes;
+        private int pos;
+        private int index;
+
+        Decoder(byte[] bytes, int pos, int index)
+        {
+            this.bytes = bytes;
+            this.pos = pos;
+            this.index = index;
+        }
+
+        int next()
+        {
+            int b = bytes[pos++];
+            if (b >= 0)
+                return index += b;
+            int delta = b & 0x7f;
+            int shift = 7;
+            do {
+                b = bytes[pos++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return index += delta;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package jsvm;
+
+/**
+ * Loops over contiguous arrays used by the dense kernels, the Java 17 version of the multi-release jar. When the
+ * {@code jdk.incubator.vector} module is present, that is the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, long loops are run by {@link VectorKernels}, otherwise by the same
+ * scalar loops as the Java 8 version. The SIMD loops sum in a different order, so the results may differ from the
+ * scalar loops in the last bits. Set the system property {@code jsvm.vector} to {@code false} to keep the scalar
+ * loops.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 5:10 PM
+ */
+final class DenseKernels
+{
+    private static final boolean VECTOR = !"false".equals(System.getProperty("jsvm.vector"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    /**
+     * arrays shorter than this are not worth the SIMD setup
+     */
+    private static final int MIN_LENGTH = 16;
+
+    private DenseKernels() { }
+
+    /**
+     * @return true if the SIMD version is used.
+     */
+    static boolean isVectorized()
+    {
+        return VECTOR;
+    }
+
+    /**
+     * @return dot product of a[aOffset, aOffset + n) and b[bOffset, bOffset + n).
+     */
+    static double dot(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        if (VECTOR && n >= MIN_LENGTH)
+            return VectorKernels.dot(a, aOffset, b, bOffset, n);
+        double sum = 0;
+        for (int k = 0; k < n; k++)
+            sum += a[aOffset + k] * b[bOffset + k];
+        return sum;
+    }
+
+    /**
+     * @return squared euclidean distance between a[aOffset, aOffset + n) and b[bOffset, bOffset + n).
+     */
+    static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        if (VECTOR && n >= MIN_LENGTH)
+            return VectorKernels.squaredDistance(a, aOffset, b, bOffset, n);
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            double d = a[aOffset + k] - b[bOffset + k];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    /**
+     * Replace x[offset, offset + n) by their exponentials.
+     */
+    static void exp(double[] x, int offset, int n)
+    {
+        if (VECTOR && n >= MIN_LENGTH) {
+            VectorKernels.exp(x, offset, n);
+            return;
+        }
+        for (int k = offset; k < offset + n; k++)
+            x[k] = Math.exp(x[k]);
+    }
+}
@@ -0,0 +1,64 @@
+package jsvm;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD loops of {@link DenseKernels} on {@code jdk.incubator.vector}, in the preferred vector size of the platform.
+ * This class is only loaded when the module is present.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 5:10 PM
+ */
+final class VectorKernels
+{
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorKernels() { }
+
+    static double dot(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOffset + k);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOffset + k);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < n; k++)
+            sum += a[aOffset + k] * b[bOffset + k];
+        return sum;
+    }
+
+    static double squaredDistance(double[] a, int aOffset, double[] b, int bOffset, int n)
+    {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, a, aOffset + k)
+                    .sub(DoubleVector.fromArray(SPECIES, b, bOffset + k));
+            acc = d.fma(d, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < n; k++) {
+            double d = a[aOffset + k] - b[bOffset + k];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    static void exp(double[] x, int offset, int n)
+    {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length())
+            DoubleVector.fromArray(SPECIES, x, offset + k).lanewise(VectorOperators.EXP).intoArray(x, offset + k);
+        for (; k < n; k++)
+            x[offset + k] = Math.exp(x[offset + k]);
+    }
+}
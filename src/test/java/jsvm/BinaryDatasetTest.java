@@ -0,0 +1,70 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 10:30 AM
+ */
+class BinaryDatasetTest
+{
+    @Test
+    void testSidecar() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        Path text = dir.resolve("train.3");
+        Path sidecar = dir.resolve("train.3" + BinaryDataset.SIDECAR_SUFFIX);
+        Files.copy(Paths.get("src/test/resources/train.3"), text);
+        try {
+            SVMProblem expected = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+
+            SVMProblem first = new SVMProblem(text, FeatureLayout.SPARSE, true);
+            assertTrue(Files.exists(sidecar));
+            assertSame(expected, first);
+
+            SVMProblem second = new SVMProblem(text, FeatureLayout.SPARSE, true);
+            assertTrue(second.getMatrix() instanceof BufferCSRMatrix);
+            assertSame(expected, second);
+
+            // a changed source replaces the sidecar
+            Files.copy(Paths.get("src/test/resources/train.1"), text, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(text, FileTime.fromMillis(Files.getLastModifiedTime(text).toMillis() + 2000));
+            SVMProblem changed = new SVMProblem(text, FeatureLayout.SPARSE, true);
+            assertTrue(changed.getMatrix() instanceof CSRMatrix);
+            assertSame(new SVMProblem(Paths.get("src/test/resources/train.1"), FeatureLayout.SPARSE), changed);
+            assertSame(changed, new SVMProblem(text, FeatureLayout.SPARSE, true));
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void assertSame(SVMProblem expected, SVMProblem actual)
+    {
+        assertArrayEquals(expected.y, actual.y);
+        assertEquals(expected.getMaxIndex(), actual.getMaxIndex());
+        FeatureMatrix x = expected.getMatrix();
+        FeatureMatrix y = actual.getMatrix();
+        for (int i = 0; i < expected.l; i++) {
+            assertEquals(x.length(i), y.length(i));
+            for (int k = 0; k < x.length(i); k++) {
+                assertEquals(x.index(i, k), y.index(i, k));
+                assertEquals(x.value(i, k), y.value(i, k));
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 11:40 AM
+ */
+class BufferCSRMatrixTest
+{
+    @Test
+    void testSegments()
+    {
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.1"), FeatureLayout.SPARSE);
+        FeatureMatrix x = problem.getMatrix();
+        long nnz = 0;
+        for (int i = 0; i < problem.l; i++)
+            nnz += x.length(i);
+        // small segments, so that rows are spread over many buffers
+        BufferCSRMatrix.DirectBuilder builder = new BufferCSRMatrix.DirectBuilder(problem.l, nnz, 50);
+        for (int i = 0; i < problem.l; i++) {
+            builder.startRow(x.length(i));
+            for (int k = 0; k < x.length(i); k++)
+                builder.add(x.index(i, k), x.value(i, k));
+        }
+        BufferCSRMatrix buffer = builder.build();
+        assertEquals(x.getMaxIndex(), buffer.getMaxIndex());
+        for (int i = 0; i < problem.l; i++) {
+            assertEquals(x.length(i), buffer.length(i));
+            for (int k = 0; k < x.length(i); k++) {
+                assertEquals(x.index(i, k), buffer.index(i, k));
+                assertEquals(x.value(i, k), buffer.value(i, k));
+            }
+            for (int j = 0; j < problem.l; j += 13)
+                assertEquals(x.dot(i, j), buffer.dot(i, j));
+        }
+    }
+
+    @Test
+    void testTrain() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMProblem offHeap = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.OFF_HEAP);
+        assertTrue(offHeap.getMatrix() instanceof BufferCSRMatrix);
+        assertArrayEquals(problem.y, SVMProblem.offHeap(DataSource.of(problem)).y);
+
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel model = SVM.train(problem, param);
+        SVMModel offHeapModel = SVM.train(offHeap, param);
+        assertArrayEquals(model.rho, offHeapModel.rho);
+        for (int k = 0; k < model.sv_coef.length; k++)
+            assertArrayEquals(model.sv_coef[k], offHeapModel.sv_coef[k]);
+
+        offHeapModel.setLayout(FeatureLayout.OFF_HEAP);
+        for (int i = 0; i < problem.l; i++)
+            assertEquals(SVM.predict(model, problem.getMatrix(), i), SVM.predict(offHeapModel, offHeap.getMatrix(), i));
+    }
+
+    /**
+     * An off-heap problem, and a subset of it, is serialized as a CSR copy of its rows.
+     */
+    @Test
+    void testSerialize() throws IOException, ClassNotFoundException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem offHeap = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.OFF_HEAP);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / offHeap.getMaxIndex());
+        SVMModel expected = SVM.train(offHeap, param);
+
+        SVMProblem copy = serialize(offHeap);
+        assertTrue(copy.getMatrix() instanceof CSRMatrix);
+        assertArrayEquals(offHeap.y, copy.y);
+        assertEquals(offHeap.getMaxIndex(), copy.getMaxIndex());
+        SVMModel model = SVM.train(copy, param);
+        assertArrayEquals(expected.rho, model.rho);
+        assertArrayEquals(expected.sv_coef[0], model.sv_coef[0]);
+
+        int[] rows = {3, 1, 4, 1, 5};
+        SVMProblem subset = serialize(offHeap.select(rows, new double[rows.length]));
+        for (int i = 0; i < rows.length; i++)
+            assertEquals(offHeap.getMatrix().dot(rows[i], rows[i]), subset.getMatrix().dot(i, i));
+    }
+
+    // a copy of the problem through Java serialization
+    private static SVMProblem serialize(SVMProblem problem) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(problem);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (SVMProblem) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.StringTokenizer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 7:40 PM
+ */
+class ByteTokenizerTest
+{
+    private final String data3 = "src/test/resources/train.3";
+
+    @Test
+    void testParseDouble()
+    {
+        String[] values = {"0", "-0", "1", "+1", "-1", "0.5", ".5", "5.", "1e10", "1E-10", "-2.5e+3",
+                "0.000123", "123456789012345678", "1234567890123456789", "9007199254740993", "0.1",
+                "3.141592653589793", "1e22", "1e23", "1e-22", "1e-23", "4.9e-324", "1.7976931348623157e308",
+                "NaN", "Infinity", "-Infinity", "0x1p3", "1d", "2f"};
+        for (String value : values)
+            assertEquals(Double.parseDouble(value), parse(value), value);
+
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            double value = random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+            String[] texts = {Double.toString(value), String.format("%.6g", value), String.format("%.17g", value)};
+            for (String text : texts)
+                assertEquals(Double.parseDouble(text), parse(text), text);
+        }
+    }
+
+    @Test
+    void testParseInt()
+    {
+        String[] values = {"0", "1", "-1", "+7", "123456", "2147483647", "-2147483648"};
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+            assertEquals(Integer.parseInt(value), ByteTokenizer.parseInt(bytes, 0, bytes.length), value);
+        }
+    }
+
+    @Test
+    void testTokenize()
+    {
+        byte[] line = " +1 3:0.5\t10:-2 \r".getBytes(StandardCharsets.ISO_8859_1);
+        ByteTokenizer st = new ByteTokenizer().reset(line, 0, line.length);
+        assertEquals(5, st.countTokens());
+        assertEquals(1.0, st.nextDouble());
+        assertEquals(3, st.nextInt());
+        assertEquals(0.5, st.nextDouble());
+        assertEquals(10, st.nextInt());
+        assertEquals(-2.0, st.nextDouble());
+        assertFalse(st.hasNext());
+    }
+
+    @Test
+    void testSameAsStringTokenizer() throws IOException
+    {
+        Path path = Paths.get(data3);
+        try (BufferedReader expected = Files.newBufferedReader(path);
+             LineReader reader = new LineReader(Files.newInputStream(path))) {
+            ByteTokenizer st = new ByteTokenizer();
+            String line;
+            while ((line = expected.readLine()) != null) {
+                assertTrue(reader.next());
+                StringTokenizer tokens = new StringTokenizer(line, SVMProblem.SPLITTER);
+                st.reset(reader);
+                assertEquals(tokens.countTokens(), st.countTokens());
+                assertEquals(Double.parseDouble(tokens.nextToken()), st.nextDouble());
+                while (tokens.hasMoreTokens()) {
+                    assertEquals(Integer.parseInt(tokens.nextToken()), st.nextInt());
+                    assertEquals(Double.parseDouble(tokens.nextToken()), st.nextDouble());
+                }
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Parsing throughput in MB/s of StringTokenizer with Double.parseDouble and of ByteTokenizer.
+     */
+    @Test
+    @Disabled("benchmark, run by hand")
+    void benchmark() throws IOException
+    {
+        byte[] data = Files.readAllBytes(Paths.get(data3));
+        String text = new String(data, StandardCharsets.ISO_8859_1);
+        int rounds = 200;
+        double mb = (double) data.length * rounds / (1 << 20);
+
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            double sum = 0;
+            for (int r = 0; r < rounds; r++) {
+                try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        StringTokenizer st = new StringTokenizer(line, SVMProblem.SPLITTER);
+                        sum += Double.parseDouble(st.nextToken());
+                        int m = st.countTokens() / 2;
+                        for (int j = 0; j < m; j++)
+                            sum += Integer.parseInt(st.nextToken()) + Double.parseDouble(st.nextToken());
+                    }
+                }
+            }
+            double stringSeconds = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            double sum2 = 0;
+            ByteTokenizer st = new ByteTokenizer();
+            for (int r = 0; r < rounds; r++) {
+                try (LineReader reader = new LineReader(new ByteArrayInputStream(data))) {
+                    while (reader.next()) {
+                        st.reset(reader);
+                        sum2 += st.nextDouble();
+                        int m = st.countTokens() / 2;
+                        for (int j = 0; j < m; j++)
+                            sum2 += st.nextInt() + st.nextDouble();
+                    }
+                }
+            }
+            double byteSeconds = (System.nanoTime() - start) / 1e9;
+
+            assertEquals(sum, sum2);
+            System.out.printf("StringTokenizer: %.1f MB/s, ByteTokenizer: %.1f MB/s%n",
+                    mb / stringSeconds, mb / byteSeconds);
+        }
+    }
+
+    private static double parse(String value)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        return ByteTokenizer.parseDouble(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,136 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * CSR storage of datasets and support vectors, the row subsets of cross validation and the {@link SVMNode} views.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 23 Oct 2026, 9:40 AM
+ */
+class CSRMatrixTest
+{
+    /**
+     * The nodes of a loaded dataset give back the same matrix, and the dot products agree with a merge of the nodes.
+     */
+    @Test
+    void testNodes() throws IOException
+    {
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        FeatureMatrix matrix = problem.getMatrix();
+        SVMNode[][] x = problem.getX();
+        assertEquals(problem.l, x.length);
+        assertMatrixEquals(matrix, CSRMatrix.of(x, problem.l));
+        for (int i = 0; i < problem.l; i += 7) {
+            int j = (i * 31 + 5) % problem.l;
+            assertEquals(dot(x[i], x[j]), matrix.dot(i, j));
+            assertEquals(dot(x[i], x[j]), matrix.dot(x[i], j));
+            assertEquals(dot(x[i], x[i]) + dot(x[j], x[j]) - 2 * dot(x[i], x[j]), matrix.squaredDistance(x[i], j),
+                    1e-10);
+        }
+    }
+
+    /**
+     * Selected rows, repeated or out of order, read and multiply as the rows of the full matrix.
+     */
+    @Test
+    void testRowSubset() throws IOException
+    {
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        FeatureMatrix matrix = problem.getMatrix();
+        int[] rows = {5, 0, 17, 17, 300, problem.l - 1};
+        FeatureMatrix subset = matrix.select(rows);
+        assertEquals(rows.length, subset.rows());
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(matrix.length(rows[i]), subset.length(i));
+            for (int k = 0; k < subset.length(i); k++) {
+                assertEquals(matrix.index(rows[i], k), subset.index(i, k));
+                assertEquals(matrix.value(rows[i], k), subset.value(i, k));
+            }
+            for (int j = 0; j < rows.length; j++) {
+                assertEquals(matrix.dot(rows[i], rows[j]), subset.dot(i, j));
+                assertEquals(matrix.dot(subset.row(i), rows[j]), subset.dot(matrix.row(rows[i]), j));
+            }
+        }
+        assertMatrixEquals(matrix.select(new int[]{17, 300}), subset.copy(new int[]{2, 4}));
+    }
+
+    /**
+     * A problem assembled from nodes trains the same model as the loaded one, the model gives its support vectors
+     * as nodes, and new nodes or a new number of rows replace the matrix built from the old ones.
+     */
+    @Test
+    void testAssembled() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem loaded = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMProblem problem = new SVMProblem();
+        problem.l = loaded.l;
+        problem.y = loaded.y;
+        problem.setX(loaded.getX());
+        assertEquals(loaded.getMaxIndex(), problem.getMaxIndex());
+        assertEquals(loaded.size(), problem.size());
+
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / loaded.getMaxIndex());
+        SVMModel expected = SVM.train(loaded, param);
+        SVMModel model = SVM.train(problem, param);
+        assertArrayEquals(expected.rho, model.rho);
+        assertArrayEquals(expected.sv_coef[0], model.sv_coef[0]);
+
+        SVMNode[][] sv = model.getSV();
+        assertEquals(model.l, sv.length);
+        assertMatrixEquals(model.getSVMatrix(), CSRMatrix.of(sv, model.l));
+        FeatureMatrix before = model.getSVMatrix();
+        model.setSV(sv);
+        assertNotSame(before, model.getSVMatrix());
+        for (int i = 0; i < problem.l; i += 10)
+            assertEquals(SVM.predict(expected, loaded.getMatrix(), i), SVM.predict(model, problem.getX()[i]));
+
+        problem.l = 10;
+        assertEquals(10, problem.getMatrix().rows());
+        SVMNode[][] rows = {{new SVMNode(2, 1)}, {new SVMNode(1, -1), new SVMNode(9, 0.5)}};
+        problem.l = rows.length;
+        problem.setX(rows);
+        assertMatrixEquals(CSRMatrix.of(rows, 2), problem.getMatrix());
+        assertEquals(9, problem.getMaxIndex());
+        assertEquals(3, problem.size());
+    }
+
+    private static double dot(SVMNode[] x, SVMNode[] y)
+    {
+        double sum = 0;
+        int i = 0;
+        int j = 0;
+        while (i < x.length && j < y.length) {
+            if (x[i].index == y[j].index)
+                sum += x[i++].value * y[j++].value;
+            else if (x[i].index > y[j].index)
+                j++;
+            else
+                i++;
+        }
+        return sum;
+    }
+
+    private static void assertMatrixEquals(FeatureMatrix expected, FeatureMatrix actual)
+    {
+        assertEquals(expected.rows(), actual.rows());
+        for (int i = 0; i < expected.rows(); i++) {
+            assertEquals(expected.length(i), actual.length(i));
+            for (int k = 0; k < expected.length(i); k++) {
+                assertEquals(expected.index(i, k), actual.index(i, k));
+                assertEquals(expected.value(i, k), actual.value(i, k));
+            }
+        }
+    }
+}
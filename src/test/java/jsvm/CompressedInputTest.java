@@ -0,0 +1,191 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 9:40 AM
+ */
+class CompressedInputTest
+{
+    /**
+     * Gzip compressed copies of train.1-3 load and stream as the plain files.
+     */
+    @Test
+    void testGzip() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        try {
+            for (int n = 1; n <= 3; n++) {
+                Path text = Paths.get("src/test/resources/train." + n);
+                Path gz = dir.resolve("train." + n + ".gz");
+                gzip(Files.readAllBytes(text), 1, gz);
+                assertTrue(CompressedInput.isGzip(gz));
+                assertFalse(CompressedInput.isGzip(text));
+
+                SVMProblem expected = new SVMProblem(text, FeatureLayout.SPARSE);
+                assertProblemEquals(expected, new SVMProblem(gz, FeatureLayout.SPARSE));
+                try (DataSource.Cursor plain = DataSource.of(text).open();
+                     DataSource.Cursor compressed = DataSource.of(gz).open()) {
+                    while (plain.next()) {
+                        assertTrue(compressed.next());
+                        assertEquals(plain.label(), compressed.label());
+                        assertEquals(plain.length(), compressed.length());
+                        for (int k = 0; k < plain.length(); k++) {
+                            assertEquals(plain.indices()[k], compressed.indices()[k]);
+                            assertEquals(plain.values()[k], compressed.values()[k]);
+                        }
+                    }
+                    assertFalse(compressed.next());
+                }
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * The stream reads the data byte by byte and in blocks, and keeps returning -1 once it has ended.
+     */
+    @Test
+    void testEnd() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        try {
+            byte[] data = Files.readAllBytes(Paths.get("src/test/resources/train.1"));
+            Path gz = dir.resolve("train.1.gz");
+            gzip(data, 1, gz);
+            try (InputStream in = CompressedInput.open(gz)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1000];
+                int n;
+                while ((n = in.read(buffer, 0, buffer.length)) >= 0)
+                    out.write(buffer, 0, n);
+                assertArrayEquals(data, out.toByteArray());
+                assertEquals(-1, in.read(buffer, 0, buffer.length));
+                assertEquals(-1, in.read());
+                assertEquals(-1, in.read());
+            }
+            try (InputStream in = CompressedInput.open(gz)) {
+                for (byte b : data)
+                    assertEquals(b & 0xff, in.read());
+                assertEquals(-1, in.read());
+                assertEquals(-1, in.read());
+                assertEquals(-1, in.read(new byte[10], 0, 10));
+            }
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * A truncated file raises an IOException in the reader instead of ending the data early.
+     */
+    @Test
+    void testTruncated() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        try {
+            Path gz = dir.resolve("train.3.gz");
+            gzip(Files.readAllBytes(Paths.get("src/test/resources/train.3")), 1, gz);
+            byte[] bytes = Files.readAllBytes(gz);
+            Files.write(gz, Arrays.copyOf(bytes, bytes.length / 2));
+
+            assertThrows(IOException.class, () -> {
+                try (InputStream in = CompressedInput.open(gz)) {
+                    byte[] buffer = new byte[1 << 16];
+                    while (in.read(buffer, 0, buffer.length) >= 0) ;
+                }
+            });
+            assertThrows(IOException.class, () -> ParallelTextLoader.load(gz, ForkJoinPool.commonPool()));
+            assertThrows(UncheckedIOException.class, () -> new SVMProblem(gz, FeatureLayout.SPARSE));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Closing the stream before the end stops the decompression thread, which is blocked on a full queue.
+     */
+    @Test
+    void testCloseEarly() throws IOException, InterruptedException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        try {
+            Path gz = dir.resolve("close-early.gz");
+            gzip(Files.readAllBytes(Paths.get("src/test/resources/train.3")), 40, gz);
+            InputStream in = CompressedInput.open(gz);
+            assertTrue(in.read() >= 0);
+            Thread thread = null;
+            for (Thread t : Thread.getAllStackTraces().keySet()) {
+                if (t.getName().equals("jsvm-decompress-close-early.gz"))
+                    thread = t;
+            }
+            assertNotNull(thread);
+            // about 12 MB, the thread fills the queue and waits for the reader
+            Thread.sleep(200);
+            assertTrue(thread.isAlive());
+            in.close();
+            thread.join(10000);
+            assertFalse(thread.isAlive());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    // copies of data compressed into path
+    private static void gzip(byte[] data, int copies, Path path) throws IOException
+    {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < copies; i++)
+                out.write(data);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    private static void assertProblemEquals(SVMProblem expected, SVMProblem actual)
+    {
+        assertArrayEquals(expected.y, actual.y);
+        assertEquals(expected.getMaxIndex(), actual.getMaxIndex());
+        assertEquals(expected.size(), actual.size());
+        FeatureMatrix x = expected.getMatrix();
+        FeatureMatrix y = actual.getMatrix();
+        for (int i = 0; i < expected.l; i++) {
+            assertEquals(x.length(i), y.length(i));
+            for (int k = 0; k < x.length(i); k++) {
+                assertEquals(x.index(i, k), y.index(i, k));
+                assertEquals(x.value(i, k), y.value(i, k));
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 9:00 PM
+ */
+class DataSourceTest
+{
+    /**
+     * Text, binary and in-memory sources give the rows of the loaded dataset, and can be read again.
+     */
+    @Test
+    void testCursors() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        Path binary = dir.resolve("train.3.bin");
+        try {
+            Path text = Paths.get("src/test/resources/train.3");
+            SVMProblem problem = new SVMProblem(text, FeatureLayout.SPARSE);
+            BinaryDataset.write(problem, binary);
+            DataSource[] sources = {DataSource.of(text), DataSource.of(binary), DataSource.of(problem)};
+            for (DataSource source : sources) {
+                for (int pass = 0; pass < 2; pass++)
+                    assertRows(problem, source);
+            }
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Prediction of a streamed source writes the labels predicted row by row from the loaded dataset.
+     */
+    @Test
+    void testPredict() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        Path data = Paths.get("src/test/resources/train.1");
+        SVMProblem problem = new SVMProblem(data, FeatureLayout.SPARSE);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel model = SVM.train(problem, param);
+
+        Path dir = Files.createTempDirectory("jsvm");
+        Path out = dir.resolve("train.1.predict");
+        try {
+            SVMPredict.predict(DataSource.of(data), model, out.toString(), false);
+            List<String> lines = Files.readAllLines(out);
+            assertEquals(problem.l, lines.size());
+            for (int i = 0; i < problem.l; i++)
+                assertEquals(SVM.predict(model, problem.getMatrix(), i), Double.parseDouble(lines.get(i)));
+        } finally {
+            Files.deleteIfExists(out);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * A row store written from a streamed text file maps the rows of the loaded dataset and trains the same model.
+     */
+    @Test
+    void testStore() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        Path text = Paths.get("src/test/resources/train.1");
+        Path dir = Files.createTempDirectory("jsvm");
+        Path store = dir.resolve("train.1.store");
+        try {
+            SVMProblem expected = new SVMProblem(text, FeatureLayout.SPARSE);
+            SVMProblem stored = BinaryDataset.store(DataSource.of(text), store);
+            assertTrue(stored.getMatrix() instanceof BufferCSRMatrix);
+            assertArrayEquals(expected.y, stored.y);
+            assertRows(expected, DataSource.of(stored));
+
+            SVMParameter param = new SVMParameter();
+            param.setGamma(1.0 / expected.getMaxIndex());
+            SVMModel expectedModel = SVM.train(expected, param);
+            SVMModel model = SVM.train(stored, param);
+            assertArrayEquals(expectedModel.rho, model.rho);
+            assertArrayEquals(expectedModel.sv_indices, model.sv_indices);
+            for (int k = 0; k < expectedModel.sv_coef.length; k++)
+                assertArrayEquals(expectedModel.sv_coef[k], model.sv_coef[k]);
+        } finally {
+            Files.deleteIfExists(store);
+            Files.delete(dir);
+        }
+    }
+
+    private static void assertRows(SVMProblem expected, DataSource source) throws IOException
+    {
+        FeatureMatrix x = expected.getMatrix();
+        try (DataSource.Cursor cursor = source.open()) {
+            for (int i = 0; i < expected.l; i++) {
+                assertTrue(cursor.next());
+                assertEquals(expected.y[i], cursor.label());
+                assertEquals(x.length(i), cursor.length());
+                for (int k = 0; k < x.length(i); k++) {
+                    assertEquals(x.index(i, k), cursor.indices()[k]);
+                    assertEquals(x.value(i, k), cursor.values()[k]);
+                }
+            }
+            assertFalse(cursor.next());
+        }
+    }
+}
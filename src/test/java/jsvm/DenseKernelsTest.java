@@ -0,0 +1,112 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The dense loops agree with the plain loops, the SIMD version only sums in a different order.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 5:40 PM
+ */
+class DenseKernelsTest
+{
+    @Test
+    void testLoops()
+    {
+        Random random = new Random(1);
+        for (int n : new int[]{0, 1, 7, 16, 33, 100, 1001}) {
+            double[] a = random(random, n + 3);
+            double[] b = random(random, n + 5);
+            double dot = 0, dist = 0;
+            for (int k = 0; k < n; k++) {
+                dot += a[k + 3] * b[k + 5];
+                dist += (a[k + 3] - b[k + 5]) * (a[k + 3] - b[k + 5]);
+            }
+            assertEquals(dot, DenseKernels.dot(a, 3, b, 5, n), 1e-12 * n);
+            assertEquals(dist, DenseKernels.squaredDistance(a, 3, b, 5, n), 1e-12 * n);
+
+            double[] x = random(random, n);
+            double[] e = x.clone();
+            DenseKernels.exp(e, 0, n);
+            for (int k = 0; k < n; k++)
+                assertEquals(Math.exp(x[k]), e[k], 1e-15 * Math.exp(x[k]));
+        }
+    }
+
+    @Test
+    void testDenseMatrix()
+    {
+        Random random = new Random(2);
+        double[][] rows = {random(random, 40), random(random, 25), random(random, 40)};
+        SVMNode[][] nodes = new SVMNode[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            nodes[i] = new SVMNode[rows[i].length];
+            for (int k = 0; k < rows[i].length; k++)
+                nodes[i][k] = new SVMNode(k + 1, rows[i][k]);
+        }
+        FeatureMatrix sparse = CSRMatrix.of(nodes, nodes.length);
+        FeatureMatrix dense = DenseMatrix.copyOf(sparse);
+        for (int i = 0; i < rows.length; i++) {
+            for (int j = 0; j < rows.length; j++) {
+                double dot = FeatureMatrix.dot(sparse, i, sparse, j);
+                double dist = FeatureMatrix.squaredDistance(sparse, i, sparse, j);
+                assertEquals(dot, dense.dot(i, j), 1e-12);
+                assertEquals(dot, dense.dot(dense, i, j), 1e-12);
+                assertEquals(dot, dense.dot(sparse, i, j), 1e-12);
+                assertEquals(dist, dense.squaredDistance(dense, i, j), 1e-12);
+                assertEquals(dist, dense.squaredDistance(sparse, i, j), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    @Disabled("benchmark, run by hand")
+    void benchmark()
+    {
+        int n = 512, rounds = 200_000;
+        Random random = new Random(3);
+        double[] a = random(random, n);
+        double[] b = random(random, n);
+        double[] x = new double[n];
+        double sum = 0;
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            for (int r = 0; r < rounds; r++)
+                sum += DenseKernels.dot(a, 0, b, 0, n);
+            long dot = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++)
+                sum += DenseKernels.squaredDistance(a, 0, b, 0, n);
+            long dist = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds / 10; r++) {
+                for (int k = 0; k < n; k++)
+                    x[k] = -a[k] * b[k];
+                DenseKernels.exp(x, 0, n);
+                sum += x[r % n];
+            }
+            long exp = System.nanoTime() - start;
+            System.out.printf("vectorized %b, n %d: dot %.1f ns, squared distance %.1f ns, exp %.1f ns%n",
+                    DenseKernels.isVectorized(), n, (double) dot / rounds, (double) dist / rounds,
+                    (double) exp * 10 / rounds);
+        }
+        System.out.println(sum);
+    }
+
+    private static double[] random(Random random, int n)
+    {
+        double[] a = new double[n];
+        for (int k = 0; k < n; k++)
+            a[k] = random.nextGaussian();
+        return a;
+    }
+}
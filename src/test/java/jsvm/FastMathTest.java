@@ -0,0 +1,101 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 9:50 PM
+ */
+class FastMathTest
+{
+    @Test
+    void testError()
+    {
+        Random random = new Random(1);
+        double exp = 0, tanh = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            double x = i % 2 == 0 ? -50 * random.nextDouble() : 1400 * random.nextDouble() - 700;
+            exp = Math.max(exp, Math.abs(FastMath.exp(x) / Math.exp(x) - 1));
+            double y = i % 2 == 0 ? 0.2 * random.nextGaussian() : 25 * random.nextGaussian();
+            tanh = Math.max(tanh, Math.abs(FastMath.tanh(y) / Math.tanh(y) - 1));
+        }
+        assertTrue(exp <= 1e-15, "exp " + exp);
+        assertTrue(tanh <= 1e-14, "tanh " + tanh);
+
+        assertEquals(1, FastMath.exp(0));
+        assertEquals(0, FastMath.exp(-1000));
+        assertEquals(Double.POSITIVE_INFINITY, FastMath.exp(1000));
+        assertTrue(Double.isNaN(FastMath.exp(Double.NaN)));
+        assertEquals(0, FastMath.tanh(0));
+        assertEquals(-1, FastMath.tanh(-30));
+        assertTrue(Double.isNaN(FastMath.tanh(Double.NaN)));
+    }
+
+    /**
+     * The approximations give the same models on the bundled datasets.
+     */
+    @Test
+    void testModels() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        for (int n = 1; n <= 3; n++) {
+            SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train." + n));
+            for (KernelType type : new KernelType[]{KernelType.RBF, KernelType.SIGMOID}) {
+                SVMParameter param = new SVMParameter();
+                param.setKernelType(type);
+                param.setGamma(1.0 / problem.getMaxIndex());
+                SVMModel expected = SVM.train(problem, param);
+                param.setFastMath(true);
+                SVMModel model = SVM.train(problem, param);
+                assertArrayEquals(expected.nSV, model.nSV);
+                assertArrayEquals(expected.rho, model.rho);
+                for (int k = 0; k < expected.sv_coef.length; k++)
+                    assertArrayEquals(expected.sv_coef[k], model.sv_coef[k]);
+            }
+        }
+    }
+
+    @Test
+    @Disabled("benchmark, run by hand")
+    void benchmark()
+    {
+        int n = 10_000_000;
+        double[] x = new double[n];
+        Random random = new Random(2);
+        for (int i = 0; i < n; i++)
+            x[i] = -10 * random.nextDouble();
+        double sum = 0;
+        for (int warm = 0; warm < 2; warm++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                sum += Math.exp(x[i]);
+            long exp = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                sum += FastMath.exp(x[i]);
+            long fastExp = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                sum += Math.tanh(x[i] + 5);
+            long tanh = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++)
+                sum += FastMath.tanh(x[i] + 5);
+            long fastTanh = System.nanoTime() - start;
+            System.out.printf("exp %.1f ns -> %.1f ns, tanh %.1f ns -> %.1f ns%n", (double) exp / n,
+                    (double) fastExp / n, (double) tanh / n, (double) fastTanh / n);
+        }
+        System.out.println(sum);
+    }
+}
@@ -0,0 +1,94 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 2:30 PM
+ */
+class FeatureHashingTest
+{
+    private static final long ID_BASE = 5_000_000_000L;
+    private static final long ID_STEP = 1_000_000_007L;
+
+    @Test
+    void testHashRow()
+    {
+        FeatureHashing hashing = new FeatureHashing(4);
+        long[] ids = {ID_BASE, ID_BASE + 1, ID_BASE + 2, ID_BASE + 3, ID_BASE + 4, ID_BASE + 5};
+        double[] values = {1, 2, 3, 4, 5, 6};
+        TreeMap<Integer, Double> expected = new TreeMap<>();
+        for (int k = 0; k < ids.length; k++)
+            expected.merge(hashing.bucket(ids[k]), values[k], Double::sum);
+
+        int[] indices = new int[ids.length];
+        double[] hashed = new double[ids.length];
+        int n = hashing.hashRow(ids, values, ids.length, indices, hashed);
+        assertEquals(expected.size(), n);
+        int k = 0;
+        for (int index : expected.keySet()) {
+            assertTrue(index >= 1 && index <= 4);
+            assertEquals(index, indices[k]);
+            assertEquals((double) expected.get(index), hashed[k++]);
+        }
+    }
+
+    /**
+     * Train on features with ids beyond the int range, and predict the same file through the saved model.
+     */
+    @Test
+    void testTrainAndPredict() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        Path dir = Files.createTempDirectory("jsvm");
+        Path data = dir.resolve("train.hashed");
+        Path modelFile = dir.resolve("train.model");
+        Path out = dir.resolve("train.predict");
+        try {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(data))) {
+                for (String line : Files.readAllLines(Paths.get("src/test/resources/train.3"))) {
+                    String[] tokens = line.trim().split("\\s+");
+                    writer.print(tokens[0]);
+                    for (int t = 1; t < tokens.length; t++) {
+                        String[] pair = tokens[t].split(":");
+                        writer.print(" " + (ID_BASE + ID_STEP * Long.parseLong(pair[0])) + ":" + pair[1]);
+                    }
+                    writer.println();
+                }
+            }
+
+            FeatureHashing hashing = new FeatureHashing(1 << 10);
+            SVMProblem problem = new SVMProblem(data, hashing);
+            assertTrue(problem.getMaxIndex() <= hashing.getBuckets());
+            SVMParameter param = new SVMParameter();
+            param.setGamma(1.0 / 22);
+            SVMModel model = SVM.train(problem, param);
+            model.saveModel(modelFile.toString());
+            assertEquals(hashing, new SVMModel(modelFile.toString()).getFeatureHashing());
+
+            SVMPredict.predict(data.toString(), modelFile.toString(), out.toString(), false);
+            List<String> predictions = Files.readAllLines(out);
+            assertEquals(problem.l, predictions.size());
+            for (int i = 0; i < problem.l; i++)
+                assertEquals(SVM.predict(model, problem.getMatrix(), i), Double.parseDouble(predictions.get(i)));
+        } finally {
+            Files.deleteIfExists(out);
+            Files.deleteIfExists(modelFile);
+            Files.deleteIfExists(data);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The layout chosen in {@link FeatureLayout#AUTO} mode.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 23 Oct 2026, 11:20 AM
+ */
+class FeatureLayoutTest
+{
+    /**
+     * A dense file is stored densely, a sparse file and a precomputed kernel file with few zeros stay sparse.
+     */
+    @Test
+    void testFiles() throws IOException
+    {
+        assertTrue(new SVMProblem(Paths.get("src/test/resources/train.3")).isDense());
+        assertFalse(new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE).isDense());
+
+        Path dir = Files.createTempDirectory("jsvm");
+        Path sparse = dir.resolve("sparse");
+        Path precomputed = dir.resolve("precomputed");
+        try {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 100; i++)
+                text.append(i % 2 == 0 ? "1" : "-1").append(' ').append(i % 10 + 1).append(":1 20:0.5\n");
+            Files.write(sparse, text.toString().getBytes(StandardCharsets.US_ASCII));
+            Files.write(precomputed, "1 0:1 1:1 2:0.5\n-1 0:2 1:0.5 2:1\n".getBytes(StandardCharsets.US_ASCII));
+            assertFalse(new SVMProblem(sparse).isDense());
+            assertFalse(new SVMProblem(precomputed).isDense());
+        } finally {
+            Files.deleteIfExists(sparse);
+            Files.deleteIfExists(precomputed);
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * The dense layout is chosen from {@link FeatureLayout#DENSE_THRESHOLD} of the values up.
+     */
+    @Test
+    void testThreshold()
+    {
+        SVMNode[][] half = {{new SVMNode(1, 1), new SVMNode(2, 1), new SVMNode(3, 1), new SVMNode(4, 1)}, {}};
+        assertTrue(FeatureLayout.AUTO.apply(CSRMatrix.of(half, 2)) instanceof DenseMatrix);
+        SVMNode[][] below = {{new SVMNode(1, 1), new SVMNode(2, 1), new SVMNode(4, 1)}, {}};
+        CSRMatrix sparse = CSRMatrix.of(below, 2);
+        assertSame(sparse, FeatureLayout.AUTO.apply(sparse));
+
+        SVMProblem problem = new SVMProblem(new double[]{1, -1}, CSRMatrix.of(half, 2));
+        assertFalse(problem.isDense());
+        problem.setLayout(FeatureLayout.AUTO);
+        assertTrue(problem.isDense());
+    }
+
+    /**
+     * Rows whose dense storage would not fit in an array stay sparse, however dense they are.
+     */
+    @Test
+    void testOverflow()
+    {
+        FeatureMatrix huge = new FeatureMatrix()
+        {
+            @Override
+            public int rows()
+            {
+                return 4;
+            }
+
+            @Override
+            public int getMaxIndex()
+            {
+                return 1 << 30;
+            }
+
+            @Override
+            public int length(int row)
+            {
+                return 1 << 30;
+            }
+
+            @Override
+            public int index(int row, int k)
+            {
+                return k + 1;
+            }
+
+            @Override
+            public double value(int row, int k)
+            {
+                return 1;
+            }
+        };
+        assertSame(huge, FeatureLayout.AUTO.apply(huge));
+    }
+}
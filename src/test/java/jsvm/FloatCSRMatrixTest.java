@@ -0,0 +1,83 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Accuracy parity of single precision storage with double storage.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 9:30 PM
+ */
+class FloatCSRMatrixTest
+{
+    @Test
+    void testTrain1()
+    {
+        testParity("src/test/resources/train.1");
+    }
+
+    @Test
+    void testTrain2()
+    {
+        testParity("src/test/resources/train.2");
+    }
+
+    @Test
+    void testTrain3()
+    {
+        testParity("src/test/resources/train.3");
+    }
+
+    @Test
+    void testKernelValues()
+    {
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"));
+        FeatureMatrix x = problem.getMatrix();
+        FloatCSRMatrix f = FloatCSRMatrix.copyOf(x);
+        for (int i = 0; i < problem.l; i += 7) {
+            for (int j = 0; j < problem.l; j += 11) {
+                double expected = x.dot(i, j);
+                assertEquals(expected, f.dot(i, j), 1e-6 * Math.max(1, Math.abs(expected)));
+            }
+        }
+    }
+
+    private void testParity(String file)
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get(file));
+        SVMProblem floatProblem = new SVMProblem(Paths.get(file));
+        floatProblem.useFloatStorage();
+        assertTrue(floatProblem.isFloatStorage());
+
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel model = SVM.train(problem, param);
+        SVMModel floatModel = SVM.train(floatProblem, param);
+        assertTrue(floatModel.getSVMatrix() instanceof FloatCSRMatrix);
+
+        int correct = 0;
+        int floatCorrect = 0;
+        int agree = 0;
+        for (int i = 0; i < problem.l; i++) {
+            double label = SVM.predict(model, problem.getMatrix(), i);
+            double floatLabel = SVM.predict(floatModel, floatProblem.getMatrix(), i);
+            if (label == problem.y[i])
+                correct++;
+            if (floatLabel == problem.y[i])
+                floatCorrect++;
+            if (label == floatLabel)
+                agree++;
+        }
+        assertTrue(Math.abs(correct - floatCorrect) <= problem.l / 200, "accuracy differs");
+        assertTrue(agree >= problem.l * 0.99, "predictions differ");
+        assertEquals(model.getNumberOfSV(), floatModel.getNumberOfSV(), problem.l / 100.0);
+    }
+}
@@ -0,0 +1,133 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Training on a precomputed RBF kernel matrix gives the same model as the RBF kernel, in all storages of the matrix.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 4:20 PM
+ */
+class KernelMatrixTest
+{
+    @Test
+    void testStorages() throws IOException, ClassNotFoundException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.2"), FeatureLayout.SPARSE);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel expected = SVM.train(problem, param);
+        double[][] k = rbf(problem, param.getGamma());
+
+        SVMParameter precomputed = new SVMParameter(param);
+        precomputed.kernelType = KernelType.PRECOMPUTED;
+        assertSame(expected, SVM.train(new SVMProblem(problem.y, KernelMatrix.of(k)), precomputed));
+
+        Path dir = Files.createTempDirectory("jsvm");
+        Path text = dir.resolve("kernel.txt");
+        Path binary = dir.resolve("kernel.bin");
+        try {
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(text))) {
+                for (int i = 0; i < k.length; i++) {
+                    writer.print(problem.y[i] + " 0:" + (i + 1));
+                    for (int j = 0; j < k.length; j++)
+                        writer.print(" " + (j + 1) + ":" + k[i][j]);
+                    writer.println();
+                }
+            }
+            SVMProblem parsed = new SVMProblem(text);
+            assertSame(expected, SVM.train(parsed, precomputed));
+
+            KernelMatrix.convert(text, binary, false, false);
+            SVMProblem mapped = new SVMProblem(binary);
+            assertTrue(mapped.getMatrix() instanceof KernelMatrix);
+            assertArrayEquals(problem.y, mapped.y);
+            SVMModel model = SVM.train(mapped, precomputed);
+            assertSame(expected, model);
+            for (int i = 0; i < problem.l; i++)
+                assertEquals(SVM.predict(expected, problem.getMatrix(), i), SVM.predict(model, mapped.getMatrix(), i));
+            assertSame(expected, SVM.train(serialize(mapped), precomputed));
+
+            KernelMatrix.write(problem.y, KernelMatrix.of(k), binary, false, true);
+            assertSame(expected, SVM.train(new SVMProblem(binary), precomputed));
+
+            // single precision, the values are rounded
+            KernelMatrix.convert(text, binary, true, true);
+            KernelMatrix f = (KernelMatrix) new SVMProblem(binary).getMatrix();
+            for (int i = 0; i < k.length; i++) {
+                for (int j = 0; j < k.length; j++)
+                    assertEquals((float) k[i][j], f.get(i, j));
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testFloatArray()
+    {
+        double[][] k = {{1, 0.5}, {0.5, 1}, {0.25, 0.75}};
+        float[] data = {1, 0.5f, 0.5f, 1, 0.25f, 0.75f};
+        KernelMatrix a = KernelMatrix.of(k);
+        KernelMatrix f = KernelMatrix.of(data, 3, 2);
+        assertEquals(2, f.getMaxIndex());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, f.value(i, 0));
+            for (int j = 0; j < 2; j++)
+                assertEquals(a.value(i, j + 1), f.value(i, j + 1));
+        }
+    }
+
+    /**
+     * RBF kernel in the same arithmetic as the solver.
+     */
+    private static double[][] rbf(SVMProblem problem, double gamma)
+    {
+        FeatureMatrix x = problem.getMatrix();
+        double[][] k = new double[problem.l][problem.l];
+        for (int i = 0; i < problem.l; i++) {
+            for (int j = 0; j < problem.l; j++)
+                k[i][j] = Math.exp(-gamma * (x.dot(i, i) + x.dot(j, j) - 2 * x.dot(i, j)));
+        }
+        return k;
+    }
+
+    private static void assertSame(SVMModel expected, SVMModel actual)
+    {
+        assertArrayEquals(expected.rho, actual.rho);
+        assertArrayEquals(expected.nSV, actual.nSV);
+        for (int k = 0; k < expected.sv_coef.length; k++)
+            assertArrayEquals(expected.sv_coef[k], actual.sv_coef[k]);
+    }
+
+    // a copy of the problem through Java serialization
+    private static SVMProblem serialize(SVMProblem problem) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(problem);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (SVMProblem) in.readObject();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Columns computed in tiles are the same as the kernel values computed one by one, for every kernel and layout.
+ *
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 19 Oct 2026, 7:15 PM
+ */
+class KernelTest
+{
+    @Test
+    void testColumns() throws IOException
+    {
+        FeatureLayout[] layouts = {FeatureLayout.SPARSE, FeatureLayout.DENSE, FeatureLayout.VARINT};
+        KernelType[] types = {KernelType.LINEAR, KernelType.POLY, KernelType.RBF, KernelType.SIGMOID};
+        for (FeatureLayout layout : layouts) {
+            SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), layout);
+            for (KernelType type : types) {
+                SVMParameter param = new SVMParameter();
+                param.setKernelType(type);
+                param.setGamma(1.0 / problem.getMaxIndex());
+                param.setCacheSize(1);
+                ONE_CLASS_Q q = new ONE_CLASS_Q(problem, param);
+                int[] columns = new int[40];
+                for (int b = 0; b < columns.length; b++)
+                    columns[b] = 3 * b;
+                float[][] Q = q.get_Q(columns, columns.length, problem.l);
+                for (int b = 0; b < columns.length; b++) {
+                    for (int j = 0; j < problem.l; j++)
+                        assertEquals((float) q.kernel_function(columns[b], j), Q[b][j], layout + " " + type);
+                }
+            }
+        }
+    }
+
+    /**
+     * Columns filled in parallel give the same models, bit for bit.
+     */
+    @Test
+    void testParallel() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (SVMType type : new SVMType[]{SVMType.C_SVC, SVMType.NU_SVC, SVMType.EPSILON_SVR}) {
+                SVMParameter param = new SVMParameter();
+                param.setSVMType(type);
+                param.setGamma(1.0 / problem.getMaxIndex());
+                param.setCacheSize(1);
+                SVMModel expected = SVM.train(problem, param);
+
+                param.setPool(pool);
+                param.setParallelThreshold(1);
+                SVMModel model = SVM.train(problem, param);
+                assertArrayEquals(expected.rho, model.rho);
+                for (int k = 0; k < expected.sv_coef.length; k++)
+                    assertArrayEquals(expected.sv_coef[k], model.sv_coef[k]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The whole Q in memory has the same columns as the cache, also after swaps, and gives the same models.
+     */
+    @Test
+    void testFullQ() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        byte[] y = new byte[problem.l];
+        for (int i = 0; i < problem.l; i++)
+            y[i] = (byte) (problem.y[i] > 0 ? 1 : -1);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        param.setCacheSize(1);
+        SVC_Q cached = new SVC_Q(problem, param, y);
+        param.setCacheSize(100);
+        SVC_Q full = new SVC_Q(problem, param, y);
+        for (int k = 0; k < 100; k++) {
+            int i = (k * 37) % problem.l;
+            int j = (k * 101 + 7) % problem.l;
+            cached.swap_index(i, j);
+            full.swap_index(i, j);
+        }
+        for (int i = 0; i < problem.l; i += 11)
+            assertArrayEquals(cached.get_Q(i, problem.l), full.get_Q(i, problem.l));
+
+        SVMType[] types = {SVMType.C_SVC, SVMType.NU_SVC, SVMType.ONE_CLASS, SVMType.EPSILON_SVR};
+        for (SVMType type : types) {
+            param.setSVMType(type);
+            param.setCacheSize(1);
+            SVMModel expected = SVM.train(problem, param);
+            param.setCacheSize(100);
+            SVMModel model = SVM.train(problem, param);
+            assertArrayEquals(expected.rho, model.rho);
+            for (int k = 0; k < expected.sv_coef.length; k++)
+                assertArrayEquals(expected.sv_coef[k], model.sv_coef[k]);
+        }
+    }
+
+    /**
+     * The cache in direct memory has the same columns as the heap cache, also after swaps of partly cached columns
+     * and evictions, and gives the same models.
+     */
+    @Test
+    void testOffHeapCache() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.1"), FeatureLayout.SPARSE);
+        int l = problem.l;
+        byte[] y = new byte[l];
+        for (int i = 0; i < l; i++)
+            y[i] = (byte) (problem.y[i] > 0 ? 1 : -1);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        param.setCacheSize(0.1);
+        SVC_Q heap = new SVC_Q(problem, param, y);
+        param.setOffHeapCache(true);
+        SVC_Q offHeap = new SVC_Q(problem, param, y);
+        for (int k = 0; k < 200; k++) {
+            int i = (k * 37) % l;
+            int len = l / 2 + (k * 13) % (l / 2);
+            assertArrayEquals(Arrays.copyOf(heap.get_Q(i, len), len), Arrays.copyOf(offHeap.get_Q(i, len), len));
+            int j = (k * 101 + 7) % l;
+            heap.swap_index(i, j);
+            offHeap.swap_index(i, j);
+        }
+        int[] columns = {3, 5, 8, 13, 21};
+        float[][] expected = heap.get_Q(columns, columns.length, l);
+        float[][] actual = offHeap.get_Q(columns, columns.length, l);
+        for (int b = 0; b < columns.length; b++)
+            assertArrayEquals(expected[b], actual[b]);
+
+        SVMType[] types = {SVMType.C_SVC, SVMType.NU_SVC, SVMType.ONE_CLASS, SVMType.EPSILON_SVR};
+        for (SVMType type : types) {
+            param.setSVMType(type);
+            param.setOffHeapCache(false);
+            SVMModel expectedModel = SVM.train(problem, param);
+            param.setOffHeapCache(true);
+            SVMModel model = SVM.train(problem, param);
+            assertArrayEquals(expectedModel.rho, model.rho);
+            for (int k = 0; k < expectedModel.sv_coef.length; k++)
+                assertArrayEquals(expectedModel.sv_coef[k], model.sv_coef[k]);
+        }
+    }
+
+    /**
+     * RBF decision values from the squared norms of the support vectors agree with the ones from the distances.
+     */
+    @Test
+    void testSquaredNorms() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel model = SVM.train(problem, param);
+        FeatureMatrix sv = model.getSVMatrix();
+        double[] dec = new double[1];
+        for (int i = 0; i < problem.l; i++) {
+            SVMNode[] x = problem.getMatrix().row(i);
+            double expected = -model.rho[0];
+            for (int j = 0; j < model.l; j++)
+                expected += model.sv_coef[0][j] * Math.exp(-param.getGamma() * sv.squaredDistance(x, j));
+            SVM.predictValues(model, x, dec);
+            assertEquals(expected, dec[0], 1e-10);
+            SVM.predictValues(model, problem.getMatrix(), i, dec);
+            assertEquals(expected, dec[0], 1e-10);
+        }
+    }
+
+    /**
+     * A custom kernel evaluated value by value gives the same model as the built-in kernel it reproduces, and the
+     * model can not be saved in the LIBSVM format.
+     */
+    @Test
+    void testKernelFunction() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMParameter param = new SVMParameter();
+        double gamma = 1.0 / problem.getMaxIndex();
+        param.setGamma(gamma);
+        param.setCacheSize(1);
+        SVMModel expected = SVM.train(problem, param);
+
+        param.setKernelFunction(new KernelFunction()
+        {
+            @Override
+            public double value(double dot, double uSquare, double vSquare)
+            {
+                return Math.exp(-gamma * Math.max(uSquare + vSquare - 2 * dot, 0));
+            }
+
+            @Override
+            public boolean usesSquares()
+            {
+                return true;
+            }
+        });
+        SVMModel model = SVM.train(problem, param);
+        assertArrayEquals(expected.rho, model.rho);
+        assertArrayEquals(expected.sv_coef[0], model.sv_coef[0]);
+        double[] expectedDec = new double[1];
+        double[] dec = new double[1];
+        for (int i = 0; i < problem.l; i++) {
+            SVM.predictValues(expected, problem.getMatrix(), i, expectedDec);
+            SVM.predictValues(model, problem.getMatrix(), i, dec);
+            assertEquals(expectedDec[0], dec[0]);
+        }
+
+        Path dir = Files.createTempDirectory("jsvm");
+        Path modelFile = dir.resolve("custom.model");
+        try {
+            assertThrows(IllegalStateException.class, () -> model.saveModel(modelFile.toString()));
+        } finally {
+            Files.deleteIfExists(modelFile);
+            Files.deleteIfExists(dir);
+        }
+        param.setKernelType(KernelType.PRECOMPUTED);
+        assertNotNull(SVM.checkParameter(problem, param));
+    }
+
+    @Test
+    void testScatterStride()
+    {
+        SVMNode[][] rows = {{new SVMNode(1, 1), new SVMNode(3, 2)}, {new SVMNode(1 << 19, 1)}};
+        assertEquals(4, KernelValues.scatterStride(CSRMatrix.of(rows, 1)));
+        assertEquals((1 << 19) + 1, KernelValues.scatterStride(CSRMatrix.of(rows, 2)));
+
+        // a large scratch is only used for sparse rows
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(1, 300);
+        for (int k = 1; k <= 300; k++)
+            builder.add(k * 1000, 1);
+        builder.endRow();
+        assertEquals(0, KernelValues.scatterStride(builder.build()));
+
+        SVMNode[][] negative = {{new SVMNode(-1, 1), new SVMNode(3, 2)}};
+        assertEquals(0, KernelValues.scatterStride(CSRMatrix.of(negative, 1)));
+    }
+
+    /**
+     * A deserialized model chooses its scatter stride again and predicts the same values.
+     */
+    @Test
+    void testSerializedModel() throws IOException, ClassNotFoundException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        SVMModel model = SVM.train(problem, param);
+        assertTrue(model.getScatterStride() > 0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(model);
+        }
+        SVMModel copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (SVMModel) in.readObject();
+        }
+        assertEquals(model.getScatterStride(), copy.getScatterStride());
+        double[] dec = new double[1];
+        double[] copyDec = new double[1];
+        for (int i = 0; i < problem.l; i++) {
+            SVM.predictValues(model, problem.getMatrix(), i, dec);
+            SVM.predictValues(copy, problem.getMatrix(), i, copyDec);
+            assertEquals(dec[0], copyDec[0]);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 2:10 PM
+ */
+class NystroemTest
+{
+    /**
+     * The features reproduce the kernel matrix of the landmarks, and the folded coefficients give the same decision
+     * values as the weights of the features.
+     */
+    @Test
+    void testFactor()
+    {
+        double[][] c = {{0, 0}, {1, 0}, {0, 1}, {1, 1}, {1, 1}};
+        int m = c.length;
+        double[][] K = new double[m][m];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                double dx = c[i][0] - c[j][0], dy = c[i][1] - c[j][1];
+                K[i][j] = Math.exp(-0.5 * (dx * dx + dy * dy));
+            }
+        }
+        int[] kept = new int[m];
+        double[][] L = Nystroem.cholesky(K, kept);
+        assertArrayEquals(new int[]{0, 1, 2, 3, -1}, kept);
+
+        float[][] z = new float[m][];
+        for (int i = 0; i < m; i++)
+            z[i] = Nystroem.features(L, kept, 4, K[i], new double[m]);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                double dot = 0;
+                for (int k = 0; k < 4; k++)
+                    dot += (double) z[i][k] * z[j][k];
+                assertEquals(K[i][j], dot, 1e-6);
+            }
+        }
+
+        double[] w = {0.5, -1, 2, 0.25};
+        double[] coef = Nystroem.fold(L, kept, 4, w);
+        for (int i = 0; i < m; i++) {
+            double expected = 0;
+            double actual = 0;
+            for (int k = 0; k < 4; k++) {
+                expected += w[k] * z[i][k];
+                actual += coef[k] * K[i][k];
+            }
+            assertEquals(expected, actual, 1e-6);
+        }
+    }
+
+    /**
+     * The approximation is close to the exact kernel, the model survives a round trip through a file, and it does
+     * not depend on the number of threads.
+     */
+    @Test
+    void testTrain() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        for (String file : new String[]{"train.2", "train.3"}) {
+            SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/" + file));
+            SVMParameter param = new SVMParameter();
+            param.setGamma(1.0 / problem.getMaxIndex());
+            double exact = accuracy(SVM.train(problem, param), problem);
+
+            for (LandmarkSelection selection : LandmarkSelection.values()) {
+                param.setLandmarks(128);
+                param.setLandmarkSelection(selection);
+                param.setPool(null);
+                SVM.rand.setSeed(1);
+                SVMModel model = SVM.train(problem, param);
+                assertTrue(model.isLandmarkModel());
+                assertTrue(model.l <= 128);
+                assertTrue(accuracy(model, problem) > exact - 0.03, file + " " + selection);
+
+                ForkJoinPool pool = new ForkJoinPool(4);
+                try {
+                    param.setPool(pool);
+                    SVM.rand.setSeed(1);
+                    SVMModel parallel = SVM.train(problem, param);
+                    assertArrayEquals(model.rho, parallel.rho);
+                    for (int k = 0; k < model.landmarkCoef.length; k++)
+                        assertArrayEquals(model.landmarkCoef[k], parallel.landmarkCoef[k]);
+                } finally {
+                    pool.shutdown();
+                }
+
+                Path dir = Files.createTempDirectory("jsvm");
+                Path modelFile = dir.resolve("nystroem.model");
+                try {
+                    model.saveModel(modelFile.toString());
+                    SVMModel loaded = new SVMModel(modelFile.toString());
+                    assertTrue(loaded.isLandmarkModel());
+                    for (int i = 0; i < problem.l; i++)
+                        assertEquals(SVM.predict(model, problem.getMatrix(), i),
+                                SVM.predict(loaded, problem.getMatrix(), i));
+                } finally {
+                    Files.deleteIfExists(modelFile);
+                    Files.deleteIfExists(dir);
+                }
+            }
+        }
+    }
+
+    private static double accuracy(SVMModel model, SVMProblem problem)
+    {
+        int correct = 0;
+        for (int i = 0; i < problem.l; i++) {
+            if (SVM.predict(model, problem.getMatrix(), i) == problem.y[i])
+                correct++;
+        }
+        return (double) correct / problem.l;
+    }
+}
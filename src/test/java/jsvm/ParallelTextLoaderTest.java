@@ -0,0 +1,88 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 4:50 PM
+ */
+class ParallelTextLoaderTest
+{
+    /**
+     * Many small chunks, down to a line each, give the same dataset as a single chunk.
+     */
+    @Test
+    void testChunks() throws IOException
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int n = 1; n <= 3; n++) {
+                Path path = Paths.get("src/test/resources/train." + n);
+                SVMProblem expected = ParallelTextLoader.load(path, pool, null, Long.MAX_VALUE);
+                for (long chunkSize : new long[]{1, 100, 4096, 65536})
+                    assertProblemEquals(expected, ParallelTextLoader.load(path, pool, null, chunkSize));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A file without a line feed after the last line, and one with blank lines, which are skipped.
+     */
+    @Test
+    void testLineEnds() throws IOException
+    {
+        Path dir = Files.createTempDirectory("jsvm");
+        Path noTrailing = dir.resolve("no_trailing");
+        Path blank = dir.resolve("blank");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Files.write(noTrailing, "1 1:0.5 3:1\n-1 2:0.25\n1 1:1 4:-2".getBytes(StandardCharsets.US_ASCII));
+            Files.write(blank, "\n\n1 1:0.5 3:1\n\n\n-1 2:0.25\n\n1 1:1 4:-2\n\n".getBytes(StandardCharsets.US_ASCII));
+            for (Path path : new Path[]{noTrailing, blank}) {
+                SVMProblem expected = ParallelTextLoader.load(path, pool, null, Long.MAX_VALUE);
+                assertEquals(3, expected.l);
+                assertEquals(5, expected.size());
+                assertEquals(4, expected.getMaxIndex());
+                assertArrayEquals(new double[]{1, -1, 1}, expected.y);
+                for (long chunkSize = 1; chunkSize <= 12; chunkSize++)
+                    assertProblemEquals(expected, ParallelTextLoader.load(path, pool, null, chunkSize));
+            }
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(noTrailing);
+            Files.deleteIfExists(blank);
+            Files.delete(dir);
+        }
+    }
+
+    private static void assertProblemEquals(SVMProblem expected, SVMProblem actual)
+    {
+        assertEquals(expected.l, actual.l);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getMaxIndex(), actual.getMaxIndex());
+        assertArrayEquals(expected.y, actual.y);
+        for (int i = 0; i < expected.l; i++) {
+            SVMNode[] x = expected.getMatrix().row(i);
+            SVMNode[] z = actual.getMatrix().row(i);
+            assertEquals(x.length, z.length);
+            for (int k = 0; k < x.length; k++) {
+                assertEquals(x[k].index, z[k].index);
+                assertEquals(x[k].value, z[k].value);
+            }
+        }
+    }
+}
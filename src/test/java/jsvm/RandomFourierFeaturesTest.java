@@ -0,0 +1,189 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 20 Oct 2026, 5:10 PM
+ */
+class RandomFourierFeaturesTest
+{
+    /**
+     * Dot products of the features approximate the RBF kernel, and feature indices beyond the training data get the
+     * same random weights as in a map built for them.
+     */
+    @Test
+    void testKernel() throws IOException
+    {
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"));
+        FeatureMatrix x = problem.getMatrix();
+        double gamma = 1.0 / problem.getMaxIndex();
+        int dimension = 4096;
+        RandomFourierFeatures map = new RandomFourierFeatures(dimension, gamma, 42, x.getMaxIndex());
+        double[][] z = new double[20][dimension];
+        for (int i = 0; i < z.length; i++) {
+            map.map(x, i * 50, z[i]);
+            double[] nodes = new double[dimension];
+            map.map(x.row(i * 50), nodes);
+            assertArrayEquals(z[i], nodes);
+        }
+        for (int i = 0; i < z.length; i++) {
+            for (int j = 0; j < z.length; j++) {
+                double dot = 0;
+                for (int k = 0; k < dimension; k++)
+                    dot += z[i][k] * z[j][k];
+                double expected = Math.exp(-gamma * FeatureMatrix.squaredDistance(x, i * 50, x, j * 50));
+                assertEquals(expected, dot, 0.1);
+            }
+        }
+
+        SVMNode[] beyond = {new SVMNode(1, 0.5), new SVMNode(x.getMaxIndex() + 3, -0.25)};
+        double[] expected = new double[dimension];
+        new RandomFourierFeatures(dimension, gamma, 42, x.getMaxIndex() + 3).map(beyond, expected);
+        double[] actual = new double[dimension];
+        map.map(beyond, actual);
+        assertArrayEquals(expected, actual);
+
+        // the table of the weights is capped, larger feature indices are generated
+        RandomFourierFeatures wide = new RandomFourierFeatures(64, gamma, 42, Integer.MAX_VALUE - 1);
+        RandomFourierFeatures narrow = new RandomFourierFeatures(64, gamma, 42, x.getMaxIndex());
+        SVMNode[] far = {new SVMNode(1, 0.5), new SVMNode(1 << 20, -0.25), new SVMNode(Integer.MAX_VALUE - 1, 2)};
+        expected = new double[64];
+        narrow.map(far, expected);
+        actual = new double[64];
+        wide.map(far, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    /**
+     * The model is close to the exact kernel, survives a round trip through a file, and does not depend on the
+     * number of threads.
+     */
+    @Test
+    void testTrain() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"));
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        double exact = accuracy(SVM.train(problem, param), problem);
+
+        param.setFourierFeatures(512);
+        SVM.rand.setSeed(1);
+        SVMModel model = SVM.train(problem, param);
+        assertTrue(model.isFourierModel());
+        assertTrue(accuracy(model, problem) > exact - 0.03);
+
+        // the feature rows of the data are checked against the heap, not the largest feature index
+        param.setFourierFeatures(Integer.MAX_VALUE);
+        assertNotNull(SVM.checkParameter(problem, param));
+        SVMNode[][] hashed = {{new SVMNode(1, 0.5), new SVMNode(100000000, 1)}, {new SVMNode(7, -1)}};
+        SVMProblem wide = new SVMProblem(new double[]{1, -1}, CSRMatrix.of(hashed, 2));
+        param.setFourierFeatures(64);
+        assertNull(SVM.checkParameter(wide, param));
+        param.setFourierFeatures(512);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            param.setPool(pool);
+            SVM.rand.setSeed(1);
+            SVMModel parallel = SVM.train(problem, param);
+            assertArrayEquals(model.rho, parallel.rho);
+            assertArrayEquals(model.fourierCoef[0], parallel.fourierCoef[0]);
+        } finally {
+            pool.shutdown();
+        }
+
+        Path dir = Files.createTempDirectory("jsvm");
+        Path modelFile = dir.resolve("fourier.model");
+        try {
+            model.saveModel(modelFile.toString());
+            SVMModel loaded = new SVMModel(modelFile.toString());
+            assertTrue(loaded.isFourierModel());
+            double[] dec = new double[1];
+            double[] loadedDec = new double[1];
+            for (int i = 0; i < problem.l; i++) {
+                SVM.predictValues(model, problem.getMatrix(), i, dec);
+                SVM.predictValues(loaded, problem.getMatrix().row(i), loadedDec);
+                assertEquals(dec[0], loadedDec[0]);
+            }
+        } finally {
+            Files.deleteIfExists(modelFile);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Cross validation accuracy, training time and model file size of the exact RBF kernel and of random Fourier
+     * features, on the scaled data with the parameters of the libsvm guide.
+     */
+    @Test
+    @Disabled("benchmark, run by hand")
+    void benchmark() throws IOException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        Path dir = Files.createTempDirectory("jsvm");
+        Path range = dir.resolve("train.range");
+        Path scaled = dir.resolve("train.scale");
+        Path modelFile = dir.resolve("train.model");
+        try {
+            String[] files = {"train.1", "train.3"};
+            double[][] cg = {{2, 2}, {128, 0.125}};
+            for (int f = 0; f < files.length; f++) {
+                new SVMScale().scaleTrain("src/test/resources/" + files[f], range.toString(), scaled.toString());
+                SVMProblem problem = new SVMProblem(scaled);
+                for (int dimension : new int[]{0, 64, 256, 1024}) {
+                    SVMParameter param = new SVMParameter();
+                    param.setC(cg[f][0]);
+                    param.setGamma(cg[f][1]);
+                    param.setFourierFeatures(dimension);
+                    SVM.rand.setSeed(1);
+                    double[] target = new double[problem.l];
+                    SVM.crossValidation(problem, param, 5, target);
+                    int correct = 0;
+                    for (int i = 0; i < problem.l; i++)
+                        if (target[i] == problem.y[i])
+                            correct++;
+
+                    long start = System.nanoTime();
+                    SVMModel model = SVM.train(problem, param);
+                    long time = System.nanoTime() - start;
+                    model.saveModel(modelFile.toString());
+                    System.out.printf("%s %s: accuracy %.2f%%, training %.0f ms, model %d bytes%n", files[f],
+                            dimension == 0 ? "exact RBF" : "D " + dimension, 100.0 * correct / problem.l, time / 1e6,
+                            Files.size(modelFile));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(modelFile);
+            Files.deleteIfExists(scaled);
+            Files.deleteIfExists(range);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static double accuracy(SVMModel model, SVMProblem problem)
+    {
+        int correct = 0;
+        for (int i = 0; i < problem.l; i++) {
+            if (SVM.predict(model, problem.getMatrix(), i) == problem.y[i])
+                correct++;
+        }
+        return (double) correct / problem.l;
+    }
+}
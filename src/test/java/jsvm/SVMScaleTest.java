@@ -3,6 +3,13 @@ package jsvm;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * @author JiaweiMao
  * @version 1.0.0
@@ -18,4 +25,33 @@ class SVMScaleTest
 //        svmScale.scaleTrain(file);
         svmScale.scaleTest("D:\\data\\datasets\\test.1", file + ".range");
     }
-}
\ No newline at end of file
+
+    /**
+     * The streaming passes give the scaled data and range file of the in-memory version, train.1.scale and
+     * train.1.range, from a file and from a source restoring the saved range.
+     */
+    @Test
+    void testStreaming() throws IOException
+    {
+        Path expectedRange = Paths.get("src/test/resources/train.1.range");
+        Path expectedScale = Paths.get("src/test/resources/train.1.scale");
+        Path dir = Files.createTempDirectory("jsvm");
+        Path range = dir.resolve("train.1.range");
+        Path scaled = dir.resolve("train.1.scale");
+        Path restored = dir.resolve("train.1.restored");
+        try {
+            new SVMScale().scaleTrain("src/test/resources/train.1", range.toString(), scaled.toString());
+            assertEquals(Files.readAllLines(expectedRange), Files.readAllLines(range));
+            assertEquals(Files.readAllLines(expectedScale), Files.readAllLines(scaled));
+
+            SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.1"), FeatureLayout.SPARSE);
+            new SVMScale().scaleTest(DataSource.of(problem), range.toString(), restored.toString());
+            assertEquals(Files.readAllLines(expectedScale), Files.readAllLines(restored));
+        } finally {
+            Files.deleteIfExists(range);
+            Files.deleteIfExists(scaled);
+            Files.deleteIfExists(restored);
+            Files.delete(dir);
+        }
+    }
+}
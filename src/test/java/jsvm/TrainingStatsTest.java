@@ -0,0 +1,58 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 21 Oct 2026, 3:30 PM
+ */
+class TrainingStatsTest
+{
+    /**
+     * With a small cache every computed column is a miss or a partial hit, with the whole kernel matrix in memory
+     * the cache is not used, and the totals are readable through JMX.
+     */
+    @Test
+    void testCounters() throws IOException, JMException
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.1"));
+        int l = problem.l;
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+        param.setCacheSize(0.5);
+        SVMModel model = SVM.train(problem, param);
+        assertTrue(model.param == param);
+        TrainingStats stats = model.getTrainingStats();
+        assertTrue(stats.getSolverIterations() > 0);
+        assertTrue(stats.getCacheMisses() > 0);
+        assertTrue(stats.getCacheHits() > 0);
+        assertTrue(stats.getEvictedBytes() > 0);
+        assertTrue(stats.getSwaps() > 0);
+        assertEquals(stats.getCacheMisses() + stats.getCachePartialHits(), stats.getColumns());
+        assertTrue(stats.getKernelEvaluations() >= l + stats.getColumns());
+
+        param.setCacheSize(100);
+        stats = SVM.train(problem, param).getTrainingStats();
+        assertEquals(0, stats.getCacheHits() + stats.getCachePartialHits() + stats.getCacheMisses());
+        assertEquals(l, stats.getColumns());
+        assertEquals(l * (long) stats.getSwaps(), stats.getSwapVisits());
+        assertTrue(stats.getKernelEvaluations() >= l * (l + 1L) / 2 + l);
+
+        Object iterations = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("jsvm:type=TrainingStats"), "SolverIterations");
+        assertTrue((Long) iterations >= stats.getSolverIterations());
+        assertTrue(TrainingStats.total().getColumns() >= stats.getColumns());
+    }
+}
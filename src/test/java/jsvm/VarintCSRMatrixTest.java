@@ -0,0 +1,119 @@
+package jsvm;
+
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author JiaweiMao
+ * @version 1.0.0
+ * @since 18 Oct 2026, 11:20 PM
+ */
+class VarintCSRMatrixTest
+{
+    @Test
+    void testSameAsCSR()
+    {
+        CSRMatrix csr = bagOfWords(300, 100, 1 << 20, 1);
+        VarintCSRMatrix varint = VarintCSRMatrix.copyOf(csr);
+        assertEquals(csr.getMaxIndex(), varint.getMaxIndex());
+        for (int i = 0; i < csr.rows(); i++) {
+            assertEquals(csr.length(i), varint.length(i));
+            for (int k = 0; k < csr.length(i); k++) {
+                assertEquals(csr.index(i, k), varint.index(i, k));
+                assertEquals(csr.value(i, k), varint.value(i, k));
+            }
+            SVMNode[] x = csr.row(i);
+            for (int j = 0; j < csr.rows(); j += 7) {
+                assertEquals(csr.dot(i, j), varint.dot(i, j));
+                assertEquals(csr.dot(x, j), varint.dot(x, j));
+                assertEquals(csr.squaredDistance(x, j), varint.squaredDistance(x, j));
+                assertEquals(csr.squaredDistance(csr, i, j), varint.squaredDistance(varint, i, j));
+                assertEquals(csr.squaredDistance(csr, i, j), varint.squaredDistance(csr, i, j));
+            }
+        }
+    }
+
+    @Test
+    void testTrain()
+    {
+        SVM.setPrintFunc(ISVMPrint.NO_PRINT);
+        SVMProblem problem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.SPARSE);
+        SVMProblem varintProblem = new SVMProblem(Paths.get("src/test/resources/train.3"), FeatureLayout.VARINT);
+        SVMParameter param = new SVMParameter();
+        param.setGamma(1.0 / problem.getMaxIndex());
+
+        SVMModel model = SVM.train(problem, param);
+        SVMModel varintModel = SVM.train(varintProblem, param);
+        assertTrue(varintModel.getSVMatrix() instanceof VarintCSRMatrix);
+        assertArrayEquals(model.rho, varintModel.rho);
+        for (int k = 0; k < model.sv_coef.length; k++)
+            assertArrayEquals(model.sv_coef[k], varintModel.sv_coef[k]);
+        for (int i = 0; i < problem.l; i++)
+            assertEquals(SVM.predict(model, problem.getMatrix(), i), SVM.predict(varintModel, varintProblem.getMatrix(), i));
+    }
+
+    /**
+     * Kernel throughput of the plain and the varint layout on bag-of-words rows.
+     */
+    @Test
+    @Disabled("benchmark, run by hand")
+    void benchmark()
+    {
+        CSRMatrix csr = bagOfWords(1000, 200, 100000, 2);
+        VarintCSRMatrix varint = VarintCSRMatrix.copyOf(csr);
+        System.out.printf("index memory: int[] %d KB, varint %d KB%n", (4L * csr.nnz() + 4L * csr.rows()) >> 10,
+                varint.indexBytes() >> 10);
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            double sum = allPairs(csr);
+            double csrSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            double varintSum = allPairs(varint);
+            double varintSeconds = (System.nanoTime() - start) / 1e9;
+            assertEquals(sum, varintSum);
+
+            double pairs = (double) csr.rows() * csr.rows();
+            System.out.printf("dot: CSRMatrix %.2f M/s, VarintCSRMatrix %.2f M/s%n", pairs / csrSeconds / 1e6,
+                    pairs / varintSeconds / 1e6);
+        }
+    }
+
+    private static double allPairs(FeatureMatrix x)
+    {
+        double sum = 0;
+        for (int i = 0; i < x.rows(); i++) {
+            for (int j = 0; j < x.rows(); j++)
+                sum += x.dot(i, j);
+        }
+        return sum;
+    }
+
+    /**
+     * Random rows with word indices drawn from a skewed distribution, so frequent words are shared between rows.
+     */
+    private static CSRMatrix bagOfWords(int rows, int words, int vocabulary, long seed)
+    {
+        Random random = new Random(seed);
+        CSRMatrix.Builder builder = new CSRMatrix.Builder(rows, rows * words);
+        for (int i = 0; i < rows; i++) {
+            TreeMap<Integer, Double> row = new TreeMap<>();
+            for (int w = 0; w < words; w++) {
+                int index = 1 + (int) (vocabulary * Math.pow(random.nextDouble(), 3));
+                row.merge(index, 1.0, Double::sum);
+            }
+            row.forEach(builder::add);
+            builder.endRow();
+        }
+        return builder.build();
+    }
+}